@@ -0,0 +1,71 @@
+package com.spotify.integration.benchmark;
+
+import com.spotify.integration.config.WebClientConfig;
+import com.spotify.integration.pkce.AuthorizationStateStore;
+import com.spotify.integration.pkce.PkcePool;
+import com.spotify.integration.service.SpotifyAuthService;
+import com.spotify.integration.util.PKCEUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthUrlBenchmark {
+
+    private PkcePool pkcePool;
+    private AuthorizationStateStore stateStore;
+    private SpotifyAuthService spotifyAuthService;
+
+    @Setup
+    public void setUp() throws Exception {
+        PKCEUtil pkceUtil = new PKCEUtil();
+        pkcePool = new PkcePool(pkceUtil, Thread.ofPlatform().daemon(true).factory(), 1024);
+        pkcePool.start();
+        // Sem callbacks durante a medição, o limite de capacidade é o que mantém o store estável.
+        stateStore = new AuthorizationStateStore(pkceUtil, 100_000, Duration.ofMinutes(10));
+        spotifyAuthService = new SpotifyAuthService(pkcePool, stateStore, null, null, null, null, null, null, null, null, null, null, null, null, null, null);
+        _set("clientId", "0123456789abcdef0123456789abcdef");
+        _set("redirectUri", "http://localhost:8080/auth/callback");
+        _set("accountsBaseUrl", WebClientConfig.DEFAULT_ACCOUNTS_BASE_URL);
+    }
+
+    @Benchmark
+    public String generateSpotifyAuthUrl() {
+        return spotifyAuthService.generateSpotifyAuthUrl();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String generateSpotifyAuthUrlContended() {
+        return spotifyAuthService.generateSpotifyAuthUrl();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pkcePool.stop();
+    }
+
+    private void _set(String fieldName, String value) throws Exception {
+        Field field = SpotifyAuthService.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(spotifyAuthService, value);
+    }
+}
@@ -0,0 +1,116 @@
+package com.spotify.integration.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spotify.integration.config.SpotifyJson;
+import com.spotify.integration.dto.Paging;
+import com.spotify.integration.dto.Track;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding a generated top-tracks page the old way (body as {@code String}, fresh
+ * {@code ObjectMapper}, generic {@code Map}) against typed decoding from a {@code DataBuffer} through the
+ * shared {@link SpotifyJson} readers. Run through {@link BenchmarkRunner}, whose GC profiler reports the
+ * bytes allocated per decode in {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeAllocationBenchmark {
+
+    private static final String[] MARKETS = {"AD", "AE", "AR", "AT", "AU", "BE", "BG", "BO", "BR", "CA", "CH", "CL",
+            "CO", "CR", "CY", "CZ", "DE", "DK", "DO", "EC", "EE", "ES", "FI", "FR", "GB", "GR", "GT", "HK", "HN", "HU",
+            "ID", "IE", "IL", "IS", "IT", "JP", "LI", "LT", "LU", "LV", "MC", "MT", "MX", "MY", "NI", "NL", "NO", "NZ",
+            "PA", "PE", "PH", "PL", "PT", "PY", "RO", "SE", "SG", "SK", "SV", "TH", "TR", "TW", "US", "UY", "VN", "ZA"};
+
+    @Param({"20", "50"})
+    public int tracks;
+
+    private byte[] body;
+
+    @Setup
+    public void generate() {
+        body = _topTracksPayload(tracks).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeLegacy() throws IOException {
+        return _decodeLegacy();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Map<String, Object> decodeLegacyContended() throws IOException {
+        return _decodeLegacy();
+    }
+
+    @Benchmark
+    public Paging<Track> decodeTyped() throws IOException {
+        return _decodeTyped();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Paging<Track> decodeTypedContended() throws IOException {
+        return _decodeTyped();
+    }
+
+    private Map<String, Object> _decodeLegacy() throws IOException {
+        String responseBody = new String(body, StandardCharsets.UTF_8);
+        return new ObjectMapper().readValue(responseBody, new TypeReference<>() {});
+    }
+
+    private Paging<Track> _decodeTyped() throws IOException {
+        try (InputStream input = DefaultDataBufferFactory.sharedInstance.wrap(body).asInputStream(true)) {
+            return SpotifyJson.TRACK_PAGE_READER.readValue(input);
+        }
+    }
+
+    private static String _topTracksPayload(int tracks) {
+        StringBuilder markets = new StringBuilder("[");
+        for (int i = 0; i < MARKETS.length; i++) {
+            markets.append(i > 0 ? "," : "").append('"').append(MARKETS[i]).append('"');
+        }
+        markets.append(']');
+
+        StringBuilder json = new StringBuilder("{\"href\":\"https://api.spotify.com/v1/me/top/tracks\",\"items\":[");
+        for (int i = 0; i < tracks; i++) {
+            json.append(i > 0 ? "," : "")
+                    .append("{\"id\":\"track").append(i).append("\",\"name\":\"Track ").append(i)
+                    .append("\",\"uri\":\"spotify:track:track").append(i)
+                    .append("\",\"popularity\":").append(i % 100)
+                    .append(",\"duration_ms\":").append(180000 + i)
+                    .append(",\"explicit\":false,\"available_markets\":").append(markets)
+                    .append(",\"external_urls\":{\"spotify\":\"https://open.spotify.com/track/track").append(i).append("\"}")
+                    .append(",\"artists\":[{\"id\":\"artist").append(i % 7).append("\",\"name\":\"Artist ").append(i % 7)
+                    .append("\",\"uri\":\"spotify:artist:artist").append(i % 7).append("\"}]")
+                    .append(",\"album\":{\"id\":\"album").append(i).append("\",\"name\":\"Album ").append(i)
+                    .append("\",\"release_date\":\"").append(1970 + i % 50).append("-01-01\",\"release_date_precision\":\"day\"")
+                    .append(",\"available_markets\":").append(markets)
+                    .append(",\"images\":[{\"url\":\"https://i.scdn.co/image/").append(i).append("\",\"height\":640,\"width\":640}]}}");
+        }
+        return json.append("],\"limit\":").append(tracks).append(",\"offset\":0,\"total\":").append(tracks)
+                .append(",\"next\":null,\"previous\":null}").toString();
+    }
+}
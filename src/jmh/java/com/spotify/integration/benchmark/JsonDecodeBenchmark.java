@@ -0,0 +1,69 @@
+package com.spotify.integration.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.spotify.integration.config.SpotifyJson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes recorded Spotify payloads the way {@code SpotifyAuthService._parseResponse} does:
+ * from a {@code DataBuffer} through the shared {@link SpotifyJson} readers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonDecodeBenchmark {
+
+    @Param({"profile", "playlists", "top-tracks"})
+    public String payload;
+
+    private byte[] body;
+    private ObjectReader reader;
+
+    @Setup
+    public void load() throws IOException {
+        try (InputStream input = JsonDecodeBenchmark.class.getResourceAsStream("/payloads/" + payload + ".json")) {
+            body = input.readAllBytes();
+        }
+        reader = switch (payload) {
+            case "profile" -> SpotifyJson.USER_PROFILE_READER;
+            case "playlists" -> SpotifyJson.PLAYLIST_PAGE_READER;
+            default -> SpotifyJson.TRACK_PAGE_READER;
+        };
+    }
+
+    @Benchmark
+    public Object parseResponse() throws IOException {
+        return _decode();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object parseResponseContended() throws IOException {
+        return _decode();
+    }
+
+    private Object _decode() throws IOException {
+        try (InputStream input = DefaultDataBufferFactory.sharedInstance.wrap(body).asInputStream(true)) {
+            return reader.readValue(input);
+        }
+    }
+}
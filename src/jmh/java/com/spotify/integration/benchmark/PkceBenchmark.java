@@ -0,0 +1,49 @@
+package com.spotify.integration.benchmark;
+
+import com.spotify.integration.util.PKCEUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PkceBenchmark {
+
+    private final PKCEUtil pkceUtil = new PKCEUtil();
+    private final String codeVerifier = pkceUtil.generateCodeVerifier();
+
+    @Benchmark
+    public String generateCodeVerifier() {
+        return pkceUtil.generateCodeVerifier();
+    }
+
+    @Benchmark
+    public String generateCodeChallenge() {
+        return pkceUtil.generateCodeChallenge(codeVerifier);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String generateCodeVerifierContended() {
+        return pkceUtil.generateCodeVerifier();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String generateCodeChallengeContended() {
+        return pkceUtil.generateCodeChallenge(codeVerifier);
+    }
+}
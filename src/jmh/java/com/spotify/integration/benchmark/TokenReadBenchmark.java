@@ -0,0 +1,78 @@
+package com.spotify.integration.benchmark;
+
+import com.spotify.integration.metrics.SpotifyMetrics;
+import com.spotify.integration.service.SpotifyAuthService;
+import com.spotify.integration.token.InMemoryTokenStore;
+import com.spotify.integration.token.SpotifyToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot read path of {@code getValidAccessToken} for valid, unexpired tokens across many sessions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenReadBenchmark {
+
+    @Param({"1000", "100000"})
+    public int sessions;
+
+    private String[] sessionIds;
+    private InMemoryTokenStore tokenStore;
+    private SpotifyAuthService spotifyAuthService;
+
+    @Setup
+    public void populate() {
+        tokenStore = new InMemoryTokenStore(sessions, Duration.ofHours(12));
+        sessionIds = new String[sessions];
+        Instant expiresAt = Instant.now().plus(Duration.ofDays(1));
+        for (int i = 0; i < sessions; i++) {
+            sessionIds[i] = "session-" + i;
+            tokenStore.save(sessionIds[i], new SpotifyToken("access-" + i, "refresh-" + i, expiresAt));
+        }
+        // Apenas o caminho de leitura é exercitado: os colaboradores de rede não são usados.
+        spotifyAuthService = new SpotifyAuthService(null, null, null, tokenStore, null, null, null, null, null, null, null, null, null,
+                new SpotifyMetrics(new SimpleMeterRegistry()), null, null);
+    }
+
+    @Benchmark
+    public Object getValidAccessToken() {
+        return spotifyAuthService.getValidAccessToken(_randomSession()).block();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object getValidAccessTokenContended() {
+        return spotifyAuthService.getValidAccessToken(_randomSession()).block();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public SpotifyToken tokenStoreGetContended() {
+        return tokenStore.get(_randomSession());
+    }
+
+    private String _randomSession() {
+        return sessionIds[ThreadLocalRandom.current().nextInt(sessionIds.length)];
+    }
+}
@@ -0,0 +1,122 @@
+package com.spotify.integration.analytics;
+
+import com.spotify.integration.dto.Artist;
+import com.spotify.integration.dto.Track;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Running histograms over a set of tracks. Tracks are added with {@code +1} and retracted with
+ * {@code -1}, so a changed top list is applied as a diff instead of being recounted. Not thread-safe:
+ * callers {@link #copy()} before changing an aggregate that may be shared.
+ */
+final class ListeningAggregate {
+
+    private static final int FIRST_DECADE = 1900;
+    private static final int DECADES = 16;
+    private static final int TOP = 20;
+
+    private final NameCounter artists;
+    private final NameCounter genres;
+    private final int[] popularity;
+    private final int[] decades;
+    private int tracks;
+    private long popularitySum;
+
+    ListeningAggregate() {
+        this.artists = new NameCounter();
+        this.genres = new NameCounter();
+        this.popularity = new int[11];
+        // Última posição: data de lançamento desconhecida ou fora do intervalo.
+        this.decades = new int[DECADES + 1];
+    }
+
+    private ListeningAggregate(ListeningAggregate source) {
+        this.artists = source.artists.copy();
+        this.genres = source.genres.copy();
+        this.popularity = source.popularity.clone();
+        this.decades = source.decades.clone();
+        this.tracks = source.tracks;
+        this.popularitySum = source.popularitySum;
+    }
+
+    ListeningAggregate copy() {
+        return new ListeningAggregate(this);
+    }
+
+    void add(Track track, Function<String, List<String>> genresOf, int sign) {
+        tracks += sign;
+        int trackPopularity = Math.max(0, Math.min(100, track.getPopularity()));
+        popularitySum += (long) sign * trackPopularity;
+        popularity[trackPopularity / 10] += sign;
+        decades[_decadeSlot(track)] += sign;
+
+        if (track.getArtists() == null) {
+            return;
+        }
+        for (Artist artist : track.getArtists()) {
+            if (artist.getId() == null) {
+                continue;
+            }
+            artists.add(artist.getId(), artist.getName(), sign);
+            List<String> artistGenres = genresOf.apply(artist.getId());
+            if (artistGenres != null) {
+                for (String genre : artistGenres) {
+                    genres.add(genre, genre, sign);
+                }
+            }
+        }
+    }
+
+    void merge(ListeningAggregate other) {
+        artists.addAll(other.artists);
+        genres.addAll(other.genres);
+        for (int i = 0; i < popularity.length; i++) {
+            popularity[i] += other.popularity[i];
+        }
+        for (int i = 0; i < decades.length; i++) {
+            decades[i] += other.decades[i];
+        }
+        tracks += other.tracks;
+        popularitySum += other.popularitySum;
+    }
+
+    RangeSummary toSummary() {
+        Map<String, Integer> byDecade = new LinkedHashMap<>();
+        for (int i = 0; i < DECADES; i++) {
+            if (decades[i] > 0) {
+                byDecade.put((FIRST_DECADE + 10 * i) + "s", decades[i]);
+            }
+        }
+        if (decades[DECADES] > 0) {
+            byDecade.put("unknown", decades[DECADES]);
+        }
+        return new RangeSummary(tracks,
+                tracks > 0 ? (double) popularitySum / tracks : 0,
+                artists.top(TOP),
+                genres.top(TOP),
+                popularity.clone(),
+                byDecade);
+    }
+
+    private static int _decadeSlot(Track track) {
+        String releaseDate = track.getAlbum() != null ? track.getAlbum().getReleaseDate() : null;
+        if (releaseDate == null || releaseDate.length() < 4) {
+            return DECADES;
+        }
+        // Release date é "YYYY", "YYYY-MM" ou "YYYY-MM-DD": só o ano importa.
+        int year = 0;
+        for (int i = 0; i < 4; i++) {
+            char c = releaseDate.charAt(i);
+            if (c < '0' || c > '9') {
+                return DECADES;
+            }
+            year = year * 10 + (c - '0');
+        }
+        int slot = (year - FIRST_DECADE) / 10;
+        return slot >= 0 && slot < DECADES ? slot : DECADES;
+    }
+}
@@ -0,0 +1,322 @@
+package com.spotify.integration.analytics;
+
+import com.spotify.integration.config.SpotifyJson;
+import com.spotify.integration.dto.Artist;
+import com.spotify.integration.dto.Track;
+import com.spotify.integration.service.SpotifyAuthService;
+import com.spotify.integration.service.SpotifyBatchLookupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds artist, genre, popularity and release-decade histograms over a user's top tracks in the
+ * three time ranges, which are fetched concurrently.
+ * <p>
+ * Per session, the last aggregate of each range is kept together with the tracks it was built from.
+ * A new top list is applied as a diff: tracks that left are retracted and tracks that entered are added,
+ * so a mostly stable ranking costs a few array updates instead of a full recount. A state stops being
+ * served after {@code ttl} but is retained for {@code retention}, much longer, as the base of that diff.
+ */
+@Service
+public class ListeningAnalyticsService {
+
+    private final static Logger logger = LoggerFactory.getLogger(ListeningAnalyticsService.class);
+
+    // Abaixo disso a fusão é feita na própria thread; acima, dividida entre as threads do pool.
+    private static final int MERGE_THRESHOLD = 16;
+
+    private final SpotifyAuthService spotifyAuthService;
+    private final SpotifyBatchLookupService batchLookupService;
+    private final long ttlNanos;
+    private final long retentionNanos;
+    private final int maxCachedArtists;
+    private final int batchConcurrency;
+    private final int maxAggregateSessions;
+
+    private final ConcurrentHashMap<String, SessionState> sessions = new ConcurrentHashMap<>();
+    // Gêneros são dados de catálogo: valem para todos os usuários.
+    private final ConcurrentHashMap<String, List<String>> artistGenres = new ConcurrentHashMap<>();
+
+    private final LongAdder fullComputations = new LongAdder();
+    private final LongAdder incrementalUpdates = new LongAdder();
+
+    public ListeningAnalyticsService(SpotifyAuthService spotifyAuthService,
+                                     SpotifyBatchLookupService batchLookupService,
+                                     @Value("${spotify.analytics.ttl:PT30M}") Duration ttl,
+                                     @Value("${spotify.analytics.retention:PT6H}") Duration retention,
+                                     @Value("${spotify.analytics.max-cached-artists:100000}") int maxCachedArtists,
+                                     @Value("${spotify.analytics.batch-concurrency:8}") int batchConcurrency,
+                                     @Value("${spotify.analytics.max-aggregate-sessions:1000}") int maxAggregateSessions) {
+        this.spotifyAuthService = spotifyAuthService;
+        this.batchLookupService = batchLookupService;
+        this.ttlNanos = ttl.toNanos();
+        this.retentionNanos = Math.max(ttl.toNanos(), retention.toNanos());
+        this.maxCachedArtists = maxCachedArtists;
+        this.batchConcurrency = batchConcurrency;
+        this.maxAggregateSessions = maxAggregateSessions;
+    }
+
+    public Mono<ListeningProfile> getListeningProfile(String sessionId) {
+        return _sessionState(sessionId, false).map(SessionState::toProfile);
+    }
+
+    public int getCachedSessions() {
+        return sessions.size();
+    }
+
+    public int getCachedArtists() {
+        return artistGenres.size();
+    }
+
+    public long getFullComputations() {
+        return fullComputations.sum();
+    }
+
+    public long getIncrementalUpdates() {
+        return incrementalUpdates.sum();
+    }
+
+    public int getMaxAggregateSessions() {
+        return maxAggregateSessions;
+    }
+
+    /**
+     * Combines the listening profiles of many sessions into one, for batch jobs. Sessions are fetched
+     * with bounded concurrency on the background lane, without counting as use of the session, and
+     * their aggregates merged pairwise on the fork/join pool.
+     */
+    public Mono<ListeningProfile> aggregateAcross(Collection<String> sessionIds) {
+        return Flux.fromIterable(sessionIds)
+                .flatMap(sessionId -> _sessionState(sessionId, true)
+                        .onErrorResume(e -> {
+                            logger.warn("Sessão {} ignorada na agregação: {}", sessionId, e.getMessage());
+                            return Mono.empty();
+                        }), batchConcurrency)
+                .collectList()
+                .publishOn(Schedulers.boundedElastic())
+                .map(states -> {
+                    Map<String, RangeSummary> ranges = new LinkedHashMap<>();
+                    for (TimeRange range : TimeRange.values()) {
+                        List<ListeningAggregate> aggregates = new ArrayList<>(states.size());
+                        for (SessionState state : states) {
+                            aggregates.add(state.ranges.get(range).aggregate);
+                        }
+                        ListeningAggregate merged = aggregates.isEmpty()
+                                ? new ListeningAggregate()
+                                : ForkJoinPool.commonPool().invoke(new MergeTask(aggregates, 0, aggregates.size()));
+                        ranges.put(range.getValue(), merged.toSummary());
+                    }
+                    return new ListeningProfile(ranges);
+                });
+    }
+
+    /**
+     * Drops states past their retention. A state past its TTL but within retention is no longer served,
+     * only kept so the next computation for the session can be applied as a diff.
+     */
+    @Scheduled(fixedDelayString = "${spotify.analytics.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        sessions.values().removeIf(state -> now - state.computedAt >= retentionNanos);
+    }
+
+    private Mono<SessionState> _sessionState(String sessionId, boolean background) {
+        SessionState cached = sessions.get(sessionId);
+        if (cached != null && System.nanoTime() - cached.computedAt < ttlNanos) {
+            return Mono.just(cached);
+        }
+
+        Map<TimeRange, Mono<List<Track>>> fetches = new EnumMap<>(TimeRange.class);
+        for (TimeRange range : TimeRange.values()) {
+            String path = "/v1/me/top/tracks?time_range=" + range.getValue();
+            Flux<Track> tracks = background
+                    ? spotifyAuthService.streamAllPagesInBackground(sessionId, path, SpotifyJson.TRACK_PAGE_READER)
+                    : spotifyAuthService.streamAllPages(sessionId, path, SpotifyJson.TRACK_PAGE_READER);
+            fetches.put(range, tracks.collectList());
+        }
+        return Mono.zip(fetches.get(TimeRange.SHORT_TERM), fetches.get(TimeRange.MEDIUM_TERM), fetches.get(TimeRange.LONG_TERM))
+                .flatMap(lists -> {
+                    Map<TimeRange, List<Track>> topTracks = new EnumMap<>(TimeRange.class);
+                    topTracks.put(TimeRange.SHORT_TERM, lists.getT1());
+                    topTracks.put(TimeRange.MEDIUM_TERM, lists.getT2());
+                    topTracks.put(TimeRange.LONG_TERM, lists.getT3());
+                    return _resolveGenres(topTracks.values())
+                            .map(genres -> {
+                                SessionState previous = sessions.get(sessionId);
+                                (previous != null ? incrementalUpdates : fullComputations).increment();
+                                SessionState next = new SessionState();
+                                for (TimeRange range : TimeRange.values()) {
+                                    RangeState before = previous != null ? previous.ranges.get(range) : null;
+                                    next.ranges.put(range, RangeState.apply(before, topTracks.get(range), genres));
+                                }
+                                sessions.put(sessionId, next);
+                                return next;
+                            });
+                });
+    }
+
+    /**
+     * Looks up, through the batched artist endpoint, the genres of every artist not seen before.
+     */
+    private Mono<Map<String, List<String>>> _resolveGenres(Collection<List<Track>> topTracks) {
+        Set<String> artistIds = new HashSet<>();
+        for (List<Track> tracks : topTracks) {
+            for (Track track : tracks) {
+                if (track.getArtists() != null) {
+                    for (Artist artist : track.getArtists()) {
+                        if (artist.getId() != null) {
+                            artistIds.add(artist.getId());
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<String, List<String>> genres = new ConcurrentHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String artistId : artistIds) {
+            List<String> known = artistGenres.get(artistId);
+            if (known != null) {
+                genres.put(artistId, known);
+            } else {
+                missing.add(artistId);
+            }
+        }
+        return Flux.fromIterable(missing)
+                .flatMap(batchLookupService::getArtist)
+                .doOnNext(artist -> {
+                    List<String> artistGenreList = artist.getGenres() != null ? List.copyOf(artist.getGenres()) : List.of();
+                    genres.put(artist.getId(), artistGenreList);
+                    if (artistGenres.size() < maxCachedArtists) {
+                        artistGenres.put(artist.getId(), artistGenreList);
+                    }
+                })
+                .then(Mono.just(genres));
+    }
+
+    private static final class SessionState {
+
+        final Map<TimeRange, RangeState> ranges = new EnumMap<>(TimeRange.class);
+        final long computedAt = System.nanoTime();
+
+        ListeningProfile toProfile() {
+            Map<String, RangeSummary> summaries = new LinkedHashMap<>();
+            ranges.forEach((range, state) -> summaries.put(range.getValue(), state.summary));
+            return new ListeningProfile(summaries);
+        }
+    }
+
+    /**
+     * Aggregate of one range plus the tracks, and the genres each track was counted with, so any of
+     * them can later be retracted exactly.
+     */
+    private static final class RangeState {
+
+        final Map<String, CountedTrack> tracks;
+        final ListeningAggregate aggregate;
+        final RangeSummary summary;
+
+        private RangeState(Map<String, CountedTrack> tracks, ListeningAggregate aggregate) {
+            this.tracks = tracks;
+            this.aggregate = aggregate;
+            this.summary = aggregate.toSummary();
+        }
+
+        static RangeState apply(RangeState previous, List<Track> current, Map<String, List<String>> genres) {
+            // O estado anterior pode estar sendo lido por outra requisição: as alterações vão para uma cópia.
+            ListeningAggregate aggregate = previous != null ? previous.aggregate.copy() : new ListeningAggregate();
+            Map<String, CountedTrack> before = previous != null ? previous.tracks : Map.of();
+            Map<String, CountedTrack> after = new HashMap<>();
+
+            for (Track track : current) {
+                if (track.getId() == null || after.containsKey(track.getId())) {
+                    continue;
+                }
+                CountedTrack kept = before.get(track.getId());
+                if (kept != null) {
+                    after.put(track.getId(), kept);
+                } else {
+                    CountedTrack added = new CountedTrack(track, _genresOf(track, genres));
+                    aggregate.add(track, added.genres::get, +1);
+                    after.put(track.getId(), added);
+                }
+            }
+            for (Map.Entry<String, CountedTrack> entry : before.entrySet()) {
+                if (!after.containsKey(entry.getKey())) {
+                    CountedTrack removed = entry.getValue();
+                    aggregate.add(removed.track, removed.genres::get, -1);
+                }
+            }
+            return new RangeState(after, aggregate);
+        }
+
+        private static Map<String, List<String>> _genresOf(Track track, Map<String, List<String>> genres) {
+            if (track.getArtists() == null) {
+                return Map.of();
+            }
+            Map<String, List<String>> used = new HashMap<>();
+            for (Artist artist : track.getArtists()) {
+                List<String> artistGenreList = artist.getId() != null ? genres.get(artist.getId()) : null;
+                if (artistGenreList != null) {
+                    used.put(artist.getId(), artistGenreList);
+                }
+            }
+            return used;
+        }
+    }
+
+    private record CountedTrack(Track track, Map<String, List<String>> genres) {
+    }
+
+    private static final class MergeTask extends RecursiveTask<ListeningAggregate> {
+
+        private final List<ListeningAggregate> aggregates;
+        private final int from;
+        private final int to;
+
+        MergeTask(List<ListeningAggregate> aggregates, int from, int to) {
+            this.aggregates = aggregates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ListeningAggregate compute() {
+            if (to - from <= MERGE_THRESHOLD) {
+                ListeningAggregate merged = new ListeningAggregate();
+                for (int i = from; i < to; i++) {
+                    merged.merge(aggregates.get(i));
+                }
+                return merged;
+            }
+            int middle = (from + to) >>> 1;
+            MergeTask left = new MergeTask(aggregates, from, middle);
+            left.fork();
+            ListeningAggregate right = new MergeTask(aggregates, middle, to).compute();
+            ListeningAggregate merged = left.join();
+            merged.merge(right);
+            return merged;
+        }
+    }
+}
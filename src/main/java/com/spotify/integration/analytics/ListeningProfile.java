@@ -0,0 +1,9 @@
+package com.spotify.integration.analytics;
+
+import java.util.Map;
+
+/**
+ * Summaries keyed by Spotify's {@code time_range} value ({@code short_term}, {@code medium_term}, {@code long_term}).
+ */
+public record ListeningProfile(Map<String, RangeSummary> ranges) {
+}
@@ -0,0 +1,4 @@
+package com.spotify.integration.analytics;
+
+public record NameCount(String name, int count) {
+}
@@ -0,0 +1,84 @@
+package com.spotify.integration.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Counts per key over dense int slots: each distinct key is interned once, after which
+ * counting is an array increment. Not thread-safe.
+ */
+final class NameCounter {
+
+    private final HashMap<String, Integer> slots;
+    private String[] keys;
+    private String[] names;
+    private int[] counts;
+    private int size;
+
+    NameCounter() {
+        this.slots = new HashMap<>();
+        this.keys = new String[16];
+        this.names = new String[16];
+        this.counts = new int[16];
+    }
+
+    private NameCounter(NameCounter source) {
+        this.slots = new HashMap<>(source.slots);
+        this.keys = source.keys.clone();
+        this.names = source.names.clone();
+        this.counts = source.counts.clone();
+        this.size = source.size;
+    }
+
+    NameCounter copy() {
+        return new NameCounter(this);
+    }
+
+    void add(String key, String name, int delta) {
+        Integer slot = slots.get(key);
+        if (slot == null) {
+            if (delta <= 0) {
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                names = Arrays.copyOf(names, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            slot = size++;
+            slots.put(key, slot);
+            keys[slot] = key;
+        }
+        names[slot] = name;
+        counts[slot] += delta;
+    }
+
+    void addAll(NameCounter other) {
+        for (int i = 0; i < other.size; i++) {
+            if (other.counts[i] > 0) {
+                add(other.keys[i], other.names[i], other.counts[i]);
+            }
+        }
+    }
+
+    List<NameCount> top(int limit) {
+        Integer[] order = new Integer[size];
+        int live = 0;
+        for (int i = 0; i < size; i++) {
+            if (counts[i] > 0) {
+                order[live++] = i;
+            }
+        }
+        // Empates por chave: o resultado não depende da ordem em que as chaves apareceram.
+        Arrays.sort(order, 0, live, (a, b) -> counts[a] != counts[b]
+                ? Integer.compare(counts[b], counts[a])
+                : keys[a].compareTo(keys[b]));
+        List<NameCount> result = new ArrayList<>(Math.min(limit, live));
+        for (int i = 0; i < live && i < limit; i++) {
+            result.add(new NameCount(names[order[i]], counts[order[i]]));
+        }
+        return result;
+    }
+}
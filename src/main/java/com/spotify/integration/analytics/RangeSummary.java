@@ -0,0 +1,18 @@
+package com.spotify.integration.analytics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Listening summary of one time range. {@code popularityHistogram[i]} counts tracks with popularity
+ * in {@code [10 * i, 10 * i + 9]}, the last bucket holding popularity 100.
+ */
+public record RangeSummary(@JsonProperty("tracks") int tracks,
+                           @JsonProperty("average_popularity") double averagePopularity,
+                           @JsonProperty("top_artists") List<NameCount> topArtists,
+                           @JsonProperty("top_genres") List<NameCount> topGenres,
+                           @JsonProperty("popularity_histogram") int[] popularityHistogram,
+                           @JsonProperty("decades") Map<String, Integer> decades) {
+}
@@ -0,0 +1,21 @@
+package com.spotify.integration.analytics;
+
+public enum TimeRange {
+
+    SHORT_TERM("short_term"),
+    MEDIUM_TERM("medium_term"),
+    LONG_TERM("long_term");
+
+    private final String value;
+
+    TimeRange(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Value of Spotify's {@code time_range} query parameter.
+     */
+    public String getValue() {
+        return value;
+    }
+}
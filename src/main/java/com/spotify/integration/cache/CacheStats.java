@@ -0,0 +1,5 @@
+package com.spotify.integration.cache;
+
+public record CacheStats(long hits, long misses, long revalidations, long revalidationMisses,
+                         long evictions, int entries, long weightBytes) {
+}
@@ -0,0 +1,27 @@
+package com.spotify.integration.cache;
+
+public enum CachedEndpoint {
+
+    PROFILE("profile", "/v1/me"),
+    PLAYLISTS("playlists", "/v1/me/playlists"),
+    TOP_TRACKS("top-tracks", "/v1/me/top/tracks");
+
+    private final String key;
+    private final String path;
+
+    CachedEndpoint(String key, String path) {
+        this.key = key;
+        this.path = path;
+    }
+
+    /**
+     * Name used in per-endpoint properties, such as {@code spotify.timeouts.<key>}.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public String getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,90 @@
+package com.spotify.integration.cache;
+
+import com.spotify.integration.util.ClockEviction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Catalog entities (tracks, artists, albums) shared by every user, since they were fetched with the
+ * app token. Memory is bounded by the estimated weight of the cached entities, evicted in CLOCK order
+ * by {@link ClockEviction} like {@link SpotifyResponseCache}; entries also expire after
+ * {@code spotify.catalog.ttl}.
+ */
+@Component
+public class CatalogCache {
+
+    private final ConcurrentHashMap<CacheKey, Entry> entries = new ConcurrentHashMap<>();
+    private final ClockEviction<CacheKey, Entry> clock = new ClockEviction<>(entries);
+    private final AtomicLong weight = new AtomicLong();
+
+    private final long ttlNanos;
+    private final long maxWeightBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CatalogCache(@Value("${spotify.catalog.ttl:PT6H}") Duration ttl,
+                        @Value("${spotify.catalog.max-weight-bytes:33554432}") long maxWeightBytes) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxWeightBytes = maxWeightBytes;
+    }
+
+    /**
+     * Returns the cached entity, or {@code null} if it is absent or expired.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String type, String id) {
+        CacheKey key = new CacheKey(type, id);
+        Entry entry = entries.get(key);
+        if (entry == null || System.nanoTime() - entry.expiresAtNanos >= 0) {
+            if (entry != null && entries.remove(key, entry)) {
+                weight.addAndGet(-entry.weightBytes);
+            }
+            misses.increment();
+            return null;
+        }
+        entry.markReferenced();
+        hits.increment();
+        return (T) entry.value;
+    }
+
+    public void put(String type, String id, Object value, int weightBytes) {
+        CacheKey key = new CacheKey(type, id);
+        Entry entry = new Entry(value, weightBytes, System.nanoTime() + ttlNanos);
+        Entry previous = entries.put(key, entry);
+        weight.addAndGet(weightBytes - (previous != null ? previous.weightBytes : 0));
+        if (previous == null) {
+            clock.add(key);
+        }
+        clock.evict(() -> weight.get() > maxWeightBytes, (evictedKey, evicted) -> {
+            weight.addAndGet(-evicted.weightBytes);
+            evictions.increment();
+        });
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), 0, 0, evictions.sum(), entries.size(), weight.get());
+    }
+
+    private record CacheKey(String type, String id) {
+    }
+
+    private static final class Entry extends ClockEviction.Entry {
+
+        final Object value;
+        final int weightBytes;
+        final long expiresAtNanos;
+
+        Entry(Object value, int weightBytes, long expiresAtNanos) {
+            this.value = value;
+            this.weightBytes = weightBytes;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.spotify.integration.cache;
+
+import com.spotify.integration.util.ClockEviction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-session cache of parsed Spotify responses. Entries stay in the cache after their TTL expires
+ * so they can be revalidated with {@code If-None-Match}; memory is bounded by the total body weight.
+ */
+@Component
+public class SpotifyResponseCache {
+
+    private final ConcurrentHashMap<CacheKey, Entry> entries = new ConcurrentHashMap<>();
+    private final ClockEviction<CacheKey, Entry> clock = new ClockEviction<>(entries);
+    private final AtomicLong weight = new AtomicLong();
+
+    private final Map<CachedEndpoint, Long> ttlNanos = new EnumMap<>(CachedEndpoint.class);
+    private final long maxWeightBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder revalidationMisses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SpotifyResponseCache(@Value("${spotify.cache.ttl.profile:PT5M}") Duration profileTtl,
+                                @Value("${spotify.cache.ttl.playlists:PT1M}") Duration playlistsTtl,
+                                @Value("${spotify.cache.ttl.top-tracks:PT10M}") Duration topTracksTtl,
+                                @Value("${spotify.cache.max-weight-bytes:67108864}") long maxWeightBytes) {
+        ttlNanos.put(CachedEndpoint.PROFILE, profileTtl.toNanos());
+        ttlNanos.put(CachedEndpoint.PLAYLISTS, playlistsTtl.toNanos());
+        ttlNanos.put(CachedEndpoint.TOP_TRACKS, topTracksTtl.toNanos());
+        this.maxWeightBytes = maxWeightBytes;
+    }
+
+    /**
+     * Returns the entry for the session and endpoint, fresh or stale, or {@code null} if absent.
+     */
+    public Entry get(String sessionId, CachedEndpoint endpoint) {
+        Entry entry = entries.get(new CacheKey(sessionId, endpoint));
+        if (entry != null) {
+            entry.markReferenced();
+        }
+        return entry;
+    }
+
+    /**
+     * Like {@link #get}, but without marking the entry as used: background refreshes must not keep
+     * entries alive that no user reads anymore.
+     */
+    public Entry peek(String sessionId, CachedEndpoint endpoint) {
+        return entries.get(new CacheKey(sessionId, endpoint));
+    }
+
+    public void put(String sessionId, CachedEndpoint endpoint, Object value, String etag, int weightBytes) {
+        CacheKey key = new CacheKey(sessionId, endpoint);
+        Entry entry = new Entry(value, etag, weightBytes, System.nanoTime() + ttlNanos.get(endpoint));
+        Entry previous = entries.put(key, entry);
+        weight.addAndGet(weightBytes - (previous != null ? previous.weightBytes : 0));
+        if (previous == null) {
+            clock.add(key);
+        }
+        clock.evict(() -> weight.get() > maxWeightBytes, (evictedKey, evicted) -> {
+            weight.addAndGet(-evicted.weightBytes);
+            evictions.increment();
+        });
+    }
+
+    /**
+     * Extends a stale entry's lifetime after the upstream confirmed it with {@code 304 Not Modified}.
+     */
+    public void renew(String sessionId, CachedEndpoint endpoint, Entry entry) {
+        Entry renewed = new Entry(entry.value, entry.etag, entry.weightBytes, System.nanoTime() + ttlNanos.get(endpoint));
+        entries.replace(new CacheKey(sessionId, endpoint), entry, renewed);
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordRevalidation(boolean notModified) {
+        if (notModified) {
+            revalidations.increment();
+        } else {
+            revalidationMisses.increment();
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), revalidations.sum(), revalidationMisses.sum(),
+                evictions.sum(), entries.size(), weight.get());
+    }
+
+    private record CacheKey(String sessionId, CachedEndpoint endpoint) {
+    }
+
+    public static final class Entry extends ClockEviction.Entry {
+
+        private final Object value;
+        private final String etag;
+        private final int weightBytes;
+        private final long expiresAtNanos;
+
+        Entry(Object value, String etag, int weightBytes, long expiresAtNanos) {
+            this.value = value;
+            this.etag = etag;
+            this.weightBytes = weightBytes;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        public boolean isFresh() {
+            return System.nanoTime() - expiresAtNanos < 0;
+        }
+
+        /**
+         * Whether the entry is stale or becomes stale within {@code nanos}.
+         */
+        public boolean expiresWithin(long nanos) {
+            return System.nanoTime() + nanos - expiresAtNanos >= 0;
+        }
+
+        public long getExpiresAtNanos() {
+            return expiresAtNanos;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T getValue() {
+            return (T) value;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.spotify.integration.client;
+
+/**
+ * Count-based circuit breaker. It opens when the failure rate over the last {@code windowSize} calls
+ * reaches the threshold, rejects calls while open, and after {@code openDuration} lets a few probe
+ * calls through: all of them must succeed to close it again, any failure reopens it.
+ * <p>
+ * Every permit carries the generation it was issued in, and each state change starts a new one. An
+ * outcome from an earlier generation is dropped: a call admitted while closed that finishes during
+ * half-open is not one of the probes, and neither closes nor reopens the circuit.
+ * <p>
+ * State changes are rare and every method is a handful of field updates, so plain monitors are used.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Returned by {@link #tryAcquire()} when the call must not proceed.
+     */
+    public static final long REJECTED = -1;
+
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private int next;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openNanos, int halfOpenProbes) {
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openNanos;
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    /**
+     * Returns a permit for the call, or {@link #REJECTED}. Every permitted call must be settled with
+     * exactly one of {@link #onSuccess}, {@link #onFailure} or {@link #onIgnored}, passing the permit.
+     */
+    public synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return REJECTED;
+            }
+            state = State.HALF_OPEN;
+            generation++;
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenProbes) {
+                return REJECTED;
+            }
+            probesStarted++;
+        }
+        return generation;
+    }
+
+    public synchronized void onSuccess(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= halfOpenProbes) {
+                _reset(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            _record(false);
+        }
+    }
+
+    public synchronized void onFailure(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            _open();
+        } else if (state == State.CLOSED) {
+            _record(true);
+            if (calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+                _open();
+            }
+        }
+    }
+
+    /**
+     * Settles a call whose outcome says nothing about the upstream, such as a cancelled hedge.
+     */
+    public synchronized void onIgnored(long permit) {
+        if (permit == generation && state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+            probesStarted--;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void _record(boolean failure) {
+        if (calls == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void _open() {
+        _reset(State.OPEN);
+        openedAt = System.nanoTime();
+    }
+
+    private void _reset(State newState) {
+        state = newState;
+        generation++;
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+}
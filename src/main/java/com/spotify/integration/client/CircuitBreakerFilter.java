@@ -0,0 +1,59 @@
+package com.spotify.integration.client;
+
+import com.spotify.integration.exception.SpotifyUpstreamUnavailableException;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Guards every request of a {@code WebClient} with the circuit breaker of its upstream host.
+ * Connection errors, timeouts and 5xx responses count as failures; 4xx responses say nothing
+ * about the host's health and count as successes.
+ */
+public class CircuitBreakerFilter implements ExchangeFilterFunction {
+
+    private final CircuitBreaker circuitBreaker;
+    // Com o circuito aberto toda requisição falha igual: uma única exceção, sem stack trace, serve a todas.
+    private final SpotifyUpstreamUnavailableException circuitOpen;
+
+    public CircuitBreakerFilter(CircuitBreaker circuitBreaker, String host) {
+        this.circuitBreaker = circuitBreaker;
+        this.circuitOpen = SpotifyUpstreamUnavailableException.stackless(
+                "Circuito aberto para o host " + host + " do Spotify; requisição recusada.");
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            long permit = circuitBreaker.tryAcquire();
+            if (permit == CircuitBreaker.REJECTED) {
+                return Mono.error(circuitOpen);
+            }
+            AtomicBoolean settled = new AtomicBoolean();
+            return next.exchange(request)
+                    .doOnNext(response -> {
+                        if (settled.compareAndSet(false, true)) {
+                            if (response.statusCode().is5xxServerError()) {
+                                circuitBreaker.onFailure(permit);
+                            } else {
+                                circuitBreaker.onSuccess(permit);
+                            }
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (settled.compareAndSet(false, true)) {
+                            circuitBreaker.onFailure(permit);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (settled.compareAndSet(false, true)) {
+                            circuitBreaker.onIgnored(permit);
+                        }
+                    });
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package com.spotify.integration.client;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses identical concurrent requests, keyed by (session, method, URI, priority), into a single
+ * upstream call whose result is shared by every caller. The entry is removed as soon as the upstream
+ * call terminates, and the upstream call is cancelled only when every caller has cancelled.
+ * <p>
+ * Requests on different scheduler lanes are never collapsed: a user request joining a background
+ * prefetch would otherwise wait behind the background queue and run without the user path's hedging.
+ */
+@Component
+public class InFlightRequestCoalescer {
+
+    private final ConcurrentHashMap<Key, Mono<?>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(String sessionId, HttpMethod method, String uri, RequestPriority priority,
+                               Supplier<Mono<T>> request) {
+        Key key = new Key(sessionId, method.name(), uri, priority);
+        return Mono.defer(() -> {
+            boolean[] leader = {false};
+            Mono<?> shared = inFlight.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                return _share(k, request);
+            });
+            if (leader[0]) {
+                executed.increment();
+            } else {
+                collapsed.increment();
+            }
+            return (Mono<T>) shared;
+        });
+    }
+
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    public long getCollapsed() {
+        return collapsed.sum();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private <T> Mono<T> _share(Key key, Supplier<Mono<T>> request) {
+        AtomicReference<Mono<T>> self = new AtomicReference<>();
+        Mono<T> shared = Mono.defer(request)
+                // Remove apenas a própria entrada: uma nova requisição pode já ter ocupado a chave.
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .flux()
+                .publish()
+                .refCount(1)
+                .singleOrEmpty();
+        self.set(shared);
+        return shared;
+    }
+
+    private record Key(String sessionId, String method, String uri, RequestPriority priority) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.spotify.integration.client;
+
+import com.spotify.integration.exception.SpotifyUpstreamUnavailableException;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Per-endpoint latency budgets, read from {@code spotify.timeouts.<endpoint>}. A budget covers the whole
+ * call as the caller sees it, including token lookup and time queued in the request scheduler.
+ */
+@Component
+public class LatencyBudgets {
+
+    private static final Map<String, Duration> DEFAULTS = Map.of(
+            "profile", Duration.ofSeconds(2),
+            "playlists", Duration.ofSeconds(3),
+            "top-tracks", Duration.ofSeconds(3),
+            "token", Duration.ofSeconds(5),
+            "default", Duration.ofSeconds(5));
+
+    private final Environment environment;
+    private final Map<String, Duration> budgets = new ConcurrentHashMap<>();
+    private final Map<String, SpotifyUpstreamUnavailableException> timeouts = new ConcurrentHashMap<>();
+
+    public LatencyBudgets(Environment environment) {
+        this.environment = environment;
+    }
+
+    public Duration forEndpoint(String endpoint) {
+        return budgets.computeIfAbsent(endpoint, key -> environment.getProperty("spotify.timeouts." + key,
+                Duration.class, DEFAULTS.getOrDefault(key, DEFAULTS.get("default"))));
+    }
+
+    public <T> Mono<T> apply(String endpoint, Mono<T> call) {
+        Duration budget = forEndpoint(endpoint);
+        return call.timeout(budget)
+                .onErrorMap(TimeoutException.class, e -> timeouts.computeIfAbsent(endpoint,
+                        key -> SpotifyUpstreamUnavailableException.stackless(
+                                "Spotify não respondeu em " + budget.toMillis() + " ms (" + key + ").")));
+    }
+}
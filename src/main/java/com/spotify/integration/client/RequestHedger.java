@@ -0,0 +1,92 @@
+package com.spotify.integration.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedges idempotent GETs: when the first attempt has not answered by the endpoint's recent latency
+ * percentile, a second identical attempt is started and whichever answers first wins; the other
+ * is cancelled. Without enough latency samples the call is not hedged.
+ */
+@Component
+public class RequestHedger {
+
+    private static final int SAMPLES = 512;
+    private static final int MIN_SAMPLES = 32;
+    // Recalcula o percentil a cada tantas amostras, em vez de ordenar a cada chamada.
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    public RequestHedger(@Value("${spotify.hedging.enabled:false}") boolean enabled,
+                         @Value("${spotify.hedging.percentile:0.95}") double percentile,
+                         @Value("${spotify.hedging.min-delay:PT0.05S}") Duration minDelay) {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+    }
+
+    public <T> Mono<T> hedge(String endpoint, Supplier<Mono<T>> request) {
+        LatencyWindow window = windows.computeIfAbsent(endpoint, key -> new LatencyWindow());
+        Mono<T> primary = _timed(window, request);
+        long delay = window.percentileNanos;
+        if (!enabled || delay <= 0) {
+            return primary;
+        }
+
+        Mono<T> secondary = Mono.delay(Duration.ofNanos(Math.max(delay, minDelayNanos)))
+                .doOnNext(tick -> hedged.increment())
+                .then(Mono.defer(request))
+                .doOnNext(value -> hedgeWins.increment());
+        // Primeiro sinal vence, inclusive erro: o hedge disputa com a tentativa original, não é um retry.
+        return Mono.firstWithSignal(primary, secondary);
+    }
+
+    public long getHedged() {
+        return hedged.sum();
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    private <T> Mono<T> _timed(LatencyWindow window, Supplier<Mono<T>> request) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request.get().doOnNext(value -> window.record(System.nanoTime() - start, percentile));
+        });
+    }
+
+    private static final class LatencyWindow {
+
+        private final long[] samples = new long[SAMPLES];
+        private final AtomicLong count = new AtomicLong();
+        volatile long percentileNanos;
+
+        void record(long nanos, double percentile) {
+            long n = count.getAndIncrement();
+            samples[(int) (n % SAMPLES)] = nanos;
+            if (n + 1 == MIN_SAMPLES || (n + 1) % RECOMPUTE_EVERY == 0) {
+                // Leitura sem trava do anel: uma amostra trocada no meio da cópia não altera o percentil de forma relevante.
+                long[] copy = Arrays.copyOf(samples, (int) Math.min(n + 1, SAMPLES));
+                Arrays.sort(copy);
+                percentileNanos = copy[(int) Math.min(copy.length - 1, (long) (percentile * copy.length))];
+            }
+        }
+    }
+}
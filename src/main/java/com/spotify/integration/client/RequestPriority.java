@@ -0,0 +1,22 @@
+package com.spotify.integration.client;
+
+/**
+ * Lanes of the {@link SpotifyRequestScheduler}, drained in declaration order.
+ */
+public enum RequestPriority {
+
+    /**
+     * Token exchange and refresh: every other call depends on them.
+     */
+    TOKEN,
+
+    /**
+     * Data fetches serving a user request.
+     */
+    INTERACTIVE,
+
+    /**
+     * Prefetch, sync and batch work that can wait.
+     */
+    BACKGROUND
+}
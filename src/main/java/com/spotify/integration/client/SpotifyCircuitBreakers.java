@@ -0,0 +1,41 @@
+package com.spotify.integration.client;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link CircuitBreaker} per upstream host ({@code api}, {@code accounts}), configured from
+ * {@code spotify.circuit-breaker.<host>.*} with {@code spotify.circuit-breaker.*} as fallback.
+ */
+@Component
+public class SpotifyCircuitBreakers {
+
+    private final Environment environment;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public SpotifyCircuitBreakers(Environment environment) {
+        this.environment = environment;
+    }
+
+    public CircuitBreaker forHost(String host) {
+        return breakers.computeIfAbsent(host, this::_create);
+    }
+
+    private CircuitBreaker _create(String host) {
+        return new CircuitBreaker(
+                _property(host, "window-size", Integer.class, 50),
+                _property(host, "minimum-calls", Integer.class, 20),
+                _property(host, "failure-rate-threshold", Double.class, 0.5),
+                _property(host, "open-duration", Duration.class, Duration.ofSeconds(30)).toNanos(),
+                _property(host, "half-open-probes", Integer.class, 3));
+    }
+
+    private <T> T _property(String host, String name, Class<T> type, T defaultValue) {
+        T shared = environment.getProperty("spotify.circuit-breaker." + name, type, defaultValue);
+        return environment.getProperty("spotify.circuit-breaker." + host + "." + name, type, shared);
+    }
+}
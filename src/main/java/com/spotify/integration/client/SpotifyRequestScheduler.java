@@ -0,0 +1,276 @@
+package com.spotify.integration.client;
+
+import com.spotify.integration.exception.SpotifyRateLimitedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Single gate for every outbound Spotify call. Requests wait in priority lanes and are released
+ * subject to a client-side token bucket and a global concurrency cap. A {@code 429} pauses the whole
+ * gate for the {@code Retry-After} period and the request is retried; a full queue is rejected at once.
+ * <p>
+ * Dispatch runs in a single drain loop guarded by {@link #wip}, so the bucket and pause state need no locks.
+ */
+@Component
+public class SpotifyRequestScheduler {
+
+    private final static Logger logger = LoggerFactory.getLogger(SpotifyRequestScheduler.class);
+
+    private final Deque<Task<?>>[] lanes;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicBoolean timerArmed = new AtomicBoolean();
+    private final Scheduler timer = Schedulers.parallel();
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final int maxConcurrency;
+    private final int maxQueue;
+    private final int maxRetries;
+    private final long defaultRetryAfterNanos;
+
+    // Estado do token bucket e da pausa: só é alterado dentro do laço de drenagem.
+    private double permits;
+    private long lastRefillNanos = System.nanoTime();
+    private volatile long pausedUntilNanos = System.nanoTime();
+
+    @SuppressWarnings("unchecked")
+    public SpotifyRequestScheduler(@Value("${spotify.rate-limit.permits-per-second:20}") double permitsPerSecond,
+                                   @Value("${spotify.rate-limit.burst:40}") int burst,
+                                   @Value("${spotify.rate-limit.max-concurrency:64}") int maxConcurrency,
+                                   @Value("${spotify.rate-limit.max-queue:1000}") int maxQueue,
+                                   @Value("${spotify.rate-limit.max-retries:3}") int maxRetries,
+                                   @Value("${spotify.rate-limit.default-retry-after:PT1S}") Duration defaultRetryAfter) {
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.permits = burst;
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueue = maxQueue;
+        this.maxRetries = maxRetries;
+        this.defaultRetryAfterNanos = defaultRetryAfter.toNanos();
+
+        RequestPriority[] priorities = RequestPriority.values();
+        this.lanes = new Deque[priorities.length];
+        for (int i = 0; i < priorities.length; i++) {
+            lanes[i] = new ConcurrentLinkedDeque<>();
+        }
+    }
+
+    /**
+     * Queues the request in the given lane. The supplier is invoked only when the request is dispatched,
+     * and again for each retry after a {@code 429}.
+     */
+    public <T> Mono<T> submit(RequestPriority priority, Supplier<Mono<T>> request) {
+        return Mono.create(sink -> {
+            if (queued.incrementAndGet() > maxQueue) {
+                queued.decrementAndGet();
+                sink.error(SpotifyRateLimitedException.QUEUE_FULL);
+                return;
+            }
+            Task<T> task = new Task<>(priority, request, sink);
+            sink.onCancel(task::cancel);
+            lanes[priority.ordinal()].offerLast(task);
+            _drain();
+        });
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public boolean isPaused() {
+        return System.nanoTime() - pausedUntilNanos < 0;
+    }
+
+    private void _drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            long waitNanos = _dispatchReady();
+            if (waitNanos > 0) {
+                _armTimer(waitNanos);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Dispatches as many queued tasks as the limits allow. Returns how long to wait before the next
+     * attempt when tasks remain blocked by the bucket or a pause, or 0.
+     */
+    private long _dispatchReady() {
+        while (inFlight.get() < maxConcurrency && queued.get() > 0) {
+            long now = System.nanoTime();
+            long pausedFor = pausedUntilNanos - now;
+            if (pausedFor > 0) {
+                return pausedFor;
+            }
+
+            permits = Math.min(burst, permits + (now - lastRefillNanos) * permitsPerNano);
+            lastRefillNanos = now;
+            if (permits < 1) {
+                return (long) Math.ceil((1 - permits) / permitsPerNano);
+            }
+
+            Task<?> task = _poll();
+            if (task == null) {
+                return 0;
+            }
+            if (task.cancelled) {
+                continue;
+            }
+            permits -= 1;
+            inFlight.incrementAndGet();
+            task.run();
+        }
+        return 0;
+    }
+
+    private Task<?> _poll() {
+        for (Deque<Task<?>> lane : lanes) {
+            Task<?> task = lane.pollFirst();
+            if (task != null) {
+                queued.decrementAndGet();
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private void _armTimer(long delayNanos) {
+        if (timerArmed.compareAndSet(false, true)) {
+            timer.schedule(() -> {
+                timerArmed.set(false);
+                _drain();
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void _onRateLimited(WebClientResponseException e) {
+        long retryAfterNanos = defaultRetryAfterNanos;
+        String retryAfter = e.getHeaders().getFirst("Retry-After");
+        if (retryAfter != null) {
+            try {
+                retryAfterNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException ignored) {
+                // Retry-After em formato de data HTTP: usa o intervalo padrão.
+            }
+        }
+        long until = System.nanoTime() + retryAfterNanos;
+        if (until - pausedUntilNanos > 0) {
+            pausedUntilNanos = until;
+            logger.warn("Limite de requisições do Spotify atingido; pausando por {} ms.", TimeUnit.NANOSECONDS.toMillis(retryAfterNanos));
+        }
+    }
+
+    private static boolean _isRateLimited(Throwable e) {
+        return e instanceof WebClientResponseException response
+                && response.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private final class Task<T> {
+
+        final RequestPriority priority;
+        final Supplier<Mono<T>> request;
+        final MonoSink<T> sink;
+        int attempts;
+        volatile boolean cancelled;
+        volatile AtomicBoolean current;
+        volatile Disposable running;
+
+        Task(RequestPriority priority, Supplier<Mono<T>> request, MonoSink<T> sink) {
+            this.priority = priority;
+            this.request = request;
+            this.sink = sink;
+        }
+
+        void run() {
+            attempts++;
+            AtomicBoolean settled = new AtomicBoolean();
+            current = settled;
+            // Um supplier que lança na montagem falha só esta tarefa, pelo caminho normal de erro.
+            running = Mono.defer(request).subscribe(
+                    value -> {
+                        if (_release(settled)) {
+                            sink.success(value);
+                        }
+                    },
+                    error -> {
+                        // Pausa antes de liberar a vaga, para que a próxima tarefa já respeite o Retry-After.
+                        if (_isRateLimited(error)) {
+                            _onRateLimited((WebClientResponseException) error);
+                        }
+                        if (_release(settled)) {
+                            _onError(error);
+                        }
+                    },
+                    () -> {
+                        if (_release(settled)) {
+                            sink.success();
+                        }
+                    });
+        }
+
+        void cancel() {
+            cancelled = true;
+            AtomicBoolean settled = current;
+            if (settled != null && _release(settled)) {
+                Disposable subscription = running;
+                if (subscription != null) {
+                    subscription.dispose();
+                }
+            }
+        }
+
+        private void _onError(Throwable error) {
+            if (!_isRateLimited(error)) {
+                sink.error(error);
+                return;
+            }
+            if (attempts <= maxRetries && !cancelled) {
+                // Volta para o início da fila: já esperou a sua vez uma vez.
+                queued.incrementAndGet();
+                lanes[priority.ordinal()].offerFirst(this);
+                _drain();
+            } else {
+                sink.error(SpotifyRateLimitedException.RETRIES_EXHAUSTED);
+            }
+        }
+
+        /**
+         * Frees the concurrency slot exactly once per attempt, whichever of value, error or cancel comes first.
+         */
+        private boolean _release(AtomicBoolean settled) {
+            if (!settled.compareAndSet(false, true)) {
+                return false;
+            }
+            inFlight.decrementAndGet();
+            _drain();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.spotify.integration.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Selects the thread flavour for the application's own background workers.
+ * <p>
+ * With {@code spring.threads.virtual.enabled=true} Spring Boot already runs Tomcat request handling
+ * and {@code @Scheduled} tasks on virtual threads; this factory extends the same mode to the threads
+ * the application starts itself, such as the token refresh dispatcher.
+ */
+@Configuration
+public class ExecutionConfig {
+
+    private final static Logger logger = LoggerFactory.getLogger(ExecutionConfig.class);
+
+    @Bean
+    public ThreadFactory backgroundThreadFactory(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            logger.info("Execução em virtual threads habilitada.");
+            return Thread.ofVirtual().name("spotify-background-", 0).factory();
+        }
+        return Thread.ofPlatform().name("spotify-background-", 0).daemon(true).factory();
+    }
+}
@@ -0,0 +1,203 @@
+package com.spotify.integration.config;
+
+import com.spotify.integration.analytics.ListeningAnalyticsService;
+import com.spotify.integration.cache.CatalogCache;
+import com.spotify.integration.cache.SpotifyResponseCache;
+import com.spotify.integration.client.CircuitBreaker;
+import com.spotify.integration.client.InFlightRequestCoalescer;
+import com.spotify.integration.client.RequestHedger;
+import com.spotify.integration.client.SpotifyCircuitBreakers;
+import com.spotify.integration.client.SpotifyRequestScheduler;
+import com.spotify.integration.controller.ApiExceptionHandler;
+import com.spotify.integration.exception.ApiError;
+import com.spotify.integration.export.LibraryExportService;
+import com.spotify.integration.history.ListeningHistoryStore;
+import com.spotify.integration.history.RecentlyPlayedIngester;
+import com.spotify.integration.metrics.SampledErrorLog;
+import com.spotify.integration.pkce.AuthorizationStateStore;
+import com.spotify.integration.pkce.PkcePool;
+import com.spotify.integration.prefetch.ActivityTracker;
+import com.spotify.integration.prefetch.CacheRefresher;
+import com.spotify.integration.service.SpotifyAuthService;
+import com.spotify.integration.sync.PlaylistSyncService;
+import com.spotify.integration.token.AppTokenManager;
+import com.spotify.integration.token.TokenStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds counters and gauges that read the state components already keep, so the hot paths
+ * pay nothing extra for being observable.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder responseCacheMetrics(SpotifyResponseCache responseCache) {
+        return registry -> {
+            FunctionCounter.builder("spotify.cache.requests", responseCache, cache -> cache.stats().hits())
+                    .tag("result", "hit").register(registry);
+            FunctionCounter.builder("spotify.cache.requests", responseCache, cache -> cache.stats().misses())
+                    .tag("result", "miss").register(registry);
+            FunctionCounter.builder("spotify.cache.revalidations", responseCache, cache -> cache.stats().revalidations())
+                    .tag("result", "not_modified").register(registry);
+            FunctionCounter.builder("spotify.cache.revalidations", responseCache, cache -> cache.stats().revalidationMisses())
+                    .tag("result", "modified").register(registry);
+            FunctionCounter.builder("spotify.cache.evictions", responseCache, cache -> cache.stats().evictions())
+                    .register(registry);
+            Gauge.builder("spotify.cache.entries", responseCache, cache -> cache.stats().entries())
+                    .register(registry);
+            Gauge.builder("spotify.cache.weight", responseCache, cache -> cache.stats().weightBytes())
+                    .baseUnit("bytes").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder coalescingMetrics(InFlightRequestCoalescer coalescer) {
+        return registry -> {
+            FunctionCounter.builder("spotify.coalescing.requests", coalescer, InFlightRequestCoalescer::getExecuted)
+                    .tag("result", "executed").register(registry);
+            FunctionCounter.builder("spotify.coalescing.requests", coalescer, InFlightRequestCoalescer::getCollapsed)
+                    .tag("result", "collapsed").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder requestSchedulerMetrics(SpotifyRequestScheduler scheduler) {
+        return registry -> {
+            Gauge.builder("spotify.scheduler.queued", scheduler, SpotifyRequestScheduler::getQueued).register(registry);
+            Gauge.builder("spotify.scheduler.in.flight", scheduler, SpotifyRequestScheduler::getInFlight).register(registry);
+            Gauge.builder("spotify.scheduler.paused", scheduler, s -> s.isPaused() ? 1 : 0).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder tailLatencyMetrics(RequestHedger hedger, SpotifyCircuitBreakers circuitBreakers) {
+        return registry -> {
+            FunctionCounter.builder("spotify.hedging.requests", hedger, RequestHedger::getHedged)
+                    .tag("result", "sent").register(registry);
+            FunctionCounter.builder("spotify.hedging.requests", hedger, RequestHedger::getHedgeWins)
+                    .tag("result", "won").register(registry);
+            for (String host : new String[]{"api", "accounts"}) {
+                Gauge.builder("spotify.circuit.open", circuitBreakers.forHost(host),
+                                breaker -> breaker.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                        .tag("host", host).register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder tokenStoreMetrics(TokenStore tokenStore) {
+        return registry -> Gauge.builder("spotify.token.sessions", tokenStore, TokenStore::size).register(registry);
+    }
+
+    @Bean
+    public MeterBinder pkceMetrics(PkcePool pkcePool, AuthorizationStateStore stateStore) {
+        return registry -> {
+            Gauge.builder("spotify.pkce.pool.available", pkcePool, PkcePool::getAvailable).register(registry);
+            FunctionCounter.builder("spotify.pkce.pool.misses", pkcePool, PkcePool::getMisses).register(registry);
+            Gauge.builder("spotify.auth.state.pending", stateStore, AuthorizationStateStore::size).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder analyticsMetrics(ListeningAnalyticsService analyticsService) {
+        return registry -> {
+            Gauge.builder("spotify.analytics.sessions", analyticsService, ListeningAnalyticsService::getCachedSessions)
+                    .register(registry);
+            Gauge.builder("spotify.analytics.artists", analyticsService, ListeningAnalyticsService::getCachedArtists)
+                    .register(registry);
+            FunctionCounter.builder("spotify.analytics.computations", analyticsService, ListeningAnalyticsService::getFullComputations)
+                    .tag("kind", "full")
+                    .register(registry);
+            FunctionCounter.builder("spotify.analytics.computations", analyticsService, ListeningAnalyticsService::getIncrementalUpdates)
+                    .tag("kind", "incremental")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder playlistSyncMetrics(PlaylistSyncService playlistSyncService) {
+        return registry -> Gauge.builder("spotify.playlist.sync.sessions", playlistSyncService,
+                PlaylistSyncService::getIndexedSessions).register(registry);
+    }
+
+    @Bean
+    public MeterBinder exportMetrics(LibraryExportService exportService) {
+        return registry -> {
+            Gauge.builder("spotify.export.running", exportService, LibraryExportService::getRunning).register(registry);
+            Gauge.builder("spotify.export.waiting", exportService, LibraryExportService::getWaiting).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder catalogMetrics(CatalogCache catalogCache, AppTokenManager appTokenManager) {
+        return registry -> {
+            FunctionCounter.builder("spotify.catalog.requests", catalogCache, cache -> cache.stats().hits())
+                    .tag("result", "hit").register(registry);
+            FunctionCounter.builder("spotify.catalog.requests", catalogCache, cache -> cache.stats().misses())
+                    .tag("result", "miss").register(registry);
+            FunctionCounter.builder("spotify.catalog.evictions", catalogCache, cache -> cache.stats().evictions())
+                    .register(registry);
+            Gauge.builder("spotify.catalog.weight", catalogCache, cache -> cache.stats().weightBytes())
+                    .baseUnit("bytes").register(registry);
+            FunctionCounter.builder("spotify.app.token.refreshes", appTokenManager, AppTokenManager::getRefreshes)
+                    .tag("result", "success").register(registry);
+            FunctionCounter.builder("spotify.app.token.refreshes", appTokenManager, AppTokenManager::getFailures)
+                    .tag("result", "failure").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder listeningHistoryMetrics(ListeningHistoryStore historyStore,
+                                               ObjectProvider<RecentlyPlayedIngester> ingester) {
+        return registry -> {
+            Gauge.builder("spotify.history.sessions", historyStore, ListeningHistoryStore::getSessions).register(registry);
+            Gauge.builder("spotify.history.plays", historyStore, ListeningHistoryStore::getPlays).register(registry);
+            Gauge.builder("spotify.history.tracks", historyStore, ListeningHistoryStore::getDistinctTracks).register(registry);
+            ingester.ifAvailable(active -> {
+                FunctionCounter.builder("spotify.history.polls", active, RecentlyPlayedIngester::getPolls)
+                        .tag("result", "success").register(registry);
+                FunctionCounter.builder("spotify.history.polls", active, RecentlyPlayedIngester::getFailures)
+                        .tag("result", "failure").register(registry);
+                FunctionCounter.builder("spotify.history.ingested", active, RecentlyPlayedIngester::getIngested)
+                        .register(registry);
+            });
+        };
+    }
+
+    @Bean
+    public MeterBinder errorMetrics(ApiExceptionHandler exceptionHandler, SampledErrorLog errorLog) {
+        return registry -> {
+            for (ApiError error : ApiError.values()) {
+                FunctionCounter.builder("spotify.api.errors", exceptionHandler, handler -> handler.getCount(error))
+                        .tag("code", error.getCode()).register(registry);
+            }
+            FunctionCounter.builder("spotify.errors.log.lines", errorLog, SampledErrorLog::getWritten)
+                    .tag("result", "written").register(registry);
+            FunctionCounter.builder("spotify.errors.log.lines", errorLog, SampledErrorLog::getSuppressed)
+                    .tag("result", "suppressed").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder prefetchMetrics(ActivityTracker activityTracker, CacheRefresher cacheRefresher,
+                                       SpotifyAuthService spotifyAuthService) {
+        return registry -> {
+            Gauge.builder("spotify.prefetch.active.sessions", activityTracker, ActivityTracker::getActiveSessions)
+                    .register(registry);
+            FunctionCounter.builder("spotify.prefetch.refreshes", cacheRefresher, CacheRefresher::getRefreshed)
+                    .tag("result", "success").register(registry);
+            FunctionCounter.builder("spotify.prefetch.refreshes", cacheRefresher, CacheRefresher::getFailures)
+                    .tag("result", "failure").register(registry);
+            FunctionCounter.builder("spotify.prefetch.skipped.ticks", cacheRefresher, CacheRefresher::getSkippedTicks)
+                    .register(registry);
+            FunctionCounter.builder("spotify.prefetch.skipped.warmups", spotifyAuthService, SpotifyAuthService::getSkippedWarmUps)
+                    .register(registry);
+        };
+    }
+}
@@ -1,24 +1,57 @@
 package com.spotify.integration.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
+/**
+ * User-facing endpoints are open; the session header is checked by the services. Metrics, statistics and
+ * batch endpoints are for operators only and need HTTP Basic credentials from {@code spotify.operator.*}.
+ * Without them configured no operator exists, and those endpoints always answer {@code 401}.
+ */
 @Configuration
 public class SecurityConfig {
 
+    private static final String OPERATOR = "OPERATOR";
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/spotify", "/auth/callback").permitAll()
                         .requestMatchers("/user/profile", "/user/playlists", "/user/top-tracks").permitAll()
+                        .requestMatchers("/user/playlists/all", "/user/top-tracks/all", "/user/playlists/sync").permitAll()
+                        .requestMatchers("/user/library/export", "/user/history/top-tracks", "/user/history/top-artists").permitAll()
+                        .requestMatchers("/catalog/tracks/*", "/catalog/artists/*", "/catalog/albums/*").permitAll()
+                        .requestMatchers("/analytics/listening-profile").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/cache/stats", "/coalescing/stats", "/actuator/prometheus").hasRole(OPERATOR)
+                        .requestMatchers("/analytics/listening-profile/aggregate").hasRole(OPERATOR)
                         .anyRequest().authenticated()
                 )
                 .formLogin(form -> form.disable())
-                .httpBasic(httpBasic -> httpBasic.disable());
+                .httpBasic(Customizer.withDefaults());
         return http.build();
     }
+
+    @Bean
+    public UserDetailsService operatorUserDetailsService(@Value("${spotify.operator.username:}") String username,
+                                                         @Value("${spotify.operator.password:}") String password) {
+        if (username.isEmpty() || password.isEmpty()) {
+            // Sem credenciais configuradas não há operador, e o Spring não gera um usuário padrão.
+            return new InMemoryUserDetailsManager();
+        }
+        // Aceita uma senha já codificada ({bcrypt}...) ou, sem prefixo, em texto puro.
+        String encoded = password.startsWith("{") ? password : "{noop}" + password;
+        return new InMemoryUserDetailsManager(User.withUsername(username).password(encoded).roles(OPERATOR).build());
+    }
 }
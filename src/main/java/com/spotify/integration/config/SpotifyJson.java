@@ -0,0 +1,39 @@
+package com.spotify.integration.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.spotify.integration.dto.AlbumList;
+import com.spotify.integration.dto.ArtistList;
+import com.spotify.integration.dto.CursorPaging;
+import com.spotify.integration.dto.Paging;
+import com.spotify.integration.dto.PlayHistory;
+import com.spotify.integration.dto.Playlist;
+import com.spotify.integration.dto.PlaylistItem;
+import com.spotify.integration.dto.Track;
+import com.spotify.integration.dto.TrackList;
+import com.spotify.integration.dto.UserProfile;
+
+/**
+ * Shared, preconfigured Jackson setup for Spotify payloads. Kept out of the application context
+ * so it does not replace the {@link ObjectMapper} Spring Boot configures for MVC responses.
+ */
+public final class SpotifyJson {
+
+    public static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    // ObjectReaders são imutáveis e thread-safe; criá-los uma vez evita resolver o tipo a cada chamada.
+    public static final ObjectReader USER_PROFILE_READER = MAPPER.readerFor(UserProfile.class);
+    public static final ObjectReader PLAYLIST_PAGE_READER = MAPPER.readerFor(new TypeReference<Paging<Playlist>>() {});
+    public static final ObjectReader PLAYLIST_ITEM_PAGE_READER = MAPPER.readerFor(new TypeReference<Paging<PlaylistItem>>() {});
+    public static final ObjectReader TRACK_PAGE_READER = MAPPER.readerFor(new TypeReference<Paging<Track>>() {});
+    public static final ObjectReader TRACK_LIST_READER = MAPPER.readerFor(TrackList.class);
+    public static final ObjectReader ARTIST_LIST_READER = MAPPER.readerFor(ArtistList.class);
+    public static final ObjectReader ALBUM_LIST_READER = MAPPER.readerFor(AlbumList.class);
+    public static final ObjectReader RECENTLY_PLAYED_READER = MAPPER.readerFor(new TypeReference<CursorPaging<PlayHistory>>() {});
+
+    private SpotifyJson() {
+    }
+}
@@ -1,17 +1,118 @@
 package com.spotify.integration.config;
 
+import com.spotify.integration.client.CircuitBreakerFilter;
+import com.spotify.integration.client.SpotifyCircuitBreakers;
+import com.spotify.integration.metrics.SpotifyMetrics;
+import com.spotify.integration.metrics.SpotifyMetricsFilter;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.WriteTimeoutHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Separate clients for {@code accounts.spotify.com} (form-encoded token calls) and
+ * {@code api.spotify.com} (JSON data calls), each with its own Reactor Netty pool.
+ * <p>
+ * Every setting is read from {@code spotify.http.<host>.*}, where {@code <host>} is {@code api} or {@code accounts},
+ * including {@code base-url}, so both hosts can point at a local stand-in for offline load tests.
+ * Pool gauges (active, idle, pending acquires) are published under {@code reactor.netty.connection.provider.*}.
+ * Each client is guarded by its host's circuit breaker, so a degraded host fails fast without touching the other.
+ */
 @Configuration
 public class WebClientConfig {
 
+    public static final String DEFAULT_API_BASE_URL = "https://api.spotify.com";
+    public static final String DEFAULT_ACCOUNTS_BASE_URL = "https://accounts.spotify.com";
+    // Uma página de 50 itens com available_markets passa com folga dos 256 KiB padrão do Spring.
+    public static final int DEFAULT_MAX_IN_MEMORY_SIZE = 16 * 1024 * 1024;
+
+    private static final String WRITE_TIMEOUT_HANDLER = "spotify.write-timeout";
+
+    private final Environment environment;
+    private final SpotifyMetrics metrics;
+    private final SpotifyCircuitBreakers circuitBreakers;
+
+    public WebClientConfig(Environment environment, SpotifyMetrics metrics, SpotifyCircuitBreakers circuitBreakers) {
+        this.environment = environment;
+        this.metrics = metrics;
+        this.circuitBreakers = circuitBreakers;
+    }
+
     @Bean
-    public WebClient spotifyWebClient() {
-        return WebClient.builder()
-                .baseUrl("https://api.spotify.com")
-                .defaultHeader("Content-Type", "application/json")
+    public WebClient spotifyApiWebClient() {
+        return _webClient("api", DEFAULT_API_BASE_URL, 500)
+                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+    }
+
+    @Bean
+    public WebClient spotifyAccountsWebClient() {
+        return _webClient("accounts", DEFAULT_ACCOUNTS_BASE_URL, 50)
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED_VALUE)
                 .build();
     }
+
+    private WebClient.Builder _webClient(String host, String defaultBaseUrl, int defaultMaxConnections) {
+        String baseUrl = _property(host, "base-url", String.class, defaultBaseUrl);
+        int maxInMemorySize = _property(host, "max-in-memory-size", Integer.class, DEFAULT_MAX_IN_MEMORY_SIZE);
+        int maxConnections = _property(host, "max-connections", Integer.class, defaultMaxConnections);
+
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("spotify-" + host)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(_property(host, "pending-acquire-max-count", Integer.class, 2 * maxConnections))
+                .pendingAcquireTimeout(_property(host, "pending-acquire-timeout", Duration.class, Duration.ofSeconds(5)))
+                .maxIdleTime(_property(host, "max-idle-time", Duration.class, Duration.ofSeconds(30)))
+                .maxLifeTime(_property(host, "max-life-time", Duration.class, Duration.ofMinutes(5)))
+                .evictInBackground(_property(host, "evict-interval", Duration.class, Duration.ofSeconds(30)))
+                .metrics(true)
+                .build();
+
+        Duration connectTimeout = _property(host, "connect-timeout", Duration.class, Duration.ofSeconds(3));
+        Duration writeTimeout = _property(host, "write-timeout", Duration.class, Duration.ofSeconds(10));
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .compress(_property(host, "compression", Boolean.class, true))
+                // O responseTimeout já limita a leitura só enquanto há uma resposta pendente; um timeout de
+                // leitura fixo na conexão derrubaria conexões ociosas do pool antes do max-idle-time.
+                .responseTimeout(_property(host, "response-timeout", Duration.class, Duration.ofSeconds(10)))
+                .doOnRequest((request, connection) -> connection.addHandlerLast(WRITE_TIMEOUT_HANDLER,
+                        new WriteTimeoutHandler(writeTimeout.toMillis(), TimeUnit.MILLISECONDS)))
+                .doAfterRequest((request, connection) -> connection.removeHandler(WRITE_TIMEOUT_HANDLER));
+
+        // HTTP/2 é negociado via ALPN, portanto só vale para conexões TLS.
+        if (baseUrl.startsWith("https") && _property(host, "http2", Boolean.class, true)) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        }
+
+        return WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(new CircuitBreakerFilter(circuitBreakers.forHost(host), host))
+                .filter(new SpotifyMetricsFilter(metrics, host))
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().maxInMemorySize(maxInMemorySize);
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(SpotifyJson.MAPPER, MediaType.APPLICATION_JSON));
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(SpotifyJson.MAPPER, MediaType.APPLICATION_JSON));
+                });
+    }
+
+    private <T> T _property(String host, String name, Class<T> type, T defaultValue) {
+        return environment.getProperty("spotify.http." + host + "." + name, type, defaultValue);
+    }
 }
@@ -0,0 +1,40 @@
+package com.spotify.integration.controller;
+
+import com.spotify.integration.analytics.ListeningAnalyticsService;
+import com.spotify.integration.analytics.ListeningProfile;
+import com.spotify.integration.exception.SpotifyInvalidParameterException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+public class AnalyticsController {
+
+    private final ListeningAnalyticsService listeningAnalyticsService;
+
+    public AnalyticsController(ListeningAnalyticsService listeningAnalyticsService) {
+        this.listeningAnalyticsService = listeningAnalyticsService;
+    }
+
+    @GetMapping("/analytics/listening-profile")
+    public Mono<ResponseEntity<ListeningProfile>> getListeningProfile(@RequestHeader(SessionHeader.NAME) String sessionId) {
+        return listeningAnalyticsService.getListeningProfile(sessionId).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Combined profile of the given sessions, for batch jobs. Operators only: see {@code SecurityConfig}.
+     */
+    @PostMapping("/analytics/listening-profile/aggregate")
+    public Mono<ResponseEntity<ListeningProfile>> aggregateListeningProfiles(@RequestBody List<String> sessionIds) {
+        if (sessionIds.isEmpty() || sessionIds.size() > listeningAnalyticsService.getMaxAggregateSessions()) {
+            throw SpotifyInvalidParameterException.INSTANCE;
+        }
+        return listeningAnalyticsService.aggregateAcross(sessionIds).map(ResponseEntity::ok);
+    }
+}
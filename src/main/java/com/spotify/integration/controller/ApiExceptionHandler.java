@@ -0,0 +1,122 @@
+package com.spotify.integration.controller;
+
+import com.spotify.integration.exception.ApiError;
+import com.spotify.integration.exception.SpotifyAuthException;
+import com.spotify.integration.exception.SpotifyInvalidIdException;
+import com.spotify.integration.exception.SpotifyInvalidParameterException;
+import com.spotify.integration.exception.SpotifyJsonParsingException;
+import com.spotify.integration.exception.SpotifyRateLimitedException;
+import com.spotify.integration.exception.SpotifyResourceNotFoundException;
+import com.spotify.integration.exception.SpotifySessionExpiredException;
+import com.spotify.integration.exception.SpotifyUpstreamException;
+import com.spotify.integration.exception.SpotifyUpstreamUnavailableException;
+import com.spotify.integration.metrics.SampledErrorLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Turns every failure that reaches a controller into one of the {@link ApiError} responses, built
+ * once at startup. Controllers only return the happy path and let errors propagate here.
+ * <p>
+ * Expected failures, those of Spotify or of the session, are counted but not logged here: the
+ * upstream ones were already logged, sampled, where they were received. Unexpected failures are
+ * logged with their stack trace within the {@link SampledErrorLog} budget.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    private final static Logger logger = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
+    private final SampledErrorLog errorLog;
+
+    private final Map<ApiError, ResponseEntity<byte[]>> responses = new EnumMap<>(ApiError.class);
+    private final LongAdder[] counts = new LongAdder[ApiError.values().length];
+
+    public ApiExceptionHandler(SampledErrorLog errorLog) {
+        this.errorLog = errorLog;
+        for (ApiError error : ApiError.values()) {
+            responses.put(error, ResponseEntity.status(error.getStatus())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(error.getBody()));
+            counts[error.ordinal()] = new LongAdder();
+        }
+    }
+
+    @ExceptionHandler(SpotifySessionExpiredException.class)
+    public ResponseEntity<byte[]> handleSessionExpired(SpotifySessionExpiredException e) {
+        return _respond(ApiError.SESSION_EXPIRED);
+    }
+
+    @ExceptionHandler(SpotifyResourceNotFoundException.class)
+    public ResponseEntity<byte[]> handleNotFound(SpotifyResourceNotFoundException e) {
+        return _respond(ApiError.NOT_FOUND);
+    }
+
+    @ExceptionHandler(SpotifyRateLimitedException.class)
+    public ResponseEntity<byte[]> handleRateLimited(SpotifyRateLimitedException e) {
+        return _respond(ApiError.RATE_LIMITED);
+    }
+
+    @ExceptionHandler(SpotifyUpstreamUnavailableException.class)
+    public ResponseEntity<byte[]> handleUpstreamUnavailable(SpotifyUpstreamUnavailableException e) {
+        return _respond(ApiError.UPSTREAM_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(SpotifyUpstreamException.class)
+    public ResponseEntity<byte[]> handleUpstream(SpotifyUpstreamException e) {
+        return _respond(ApiError.forUpstreamStatus(e.getStatus()));
+    }
+
+    @ExceptionHandler(SpotifyJsonParsingException.class)
+    public ResponseEntity<byte[]> handleJsonParsing(SpotifyJsonParsingException e) {
+        return _respond(ApiError.UPSTREAM_ERROR);
+    }
+
+    @ExceptionHandler(SpotifyAuthException.class)
+    public ResponseEntity<byte[]> handleAuthorization(SpotifyAuthException e) {
+        return _respond(ApiError.AUTHORIZATION_FAILED);
+    }
+
+    @ExceptionHandler({ServletRequestBindingException.class, MethodArgumentTypeMismatchException.class,
+            HttpMessageNotReadableException.class, HttpMessageConversionException.class,
+            SpotifyInvalidIdException.class, SpotifyInvalidParameterException.class})
+    public ResponseEntity<byte[]> handleBadRequest(Exception e) {
+        return _respond(ApiError.BAD_REQUEST);
+    }
+
+    // Uma resposta que não pôde ser serializada é falha nossa, não do cliente, apesar de ser uma HttpMessageConversionException.
+    @ExceptionHandler({RuntimeException.class, HttpMessageNotWritableException.class})
+    public ResponseEntity<byte[]> handleUnexpected(RuntimeException e) {
+        if (e instanceof ErrorResponse) {
+            // Exceções do próprio Spring já carregam o status certo: relançar devolve ao tratamento padrão.
+            throw e;
+        }
+        if (errorLog.tryAcquire()) {
+            logger.error("Erro inesperado ao atender a requisição.", e);
+        }
+        return _respond(ApiError.INTERNAL);
+    }
+
+    public long getCount(ApiError error) {
+        return counts[error.ordinal()].sum();
+    }
+
+    private ResponseEntity<byte[]> _respond(ApiError error) {
+        counts[error.ordinal()].increment();
+        return responses.get(error);
+    }
+}
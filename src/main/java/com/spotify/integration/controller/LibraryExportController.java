@@ -0,0 +1,54 @@
+package com.spotify.integration.controller;
+
+import com.spotify.integration.export.ExportPermit;
+import com.spotify.integration.export.LibraryExportService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
+
+@RestController
+public class LibraryExportController {
+
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+    private static final String CONTENT_DISPOSITION =
+            ContentDisposition.attachment().filename("library.ndjson.gz").build().toString();
+
+    private final LibraryExportService exportService;
+
+    public LibraryExportController(LibraryExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/user/library/export")
+    public Mono<ResponseEntity<StreamingResponseBody>> export(@RequestHeader(SessionHeader.NAME) String sessionId) {
+        ExportPermit permit = exportService.tryAcquire();
+        if (permit == null) {
+            return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .<StreamingResponseBody>build());
+        }
+        return exportService.prepare(sessionId)
+                .map(export -> ResponseEntity.ok()
+                        .contentType(GZIP)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, CONTENT_DISPOSITION)
+                        .body((StreamingResponseBody) out -> {
+                            try (permit) {
+                                export.writeTo(out);
+                            }
+                        }))
+                .doOnSuccess(response -> {
+                    if (response == null) {
+                        permit.close();
+                    }
+                })
+                .doOnError(e -> permit.close())
+                .doOnCancel(permit::close);
+    }
+}
@@ -0,0 +1,56 @@
+package com.spotify.integration.controller;
+
+import com.spotify.integration.exception.SpotifyInvalidParameterException;
+import com.spotify.integration.history.ListeningHistoryStore;
+import com.spotify.integration.history.PlayCount;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+public class ListeningHistoryController {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final ListeningHistoryStore historyStore;
+
+    public ListeningHistoryController(ListeningHistoryStore historyStore) {
+        this.historyStore = historyStore;
+    }
+
+    @GetMapping("/user/history/top-tracks")
+    public List<PlayCount> getTopTracks(@RequestHeader(SessionHeader.NAME) String sessionId,
+                                        @RequestParam(name = "window", defaultValue = "P7D") Duration window,
+                                        @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        Instant now = Instant.now();
+        return historyStore.topTracks(sessionId, _from(now, window), now, _limit(limit));
+    }
+
+    @GetMapping("/user/history/top-artists")
+    public List<PlayCount> getTopArtists(@RequestHeader(SessionHeader.NAME) String sessionId,
+                                         @RequestParam(name = "window", defaultValue = "P7D") Duration window,
+                                         @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        Instant now = Instant.now();
+        return historyStore.topArtists(sessionId, _from(now, window), now, _limit(limit));
+    }
+
+    private Instant _from(Instant now, Duration window) {
+        if (window.isNegative() || window.isZero()) {
+            throw SpotifyInvalidParameterException.INSTANCE;
+        }
+        // Nada mais antigo que a retenção está guardado; limitar a janela também evita estourar o Instant.
+        return now.minus(window.compareTo(historyStore.getRetention()) > 0 ? historyStore.getRetention() : window);
+    }
+
+    private static int _limit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw SpotifyInvalidParameterException.INSTANCE;
+        }
+        return limit;
+    }
+}
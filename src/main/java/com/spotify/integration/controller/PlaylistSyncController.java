@@ -0,0 +1,23 @@
+package com.spotify.integration.controller;
+
+import com.spotify.integration.sync.PlaylistSyncResult;
+import com.spotify.integration.sync.PlaylistSyncService;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+public class PlaylistSyncController {
+
+    private final PlaylistSyncService playlistSyncService;
+
+    public PlaylistSyncController(PlaylistSyncService playlistSyncService) {
+        this.playlistSyncService = playlistSyncService;
+    }
+
+    @PostMapping("/user/playlists/sync")
+    public Mono<PlaylistSyncResult> sync(@RequestHeader(SessionHeader.NAME) String sessionId) {
+        return playlistSyncService.sync(sessionId);
+    }
+}
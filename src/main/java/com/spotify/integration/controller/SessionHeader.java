@@ -0,0 +1,9 @@
+package com.spotify.integration.controller;
+
+public final class SessionHeader {
+
+    public static final String NAME = "X-Session-Id";
+
+    private SessionHeader() {
+    }
+}
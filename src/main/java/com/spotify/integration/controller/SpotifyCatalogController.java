@@ -0,0 +1,42 @@
+package com.spotify.integration.controller;
+
+import com.spotify.integration.dto.Album;
+import com.spotify.integration.dto.Artist;
+import com.spotify.integration.dto.Track;
+import com.spotify.integration.service.SpotifyBatchLookupService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+public class SpotifyCatalogController {
+
+    private final SpotifyBatchLookupService batchLookupService;
+
+    public SpotifyCatalogController(SpotifyBatchLookupService batchLookupService) {
+        this.batchLookupService = batchLookupService;
+    }
+
+    @GetMapping("/catalog/tracks/{id}")
+    public Mono<ResponseEntity<Track>> getTrack(@PathVariable("id") String trackId) {
+        return batchLookupService.getTrack(trackId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/catalog/artists/{id}")
+    public Mono<ResponseEntity<Artist>> getArtist(@PathVariable("id") String artistId) {
+        return batchLookupService.getArtist(artistId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/catalog/albums/{id}")
+    public Mono<ResponseEntity<Album>> getAlbum(@PathVariable("id") String albumId) {
+        return batchLookupService.getAlbum(albumId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
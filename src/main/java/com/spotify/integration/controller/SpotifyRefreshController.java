@@ -2,8 +2,9 @@ package com.spotify.integration.controller;
 
 import com.spotify.integration.service.SpotifyAuthService;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 
 @RestController
 public class SpotifyRefreshController {
@@ -15,7 +16,7 @@ public class SpotifyRefreshController {
     }
 
     @PostMapping("/refresh-token")
-    public String refreshToken(@RequestParam("refreshToken") String refreshToken) {
-        return spotifyAuthService.refreshAccessToken(refreshToken);
+    public Mono<String> refreshToken(@RequestHeader(SessionHeader.NAME) String sessionId) {
+        return spotifyAuthService.refreshSessionToken(sessionId);
     }
 }
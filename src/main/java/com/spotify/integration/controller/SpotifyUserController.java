@@ -1,14 +1,19 @@
 package com.spotify.integration.controller;
 
-import com.spotify.integration.exception.SpotifyAuthException;
+import com.spotify.integration.dto.Paging;
+import com.spotify.integration.dto.Playlist;
+import com.spotify.integration.dto.Track;
+import com.spotify.integration.dto.UserProfile;
 import com.spotify.integration.service.SpotifyAuthService;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
-import java.util.Map;
 
 @RestController
 public class SpotifyUserController {
@@ -20,33 +25,31 @@ public class SpotifyUserController {
     }
 
     @GetMapping("/user/profile")
-    public Map<String, Object> getUserProfile() {
-        try {
-            return spotifyAuthService.getUserProfile();
-        } catch (SpotifyAuthException e) {
-            return Map.of("error", e.getMessage());
-        }
+    public Mono<UserProfile> getUserProfile(@RequestHeader(SessionHeader.NAME) String sessionId) {
+        return spotifyAuthService.getUserProfile(sessionId);
     }
 
     @GetMapping("/user/playlists")
-    public Map<String, Object> getUserPlaylists() {
-        try {
-            return spotifyAuthService.getUserPlaylists();
-        } catch (SpotifyAuthException e) {
-            return Map.of("error", e.getMessage());
-        }
+    public Mono<Paging<Playlist>> getUserPlaylists(@RequestHeader(SessionHeader.NAME) String sessionId) {
+        return spotifyAuthService.getUserPlaylists(sessionId);
     }
 
     @GetMapping("/user/top-tracks")
-    public ResponseEntity<List<Map<String, Object>>> getTopTracks() {
-        try {
-            List<Map<String, Object>> topTracks = spotifyAuthService.getUserTopTracks();
-            if(topTracks.isEmpty()){
-                return ResponseEntity.noContent().build();
-            }
-            return ResponseEntity.ok(topTracks);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    public Mono<ResponseEntity<List<Track>>> getTopTracks(@RequestHeader(SessionHeader.NAME) String sessionId) {
+        return spotifyAuthService.getUserTopTracks(sessionId)
+                .collectList()
+                .map(topTracks -> topTracks.isEmpty()
+                        ? ResponseEntity.noContent().<List<Track>>build()
+                        : ResponseEntity.ok(topTracks));
+    }
+
+    @GetMapping(value = "/user/playlists/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Playlist> streamAllPlaylists(@RequestHeader(SessionHeader.NAME) String sessionId) {
+        return spotifyAuthService.streamAllUserPlaylists(sessionId);
+    }
+
+    @GetMapping(value = "/user/top-tracks/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Track> streamAllTopTracks(@RequestHeader(SessionHeader.NAME) String sessionId) {
+        return spotifyAuthService.streamAllUserTopTracks(sessionId);
     }
 }
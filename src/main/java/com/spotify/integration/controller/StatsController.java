@@ -0,0 +1,34 @@
+package com.spotify.integration.controller;
+
+import com.spotify.integration.cache.CacheStats;
+import com.spotify.integration.cache.SpotifyResponseCache;
+import com.spotify.integration.client.InFlightRequestCoalescer;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class StatsController {
+
+    private final SpotifyResponseCache responseCache;
+    private final InFlightRequestCoalescer coalescer;
+
+    public StatsController(SpotifyResponseCache responseCache, InFlightRequestCoalescer coalescer) {
+        this.responseCache = responseCache;
+        this.coalescer = coalescer;
+    }
+
+    @GetMapping("/cache/stats")
+    public CacheStats getCacheStats() {
+        return responseCache.stats();
+    }
+
+    @GetMapping("/coalescing/stats")
+    public Map<String, Long> getCoalescingStats() {
+        return Map.of(
+                "executed", coalescer.getExecuted(),
+                "collapsed", coalescer.getCollapsed(),
+                "inFlight", (long) coalescer.getInFlight());
+    }
+}
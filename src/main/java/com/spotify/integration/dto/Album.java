@@ -0,0 +1,76 @@
+package com.spotify.integration.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Album {
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("uri")
+    private String uri;
+
+    @JsonProperty("release_date")
+    private String releaseDate;
+
+    @JsonProperty("release_date_precision")
+    private String releaseDatePrecision;
+
+    @JsonProperty("images")
+    private List<Image> images;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public String getReleaseDate() {
+        return releaseDate;
+    }
+
+    public void setReleaseDate(String releaseDate) {
+        this.releaseDate = releaseDate;
+    }
+
+    public String getReleaseDatePrecision() {
+        return releaseDatePrecision;
+    }
+
+    public void setReleaseDatePrecision(String releaseDatePrecision) {
+        this.releaseDatePrecision = releaseDatePrecision;
+    }
+
+    public List<Image> getImages() {
+        return images;
+    }
+
+    public void setImages(List<Image> images) {
+        this.images = images;
+    }
+}
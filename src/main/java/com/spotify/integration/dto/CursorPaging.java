@@ -0,0 +1,54 @@
+package com.spotify.integration.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CursorPaging<T> {
+
+    @JsonProperty("items")
+    private List<T> items;
+
+    @JsonProperty("limit")
+    private int limit;
+
+    @JsonProperty("next")
+    private String next;
+
+    @JsonProperty("cursors")
+    private Cursors cursors;
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+
+    public Cursors getCursors() {
+        return cursors;
+    }
+
+    public void setCursors(Cursors cursors) {
+        this.cursors = cursors;
+    }
+}
@@ -0,0 +1,120 @@
+package com.spotify.integration.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Playlist {
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("description")
+    private String description;
+
+    @JsonProperty("public")
+    private Boolean isPublic;
+
+    @JsonProperty("collaborative")
+    private boolean collaborative;
+
+    @JsonProperty("snapshot_id")
+    private String snapshotId;
+
+    @JsonProperty("uri")
+    private String uri;
+
+    @JsonProperty("owner")
+    private PlaylistOwner owner;
+
+    @JsonProperty("tracks")
+    private PlaylistTracksRef tracks;
+
+    @JsonProperty("images")
+    private List<Image> images;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Boolean getIsPublic() {
+        return isPublic;
+    }
+
+    public void setIsPublic(Boolean isPublic) {
+        this.isPublic = isPublic;
+    }
+
+    public boolean isCollaborative() {
+        return collaborative;
+    }
+
+    public void setCollaborative(boolean collaborative) {
+        this.collaborative = collaborative;
+    }
+
+    public String getSnapshotId() {
+        return snapshotId;
+    }
+
+    public void setSnapshotId(String snapshotId) {
+        this.snapshotId = snapshotId;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public PlaylistOwner getOwner() {
+        return owner;
+    }
+
+    public void setOwner(PlaylistOwner owner) {
+        this.owner = owner;
+    }
+
+    public PlaylistTracksRef getTracks() {
+        return tracks;
+    }
+
+    public void setTracks(PlaylistTracksRef tracks) {
+        this.tracks = tracks;
+    }
+
+    public List<Image> getImages() {
+        return images;
+    }
+
+    public void setImages(List<Image> images) {
+        this.images = images;
+    }
+}
@@ -19,6 +19,9 @@ public class TokenResponse {
     @JsonProperty("scope")
     private String scope;
 
+    @JsonProperty("session_id")
+    private String sessionId;
+
     public String getAccessToken() {
         return accessToken;
     }
@@ -59,6 +62,14 @@ public class TokenResponse {
         this.scope = scope;
     }
 
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
     @Override
     public String toString() {
         return "TokenResponse{" +
@@ -67,6 +78,7 @@ public class TokenResponse {
                 ", expiresIn=" + expiresIn +
                 ", tokenType='" + tokenType + '\'' +
                 ", scope='" + scope + '\'' +
+                ", sessionId='" + sessionId + '\'' +
                 '}';
     }
 }
@@ -1,10 +1,37 @@
 package com.spotify.integration.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class UserProfile {
 
+    @JsonProperty("id")
     private String id;
+
+    @JsonProperty("display_name")
     private String displayName;
 
+    @JsonProperty("email")
+    private String email;
+
+    @JsonProperty("country")
+    private String country;
+
+    @JsonProperty("product")
+    private String product;
+
+    @JsonProperty("uri")
+    private String uri;
+
+    @JsonProperty("followers")
+    private Followers followers;
+
+    @JsonProperty("images")
+    private List<Image> images;
+
     public String getId() {
         return id;
     }
@@ -20,4 +47,52 @@ public class UserProfile {
     public void setDisplayName(String displayName) {
         this.displayName = displayName;
     }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public String getProduct() {
+        return product;
+    }
+
+    public void setProduct(String product) {
+        this.product = product;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public Followers getFollowers() {
+        return followers;
+    }
+
+    public void setFollowers(Followers followers) {
+        this.followers = followers;
+    }
+
+    public List<Image> getImages() {
+        return images;
+    }
+
+    public void setImages(List<Image> images) {
+        this.images = images;
+    }
 }
@@ -0,0 +1,71 @@
+package com.spotify.integration.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.spotify.integration.config.SpotifyJson;
+import org.springframework.http.HttpStatus;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Every error this API answers with. The JSON body of each one is serialized once, when the class
+ * is loaded, so an error response costs no serialization.
+ */
+public enum ApiError {
+
+    SESSION_EXPIRED(HttpStatus.UNAUTHORIZED, "session_expired", "Sessão inválida ou expirada. Faça login novamente."),
+    AUTHORIZATION_FAILED(HttpStatus.UNAUTHORIZED, "authorization_failed", "Falha na autorização com o Spotify."),
+    BAD_REQUEST(HttpStatus.BAD_REQUEST, "bad_request", "Requisição inválida."),
+    FORBIDDEN(HttpStatus.FORBIDDEN, "forbidden", "Permissão insuficiente no Spotify para este recurso."),
+    NOT_FOUND(HttpStatus.NOT_FOUND, "not_found", "Recurso não encontrado."),
+    RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS, "rate_limited", "Limite de requisições ao Spotify excedido. Tente novamente em instantes."),
+    UPSTREAM_ERROR(HttpStatus.BAD_GATEWAY, "upstream_error", "Falha na API do Spotify."),
+    UPSTREAM_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "upstream_unavailable", "Spotify indisponível no momento."),
+    INTERNAL(HttpStatus.INTERNAL_SERVER_ERROR, "internal_error", "Erro interno inesperado.");
+
+    private final HttpStatus status;
+    private final String code;
+    private final byte[] body;
+
+    ApiError(HttpStatus status, String code, String message) {
+        this.status = status;
+        this.code = code;
+        // "error" continua trazendo a mensagem, como nas respostas de erro anteriores.
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("error", message);
+        fields.put("code", code);
+        try {
+            this.body = SpotifyJson.MAPPER.writeValueAsBytes(fields);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The error for a status Spotify answered with.
+     */
+    public static ApiError forUpstreamStatus(int status) {
+        return switch (status) {
+            case 401 -> SESSION_EXPIRED;
+            case 403 -> FORBIDDEN;
+            case 404 -> NOT_FOUND;
+            case 429 -> RATE_LIMITED;
+            default -> status >= 400 && status < 500 ? BAD_REQUEST : UPSTREAM_ERROR;
+        };
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * The serialized body, shared by every response: callers must not modify it.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+}
@@ -9,4 +9,12 @@ public class SpotifyAuthException extends RuntimeException {
     public SpotifyAuthException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * For exceptions created once and thrown many times: without a stack trace and without suppressed
+     * exceptions, an instance holds no state of any particular failure and can be shared by every thread.
+     */
+    protected SpotifyAuthException(String message, boolean stackless) {
+        super(message, null, !stackless, !stackless);
+    }
 }
@@ -0,0 +1,18 @@
+package com.spotify.integration.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A catalog ID that is not a Spotify ID (22 base62 characters), rejected before it is sent anywhere.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class SpotifyInvalidIdException extends SpotifyAuthException {
+
+    public static final SpotifyInvalidIdException INSTANCE =
+            new SpotifyInvalidIdException("ID do Spotify inválido.");
+
+    private SpotifyInvalidIdException(String message) {
+        super(message, true);
+    }
+}
@@ -0,0 +1,18 @@
+package com.spotify.integration.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A request parameter outside the range the endpoint accepts, such as a non-positive {@code limit}.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class SpotifyInvalidParameterException extends SpotifyAuthException {
+
+    public static final SpotifyInvalidParameterException INSTANCE =
+            new SpotifyInvalidParameterException("Parâmetro fora do intervalo aceito.");
+
+    private SpotifyInvalidParameterException(String message) {
+        super(message, true);
+    }
+}
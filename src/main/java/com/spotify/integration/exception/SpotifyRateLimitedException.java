@@ -0,0 +1,26 @@
+package com.spotify.integration.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class SpotifyRateLimitedException extends SpotifyAuthException {
+
+    public static final SpotifyRateLimitedException QUEUE_FULL =
+            new SpotifyRateLimitedException("Fila de requisições ao Spotify cheia.", true);
+
+    public static final SpotifyRateLimitedException RETRIES_EXHAUSTED =
+            new SpotifyRateLimitedException("Limite de requisições do Spotify excedido.", true);
+
+    public SpotifyRateLimitedException(String message) {
+        super(message);
+    }
+
+    public SpotifyRateLimitedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    private SpotifyRateLimitedException(String message, boolean stackless) {
+        super(message, stackless);
+    }
+}
@@ -6,6 +6,9 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class SpotifyResourceNotFoundException extends SpotifyAuthException {
 
+    public static final SpotifyResourceNotFoundException INSTANCE =
+            new SpotifyResourceNotFoundException("Recurso não encontrado.", true);
+
     public SpotifyResourceNotFoundException(String message) {
         super(message);
     }
@@ -13,4 +16,8 @@ public class SpotifyResourceNotFoundException extends SpotifyAuthException {
     public SpotifyResourceNotFoundException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    private SpotifyResourceNotFoundException(String message, boolean stackless) {
+        super(message, stackless);
+    }
 }
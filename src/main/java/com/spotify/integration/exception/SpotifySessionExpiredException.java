@@ -0,0 +1,21 @@
+package com.spotify.integration.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The session is unknown, was removed, or its token can no longer be refreshed: the user has to log in again.
+ */
+@ResponseStatus(HttpStatus.UNAUTHORIZED)
+public class SpotifySessionExpiredException extends SpotifyAuthException {
+
+    public static final SpotifySessionExpiredException EXPIRED =
+            new SpotifySessionExpiredException("Sessão inválida ou expirada. Faça login novamente.");
+
+    public static final SpotifySessionExpiredException REMOVED_DURING_REFRESH =
+            new SpotifySessionExpiredException("Sessão removida durante a renovação do token.");
+
+    private SpotifySessionExpiredException(String message) {
+        super(message, true);
+    }
+}
@@ -0,0 +1,33 @@
+package com.spotify.integration.exception;
+
+/**
+ * Spotify answered with an error status. One instance per status code is created up front, so an
+ * incident that fails every call does not also allocate an exception and a stack trace per call.
+ * The response body is not kept: it is logged, sampled, where the error is received.
+ */
+public class SpotifyUpstreamException extends SpotifyAuthException {
+
+    private static final SpotifyUpstreamException[] BY_STATUS = new SpotifyUpstreamException[600];
+
+    static {
+        for (int status = 400; status < BY_STATUS.length; status++) {
+            BY_STATUS[status] = new SpotifyUpstreamException(status);
+        }
+    }
+
+    private final int status;
+
+    private SpotifyUpstreamException(int status) {
+        super((status < 500 ? "Requisição recusada pela API do Spotify: " : "Falha na API do Spotify: ") + status, true);
+        this.status = status;
+    }
+
+    public static SpotifyUpstreamException forStatus(int status) {
+        // Fora da faixa de erro HTTP só chega um servidor com defeito: tratado como 5xx genérico.
+        return status >= 400 && status < BY_STATUS.length ? BY_STATUS[status] : BY_STATUS[500];
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,27 @@
+package com.spotify.integration.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SpotifyUpstreamUnavailableException extends SpotifyAuthException {
+
+    public SpotifyUpstreamUnavailableException(String message) {
+        super(message);
+    }
+
+    public SpotifyUpstreamUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    private SpotifyUpstreamUnavailableException(String message, boolean stackless) {
+        super(message, stackless);
+    }
+
+    /**
+     * A shareable instance for a failure that repeats with the same message, such as an open circuit.
+     */
+    public static SpotifyUpstreamUnavailableException stackless(String message) {
+        return new SpotifyUpstreamUnavailableException(message, true);
+    }
+}
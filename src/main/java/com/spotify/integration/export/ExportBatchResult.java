@@ -0,0 +1,10 @@
+package com.spotify.integration.export;
+
+import java.util.Map;
+
+/**
+ * Outcome of a batch export: sessions exported, records written across them, and the error
+ * message of each session that failed.
+ */
+public record ExportBatchResult(int exported, long records, Map<String, String> failed) {
+}
@@ -0,0 +1,25 @@
+package com.spotify.integration.export;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One slot of the shared export budget. Closing it more than once releases the slot only once,
+ * so every exit path of an export can close it unconditionally.
+ */
+public final class ExportPermit implements AutoCloseable {
+
+    private final Semaphore budget;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    ExportPermit(Semaphore budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    public void close() {
+        if (released.compareAndSet(false, true)) {
+            budget.release();
+        }
+    }
+}
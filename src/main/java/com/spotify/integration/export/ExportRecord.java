@@ -0,0 +1,14 @@
+package com.spotify.integration.export;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One NDJSON line of a library export. {@code type} is {@code profile}, {@code playlist},
+ * {@code playlist_track} or {@code top_track}; {@code playlist_id} is set only on playlist tracks.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ExportRecord(@JsonProperty("type") String type,
+                           @JsonProperty("playlist_id") String playlistId,
+                           @JsonProperty("data") Object data) {
+}
@@ -0,0 +1,51 @@
+package com.spotify.integration.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.spotify.integration.config.SpotifyJson;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A prepared export of one session's library. {@link #writeTo} pulls records from upstream only as
+ * fast as they are compressed and written, so memory stays bounded by the prefetch, the pages the
+ * pager keeps in flight and the compression buffer, whatever the size of the library.
+ */
+public final class LibraryExport {
+
+    private final Flux<ExportRecord> records;
+    private final int prefetch;
+    private final int bufferSize;
+
+    LibraryExport(Flux<ExportRecord> records, int prefetch, int bufferSize) {
+        this.records = records;
+        this.prefetch = prefetch;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Writes the export as gzip-compressed NDJSON, blocking the calling thread until it is complete.
+     * The stream is finished but not closed.
+     */
+    public long writeTo(OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, bufferSize);
+        long count = 0;
+        // Fechar o Stream cancela o upstream, por exemplo quando o cliente desconecta no meio da exportação.
+        try (Stream<ExportRecord> stream = records.toStream(prefetch);
+             JsonGenerator generator = SpotifyJson.MAPPER.getFactory().createGenerator(gzip)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            Iterator<ExportRecord> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(iterator.next());
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        gzip.finish();
+        return count;
+    }
+}
@@ -0,0 +1,100 @@
+package com.spotify.integration.export;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Exports many sessions' libraries to {@code <directory>/<sessionId>.ndjson.gz}, for support and
+ * migration jobs. Each export runs on its own background thread once it holds a permit of the
+ * budget shared with the HTTP endpoint, so a large batch never starves interactive exports of more
+ * than the configured concurrency. A file appears only once its export is complete.
+ */
+@Component
+public class LibraryExportBatchRunner {
+
+    private final static Logger logger = LoggerFactory.getLogger(LibraryExportBatchRunner.class);
+
+    private static final Pattern SAFE_SESSION_ID = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final LibraryExportService exportService;
+    private final ThreadFactory backgroundThreadFactory;
+
+    public LibraryExportBatchRunner(LibraryExportService exportService, ThreadFactory backgroundThreadFactory) {
+        this.exportService = exportService;
+        this.backgroundThreadFactory = backgroundThreadFactory;
+    }
+
+    /**
+     * Blocks until every session has been exported or has failed.
+     */
+    public ExportBatchResult exportAll(Collection<String> sessionIds, Path directory) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        AtomicInteger exported = new AtomicInteger();
+        LongAdder records = new LongAdder();
+        Map<String, String> failed = new ConcurrentHashMap<>();
+
+        // close() espera todas as tarefas submetidas terminarem.
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(backgroundThreadFactory)) {
+            for (String sessionId : sessionIds) {
+                if (!SAFE_SESSION_ID.matcher(sessionId).matches()) {
+                    failed.put(sessionId, "Id de sessão inválido para nome de arquivo.");
+                    continue;
+                }
+                // Só cria a thread com a permissão em mãos: o lote inteiro nunca fica na memória como tarefas.
+                ExportPermit permit = exportService.acquire();
+                try {
+                    executor.execute(() -> {
+                        try (permit) {
+                            records.add(_exportOne(sessionId, directory));
+                            exported.incrementAndGet();
+                        } catch (Exception e) {
+                            logger.warn("Falha ao exportar a sessão {}: {}", sessionId, e.getMessage());
+                            failed.put(sessionId, String.valueOf(e.getMessage()));
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    permit.close();
+                    throw e;
+                }
+            }
+        }
+
+        logger.info("Exportação em lote concluída: {} sessões, {} registros, {} falhas.",
+                exported.get(), records.sum(), failed.size());
+        return new ExportBatchResult(exported.get(), records.sum(), Map.copyOf(failed));
+    }
+
+    private long _exportOne(String sessionId, Path directory) throws IOException {
+        LibraryExport export = exportService.prepare(sessionId).block();
+        if (export == null) {
+            throw new IOException("Nenhum dado retornado para a sessão.");
+        }
+        Path target = directory.resolve(sessionId + ".ndjson.gz");
+        Path partial = directory.resolve(sessionId + ".ndjson.gz.part");
+        long written;
+        try (OutputStream out = Files.newOutputStream(partial)) {
+            written = export.writeTo(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return written;
+    }
+}
@@ -0,0 +1,98 @@
+package com.spotify.integration.export;
+
+import com.spotify.integration.cache.CachedEndpoint;
+import com.spotify.integration.client.RequestPriority;
+import com.spotify.integration.config.SpotifyJson;
+import com.spotify.integration.dto.Playlist;
+import com.spotify.integration.dto.PlaylistItem;
+import com.spotify.integration.dto.Track;
+import com.spotify.integration.service.SpotifyAuthService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams a user's profile, every playlist with all of its tracks, and all top tracks as
+ * {@link ExportRecord}s, straight from the upstream pages.
+ * <p>
+ * Exports are expensive: they hold a thread while writing and consume rate limit on the background
+ * lane. All of them, from HTTP or from the {@link LibraryExportBatchRunner}, share one budget of
+ * {@code spotify.export.max-concurrent} permits.
+ */
+@Service
+public class LibraryExportService {
+
+    private final SpotifyAuthService spotifyAuthService;
+    private final int maxConcurrent;
+    private final Semaphore budget;
+    private final int prefetch;
+    private final int bufferSize;
+
+    public LibraryExportService(SpotifyAuthService spotifyAuthService,
+                                @Value("${spotify.export.max-concurrent:8}") int maxConcurrent,
+                                @Value("${spotify.export.prefetch:64}") int prefetch,
+                                @Value("${spotify.export.buffer-size:65536}") int bufferSize) {
+        this.spotifyAuthService = spotifyAuthService;
+        this.maxConcurrent = maxConcurrent;
+        this.budget = new Semaphore(maxConcurrent, true);
+        this.prefetch = prefetch;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Fetches the profile up front, so an invalid session fails before anything is written, and
+     * returns an export whose remaining records are fetched lazily as it is written.
+     */
+    public Mono<LibraryExport> prepare(String sessionId) {
+        return spotifyAuthService.getUserProfile(sessionId)
+                .map(profile -> new LibraryExport(
+                        Flux.just(new ExportRecord("profile", null, profile))
+                                .concatWith(_playlists(sessionId))
+                                .concatWith(_topTracks(sessionId)),
+                        prefetch, bufferSize));
+    }
+
+    /**
+     * Takes a slot of the export budget if one is free, or returns null. Ignores the fairness queue,
+     * so an interactive export gets the next free slot ahead of a waiting batch.
+     */
+    public ExportPermit tryAcquire() {
+        return budget.tryAcquire() ? new ExportPermit(budget) : null;
+    }
+
+    /**
+     * Waits for a slot of the export budget.
+     */
+    public ExportPermit acquire() throws InterruptedException {
+        budget.acquire();
+        return new ExportPermit(budget);
+    }
+
+    public int getRunning() {
+        return maxConcurrent - budget.availablePermits();
+    }
+
+    public int getWaiting() {
+        return budget.getQueueLength();
+    }
+
+    private Flux<ExportRecord> _playlists(String sessionId) {
+        // Uma playlist por vez: as faixas de uma só começam a ser buscadas quando as da anterior foram escritas.
+        return spotifyAuthService.<Playlist>streamAllPages(sessionId, CachedEndpoint.PLAYLISTS.getPath(),
+                        SpotifyJson.PLAYLIST_PAGE_READER, RequestPriority.BACKGROUND)
+                .concatMap(playlist -> Flux.just(new ExportRecord("playlist", null, playlist))
+                        .concatWith(spotifyAuthService.<PlaylistItem>streamAllPages(sessionId,
+                                        "/v1/playlists/" + playlist.getId() + "/tracks",
+                                        SpotifyJson.PLAYLIST_ITEM_PAGE_READER, RequestPriority.BACKGROUND)
+                                .map(item -> new ExportRecord("playlist_track", playlist.getId(), item))), 1);
+    }
+
+    private Flux<ExportRecord> _topTracks(String sessionId) {
+        return spotifyAuthService.<Track>streamAllPages(sessionId, CachedEndpoint.TOP_TRACKS.getPath(),
+                        SpotifyJson.TRACK_PAGE_READER, RequestPriority.BACKGROUND)
+                .map(track -> new ExportRecord("top_track", null, track));
+    }
+}
@@ -0,0 +1,43 @@
+package com.spotify.integration.history;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Dictionary encoding of Spotify ids: each distinct id gets a dense int code once, so play columns
+ * hold ints instead of strings. Codes are never reused. Not thread-safe: the owner guards it.
+ */
+final class IdDictionary {
+
+    private final HashMap<String, Integer> codes = new HashMap<>();
+    private String[] ids = new String[256];
+    private String[] names = new String[256];
+    private int size;
+
+    int encode(String id, String name) {
+        Integer code = codes.get(id);
+        if (code != null) {
+            return code;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            names = Arrays.copyOf(names, size * 2);
+        }
+        ids[size] = id;
+        names[size] = name;
+        codes.put(id, size);
+        return size++;
+    }
+
+    String id(int code) {
+        return ids[code];
+    }
+
+    String name(int code) {
+        return names[code];
+    }
+
+    int size() {
+        return size;
+    }
+}
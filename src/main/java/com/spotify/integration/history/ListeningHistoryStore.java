@@ -0,0 +1,303 @@
+package com.spotify.integration.history;
+
+import com.spotify.integration.dto.Artist;
+import com.spotify.integration.dto.Track;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only listening history in columnar form. Per session, plays are two parallel primitive
+ * columns, {@code playedAt} epoch millis and a dictionary-encoded track code, kept in time order.
+ * Track and artist ids are stored once in shared dictionaries, so a play costs 12 bytes.
+ * <p>
+ * A window query binary-searches the time column and counts codes by sorting a copy of the slice,
+ * without creating an object per play; only the returned top entries are decoded back to ids.
+ */
+@Component
+public class ListeningHistoryStore {
+
+    private final static Logger logger = LoggerFactory.getLogger(ListeningHistoryStore.class);
+
+    private static final int[] NO_ARTISTS = new int[0];
+
+    private final Duration retention;
+    private final long retentionMillis;
+
+    private final ConcurrentHashMap<String, Plays> plays = new ConcurrentHashMap<>();
+
+    // Dicionários e o mapeamento faixa -> artistas compartilham o mesmo lock.
+    private final ReentrantLock dictionaryLock = new ReentrantLock();
+    private final IdDictionary tracks = new IdDictionary();
+    private final IdDictionary artists = new IdDictionary();
+    private int[][] trackArtists = new int[256][];
+
+    public ListeningHistoryStore(@Value("${spotify.history.retention:P90D}") Duration retention) {
+        this.retention = retention;
+        this.retentionMillis = retention.toMillis();
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    /**
+     * Appends plays of one session. {@code playedAt} and {@code played} are parallel; plays older
+     * than the session's latest are inserted in order, which only happens when ingestion overlaps.
+     */
+    public void append(String sessionId, long[] playedAt, Track[] played) {
+        int[] codes = new int[played.length];
+        dictionaryLock.lock();
+        try {
+            for (int i = 0; i < played.length; i++) {
+                codes[i] = _encode(played[i]);
+            }
+        } finally {
+            dictionaryLock.unlock();
+        }
+        Plays sessionPlays = plays.computeIfAbsent(sessionId, id -> new Plays());
+        synchronized (sessionPlays) {
+            for (int i = 0; i < codes.length; i++) {
+                sessionPlays.add(playedAt[i], codes[i]);
+            }
+        }
+    }
+
+    public List<PlayCount> topTracks(String sessionId, Instant from, Instant to, int limit) {
+        Slice slice = _slice(sessionId, from, to);
+        if (slice == null) {
+            return List.of();
+        }
+        int[] keys = Arrays.copyOfRange(slice.tracks, slice.from, slice.to);
+        return _top(keys, keys.length, limit, tracks);
+    }
+
+    public List<PlayCount> topArtists(String sessionId, Instant from, Instant to, int limit) {
+        Slice slice = _slice(sessionId, from, to);
+        if (slice == null) {
+            return List.of();
+        }
+        int[][] links = _trackArtists();
+        int[] keys = new int[Math.max(16, slice.to - slice.from)];
+        int size = 0;
+        for (int i = slice.from; i < slice.to; i++) {
+            int[] playedArtists = links[slice.tracks[i]];
+            if (size + playedArtists.length > keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(keys.length * 2, size + playedArtists.length));
+            }
+            System.arraycopy(playedArtists, 0, keys, size, playedArtists.length);
+            size += playedArtists.length;
+        }
+        return _top(keys, size, limit, artists);
+    }
+
+    public int getSessions() {
+        return plays.size();
+    }
+
+    public long getPlays() {
+        long total = 0;
+        for (Plays sessionPlays : plays.values()) {
+            synchronized (sessionPlays) {
+                total += sessionPlays.size;
+            }
+        }
+        return total;
+    }
+
+    public int getDistinctTracks() {
+        dictionaryLock.lock();
+        try {
+            return tracks.size();
+        } finally {
+            dictionaryLock.unlock();
+        }
+    }
+
+    /**
+     * Drops plays older than the retention, and sessions left with none. Dictionary entries are kept:
+     * they are small and a later play is likely to reuse them.
+     */
+    @Scheduled(fixedDelayString = "${spotify.history.eviction-interval-ms:3600000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        int before = plays.size();
+        plays.entrySet().removeIf(entry -> {
+            Plays sessionPlays = entry.getValue();
+            synchronized (sessionPlays) {
+                sessionPlays.trimBefore(cutoff);
+                return sessionPlays.size == 0;
+            }
+        });
+        int removed = before - plays.size();
+        if (removed > 0) {
+            logger.debug("Histórico de {} sessões removido por retenção.", removed);
+        }
+    }
+
+    private int _encode(Track track) {
+        String trackId = track.getId() != null ? track.getId() : track.getUri();
+        int before = tracks.size();
+        int code = tracks.encode(trackId, track.getName());
+        if (code == before) {
+            if (code == trackArtists.length) {
+                trackArtists = Arrays.copyOf(trackArtists, code * 2);
+            }
+            trackArtists[code] = _encodeArtists(track);
+        }
+        return code;
+    }
+
+    private int[] _encodeArtists(Track track) {
+        if (track.getArtists() == null || track.getArtists().isEmpty()) {
+            return NO_ARTISTS;
+        }
+        int[] codes = new int[track.getArtists().size()];
+        int size = 0;
+        for (Artist artist : track.getArtists()) {
+            if (artist.getId() != null) {
+                codes[size++] = artists.encode(artist.getId(), artist.getName());
+            }
+        }
+        return size == codes.length ? codes : Arrays.copyOf(codes, size);
+    }
+
+    private int[][] _trackArtists() {
+        dictionaryLock.lock();
+        try {
+            return trackArtists;
+        } finally {
+            dictionaryLock.unlock();
+        }
+    }
+
+    private Slice _slice(String sessionId, Instant from, Instant to) {
+        Plays sessionPlays = plays.get(sessionId);
+        if (sessionPlays == null) {
+            return null;
+        }
+        long[] playedAt;
+        int[] playedTracks;
+        int size;
+        synchronized (sessionPlays) {
+            // As colunas só crescem por cópia: o prefixo [0, size) deste par de arrays não muda mais.
+            playedAt = sessionPlays.playedAt;
+            playedTracks = sessionPlays.tracks;
+            size = sessionPlays.size;
+        }
+        int start = _lowerBound(playedAt, size, from.toEpochMilli());
+        int end = _lowerBound(playedAt, size, to.toEpochMilli());
+        return start < end ? new Slice(playedTracks, start, end) : null;
+    }
+
+    /**
+     * Counts equal codes by sorting them, then ranks (count, code) pairs packed into longs.
+     */
+    private List<PlayCount> _top(int[] keys, int size, int limit, IdDictionary dictionary) {
+        Arrays.sort(keys, 0, size);
+        long[] ranked = new long[size];
+        int distinct = 0;
+        for (int i = 0; i < size; ) {
+            int j = i;
+            while (j < size && keys[j] == keys[i]) {
+                j++;
+            }
+            // Contagem nos 32 bits altos: ordenar os longs ordena por contagem.
+            ranked[distinct++] = ((long) (j - i) << 32) | keys[i];
+            i = j;
+        }
+        Arrays.sort(ranked, 0, distinct);
+
+        int count = Math.min(limit, distinct);
+        List<PlayCount> result = new ArrayList<>(count);
+        dictionaryLock.lock();
+        try {
+            for (int i = distinct - 1; i >= distinct - count; i--) {
+                int code = (int) ranked[i];
+                result.add(new PlayCount(dictionary.id(code), dictionary.name(code), (int) (ranked[i] >>> 32)));
+            }
+        } finally {
+            dictionaryLock.unlock();
+        }
+        return result;
+    }
+
+    private static int _lowerBound(long[] values, int size, long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private record Slice(int[] tracks, int from, int to) {
+    }
+
+    /**
+     * Columns of one session, guarded by its own monitor.
+     */
+    private static final class Plays {
+
+        long[] playedAt = new long[64];
+        int[] tracks = new int[64];
+        int size;
+
+        void add(long at, int track) {
+            if (size == playedAt.length) {
+                playedAt = Arrays.copyOf(playedAt, size * 2);
+                tracks = Arrays.copyOf(tracks, size * 2);
+            }
+            if (size == 0 || playedAt[size - 1] <= at) {
+                playedAt[size] = at;
+                tracks[size] = track;
+                size++;
+                return;
+            }
+            // Fora de ordem: inserir sem alterar o prefixo já publicado para leitores, em arrays novos.
+            int position = _lowerBound(playedAt, size, at);
+            long[] newPlayedAt = new long[playedAt.length];
+            int[] newTracks = new int[tracks.length];
+            System.arraycopy(playedAt, 0, newPlayedAt, 0, position);
+            System.arraycopy(tracks, 0, newTracks, 0, position);
+            newPlayedAt[position] = at;
+            newTracks[position] = track;
+            System.arraycopy(playedAt, position, newPlayedAt, position + 1, size - position);
+            System.arraycopy(tracks, position, newTracks, position + 1, size - position);
+            playedAt = newPlayedAt;
+            tracks = newTracks;
+            size++;
+        }
+
+        void trimBefore(long cutoff) {
+            int start = _lowerBound(playedAt, size, cutoff);
+            if (start == 0) {
+                return;
+            }
+            int remaining = size - start;
+            int capacity = Math.max(64, Integer.highestOneBit(Math.max(1, remaining)) << 1);
+            long[] newPlayedAt = new long[capacity];
+            int[] newTracks = new int[capacity];
+            System.arraycopy(playedAt, start, newPlayedAt, 0, remaining);
+            System.arraycopy(tracks, start, newTracks, 0, remaining);
+            playedAt = newPlayedAt;
+            tracks = newTracks;
+            size = remaining;
+        }
+    }
+}
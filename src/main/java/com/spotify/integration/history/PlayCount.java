@@ -0,0 +1,8 @@
+package com.spotify.integration.history;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record PlayCount(@JsonProperty("id") String id,
+                        @JsonProperty("name") String name,
+                        @JsonProperty("plays") int plays) {
+}
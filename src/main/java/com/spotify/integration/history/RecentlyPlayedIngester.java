@@ -0,0 +1,224 @@
+package com.spotify.integration.history;
+
+import com.spotify.integration.config.SpotifyJson;
+import com.spotify.integration.dto.CursorPaging;
+import com.spotify.integration.dto.PlayHistory;
+import com.spotify.integration.dto.Track;
+import com.spotify.integration.service.SpotifyAuthService;
+import com.spotify.integration.token.TokenStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Polls {@code /me/player/recently-played} for every session and appends new plays to the
+ * {@link ListeningHistoryStore}. Each session's {@code after} cursor, the time of its newest stored
+ * play, is sent with the next poll, so only plays Spotify has not returned before are downloaded.
+ * <p>
+ * A tick picks the sessions not polled for {@code poll-interval}, longest waiting first, up to
+ * {@code max-sessions-per-tick}, and polls them with bounded concurrency on the background lane.
+ * A tick still running when the next one is due is not overlapped.
+ */
+@Component
+@ConditionalOnProperty(name = "spotify.history.enabled", havingValue = "true")
+public class RecentlyPlayedIngester {
+
+    private final static Logger logger = LoggerFactory.getLogger(RecentlyPlayedIngester.class);
+
+    private static final String PATH = "/v1/me/player/recently-played?limit=50";
+    // Salvaguarda contra um cursor que não avança: nunca mais que isso por sessão e por tick.
+    private static final int MAX_PAGES_PER_POLL = 20;
+
+    private final TokenStore tokenStore;
+    private final SpotifyAuthService spotifyAuthService;
+    private final ListeningHistoryStore historyStore;
+    private final long pollIntervalNanos;
+    private final int maxSessionsPerTick;
+    private final int concurrency;
+
+    private final ConcurrentHashMap<String, Cursor> cursors = new ConcurrentHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final LongAdder polls = new LongAdder();
+    private final LongAdder ingested = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public RecentlyPlayedIngester(TokenStore tokenStore,
+                                  SpotifyAuthService spotifyAuthService,
+                                  ListeningHistoryStore historyStore,
+                                  @Value("${spotify.history.poll-interval:PT15M}") Duration pollInterval,
+                                  @Value("${spotify.history.max-sessions-per-tick:500}") int maxSessionsPerTick,
+                                  @Value("${spotify.history.concurrency:8}") int concurrency) {
+        this.tokenStore = tokenStore;
+        this.spotifyAuthService = spotifyAuthService;
+        this.historyStore = historyStore;
+        this.pollIntervalNanos = pollInterval.toNanos();
+        this.maxSessionsPerTick = maxSessionsPerTick;
+        this.concurrency = concurrency;
+    }
+
+    @Scheduled(fixedDelayString = "${spotify.history.tick-interval-ms:60000}")
+    public void tick() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        List<Due> batch;
+        try {
+            batch = _dueSessions();
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+
+        Flux.fromIterable(batch)
+                .flatMap(session -> ingest(session.sessionId())
+                        .onErrorResume(e -> {
+                            failures.increment();
+                            logger.debug("Falha ao consultar recently-played da sessão {}: {}", session.sessionId(), e.getMessage());
+                            return Mono.empty();
+                        }), concurrency)
+                .doFinally(signal -> running.set(false))
+                .subscribe();
+    }
+
+    /**
+     * Fetches and stores the session's plays newer than its cursor. Emits how many were stored.
+     */
+    public Mono<Integer> ingest(String sessionId) {
+        Cursor previous = cursors.get(sessionId);
+        long after = previous != null ? previous.after() : 0;
+        return _page(sessionId, after)
+                .expand(page -> {
+                    // Sem cursor a API devolve só as 50 mais recentes; com cursor, segue enquanto vierem páginas cheias.
+                    long next = _nextAfter(page);
+                    return after > 0 && page.items().size() >= 50 && next > page.after()
+                            ? _page(sessionId, next)
+                            : Mono.empty();
+                })
+                .take(MAX_PAGES_PER_POLL)
+                .collectList()
+                .map(pages -> {
+                    List<Play> fresh = new ArrayList<>();
+                    for (Page page : pages) {
+                        for (PlayHistory item : page.items()) {
+                            Play play = _play(item);
+                            if (play != null && play.playedAt() > after) {
+                                fresh.add(play);
+                            }
+                        }
+                    }
+                    fresh.sort(Comparator.comparingLong(Play::playedAt));
+                    // Páginas sobrepostas podem repetir uma reprodução: o instante a identifica.
+                    List<Play> distinct = new ArrayList<>(fresh.size());
+                    for (Play play : fresh) {
+                        if (distinct.isEmpty() || distinct.get(distinct.size() - 1).playedAt() != play.playedAt()) {
+                            distinct.add(play);
+                        }
+                    }
+
+                    long[] playedAt = new long[distinct.size()];
+                    Track[] tracks = new Track[distinct.size()];
+                    for (int i = 0; i < distinct.size(); i++) {
+                        playedAt[i] = distinct.get(i).playedAt();
+                        tracks[i] = distinct.get(i).track();
+                    }
+                    historyStore.append(sessionId, playedAt, tracks);
+
+                    long newest = distinct.isEmpty() ? after : playedAt[playedAt.length - 1];
+                    cursors.put(sessionId, new Cursor(newest, System.nanoTime()));
+                    polls.increment();
+                    ingested.add(distinct.size());
+                    return distinct.size();
+                })
+                // Sessão inválida, sem o escopo ou Spotify com falha: espera o intervalo inteiro antes de tentar de novo.
+                .doOnError(e -> cursors.put(sessionId, new Cursor(after, System.nanoTime())));
+    }
+
+    public long getPolls() {
+        return polls.sum();
+    }
+
+    public long getIngested() {
+        return ingested.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    private List<Due> _dueSessions() {
+        long now = System.nanoTime();
+        Set<String> live = new HashSet<>();
+        List<Due> due = new ArrayList<>();
+        tokenStore.forEach((sessionId, token) -> {
+            live.add(sessionId);
+            Cursor cursor = cursors.get(sessionId);
+            if (cursor == null || now - cursor.polledAt() >= pollIntervalNanos) {
+                // Nunca consultadas primeiro, depois as que esperam há mais tempo.
+                due.add(new Due(sessionId, cursor != null ? now - cursor.polledAt() : Long.MAX_VALUE));
+            }
+        });
+        cursors.keySet().retainAll(live);
+        due.sort(Comparator.comparingLong(Due::waitingNanos).reversed());
+        return due.size() > maxSessionsPerTick ? due.subList(0, maxSessionsPerTick) : due;
+    }
+
+    private Mono<Page> _page(String sessionId, long after) {
+        String uri = after > 0 ? PATH + "&after=" + after : PATH;
+        return spotifyAuthService.<CursorPaging<PlayHistory>>fetchInBackground(sessionId, uri, SpotifyJson.RECENTLY_PLAYED_READER)
+                .map(response -> new Page(after, response.getItems() != null ? response.getItems() : List.of(),
+                        response.getCursors() != null ? response.getCursors().getAfter() : null));
+    }
+
+    private static long _nextAfter(Page page) {
+        if (page.cursorAfter() == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(page.cursorAfter());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static Play _play(PlayHistory item) {
+        Track track = item.getTrack();
+        if (track == null || item.getPlayedAt() == null || (track.getId() == null && track.getUri() == null)) {
+            return null;
+        }
+        try {
+            return new Play(Instant.parse(item.getPlayedAt()).toEpochMilli(), track);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private record Cursor(long after, long polledAt) {
+    }
+
+    private record Due(String sessionId, long waitingNanos) {
+    }
+
+    private record Page(long after, List<PlayHistory> items, String cursorAfter) {
+    }
+
+    private record Play(long playedAt, Track track) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.spotify.integration.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Budget for error log lines shared by the whole application: at most {@code per-second} lines are
+ * written each second, the rest are only counted. When Spotify degrades and every call fails, this
+ * keeps a line per failure from taking over the log and the allocation rate.
+ * <p>
+ * Callers check {@link #tryAcquire()} before formatting anything. Dropped lines are reported as a
+ * single count on a schedule.
+ */
+@Component
+public class SampledErrorLog {
+
+    private final static Logger logger = LoggerFactory.getLogger(SampledErrorLog.class);
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final int perSecond;
+
+    private final AtomicInteger usedThisSecond = new AtomicInteger();
+    private volatile long currentSecond = System.nanoTime() / NANOS_PER_SECOND;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder suppressedSinceReport = new LongAdder();
+
+    public SampledErrorLog(@Value("${spotify.errors.log.per-second:5}") int perSecond) {
+        this.perSecond = perSecond;
+    }
+
+    /**
+     * Whether the caller may write one error line now.
+     */
+    public boolean tryAcquire() {
+        long second = System.nanoTime() / NANOS_PER_SECOND;
+        if (second != currentSecond) {
+            // Duas threads podem zerar na mesma virada: no pior caso o segundo ganha algumas linhas a mais.
+            currentSecond = second;
+            usedThisSecond.set(0);
+        }
+        if (usedThisSecond.incrementAndGet() <= perSecond) {
+            written.increment();
+            return true;
+        }
+        suppressed.increment();
+        suppressedSinceReport.increment();
+        return false;
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getSuppressed() {
+        return suppressed.sum();
+    }
+
+    @Scheduled(fixedDelayString = "${spotify.errors.log.report-interval-ms:60000}")
+    public void reportSuppressed() {
+        long dropped = suppressedSinceReport.sumThenReset();
+        if (dropped > 0) {
+            logger.warn("{} linhas de log de erro suprimidas desde o último relatório.", dropped);
+        }
+    }
+}
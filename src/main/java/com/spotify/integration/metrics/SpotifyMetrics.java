@@ -0,0 +1,119 @@
+package com.spotify.integration.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Meters for outbound Spotify calls, the token lifecycle and JSON decoding.
+ * <p>
+ * Tags are kept to low-cardinality values: endpoint templates (IDs replaced by {@code {id}}),
+ * host, status code and outcome. Session and user ids are never used as tags.
+ * <p>
+ * Because the tags are low-cardinality, each meter is built once per tag combination and kept in a
+ * map, so recording on the request path is a map lookup instead of a builder plus a registry lookup.
+ */
+@Component
+public class SpotifyMetrics {
+
+    private static final Pattern ID_SEGMENT = Pattern.compile("/(playlists|tracks|artists|albums|users)/[^/?]+");
+
+    private final MeterRegistry registry;
+
+    private final Counter refreshSuccess;
+    private final Counter refreshFailure;
+    private final DistributionSummary timeToExpiry;
+
+    private final ConcurrentHashMap<UpstreamKey, Timer> upstreamTimers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<EndpointKey, DistributionSummary> responseSizes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> parseTimers = new ConcurrentHashMap<>();
+
+    public SpotifyMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.refreshSuccess = Counter.builder("spotify.token.refreshes")
+                .tag("outcome", "success")
+                .description("Access token refreshes")
+                .register(registry);
+        this.refreshFailure = Counter.builder("spotify.token.refreshes")
+                .tag("outcome", "failure")
+                .description("Access token refreshes")
+                .register(registry);
+        this.timeToExpiry = DistributionSummary.builder("spotify.token.time.to.expiry")
+                .baseUnit("seconds")
+                .description("Remaining token lifetime when a token is used")
+                .publishPercentiles(0.01, 0.5)
+                .register(registry);
+    }
+
+    public void recordUpstream(String host, String path, int status, long durationNanos) {
+        upstreamTimers.computeIfAbsent(new UpstreamKey(host, endpointTemplate(path), status), this::_upstreamTimer)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordResponseBytes(String host, String path, long bytes) {
+        responseSizes.computeIfAbsent(new EndpointKey(host, endpointTemplate(path)), this::_responseSize)
+                .record(bytes);
+    }
+
+    public void recordRefresh(boolean success) {
+        (success ? refreshSuccess : refreshFailure).increment();
+    }
+
+    public void recordTimeToExpiry(Duration remaining) {
+        timeToExpiry.record(Math.max(0, remaining.toSeconds()));
+    }
+
+    public Timer.Sample startParse() {
+        return Timer.start(registry);
+    }
+
+    public void stopParse(Timer.Sample sample, String type) {
+        sample.stop(parseTimers.computeIfAbsent(type, this::_parseTimer));
+    }
+
+    static String endpointTemplate(String path) {
+        int query = path.indexOf('?');
+        String withoutQuery = query >= 0 ? path.substring(0, query) : path;
+        return ID_SEGMENT.matcher(withoutQuery).replaceAll("/$1/{id}");
+    }
+
+    private Timer _upstreamTimer(UpstreamKey key) {
+        return Timer.builder("spotify.client.requests")
+                .tag("host", key.host())
+                .tag("endpoint", key.endpoint())
+                .tag("status", Integer.toString(key.status()))
+                .description("Outbound Spotify requests, until response headers")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private DistributionSummary _responseSize(EndpointKey key) {
+        return DistributionSummary.builder("spotify.client.response.size")
+                .tag("host", key.host())
+                .tag("endpoint", key.endpoint())
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private Timer _parseTimer(String type) {
+        return Timer.builder("spotify.json.parse")
+                .tag("type", type)
+                .description("Time spent decoding Spotify responses")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    private record UpstreamKey(String host, String endpoint, int status) {
+    }
+
+    private record EndpointKey(String host, String endpoint) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.spotify.integration.metrics;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records latency, status and response size for every request of a {@code WebClient}.
+ */
+public class SpotifyMetricsFilter implements ExchangeFilterFunction {
+
+    private final SpotifyMetrics metrics;
+    private final String host;
+
+    public SpotifyMetricsFilter(SpotifyMetrics metrics, String host) {
+        this.metrics = metrics;
+        this.host = host;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String path = request.url().getRawPath();
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return next.exchange(request)
+                    .doOnError(e -> metrics.recordUpstream(host, path, 0, System.nanoTime() - start))
+                    .map(response -> {
+                        metrics.recordUpstream(host, path, response.statusCode().value(), System.nanoTime() - start);
+                        AtomicLong bytes = new AtomicLong();
+                        return response.mutate()
+                                .body(body -> body
+                                        .doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()))
+                                        .doOnComplete(() -> metrics.recordResponseBytes(host, path, bytes.get())))
+                                .build();
+                    });
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package com.spotify.integration.pkce;
+
+import com.spotify.integration.util.PKCEUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Maps the opaque {@code state} sent to Spotify back to the code verifier of the login that issued it,
+ * so the verifier never leaves the server. Entries are single-use, expire after a fixed TTL and are
+ * bounded in number; when full, the oldest pending logins are dropped first.
+ */
+@Component
+public class AuthorizationStateStore {
+
+    private final static Logger logger = LoggerFactory.getLogger(AuthorizationStateStore.class);
+
+    private final PKCEUtil pkceUtil;
+    private final ConcurrentHashMap<String, Pending> pending = new ConcurrentHashMap<>();
+
+    // Com TTL fixo, a ordem de emissão coincide com a ordem de expiração.
+    private final Queue<Pending> expiryQueue = new ConcurrentLinkedQueue<>();
+
+    private final int maxPending;
+    private final long ttlNanos;
+
+    public AuthorizationStateStore(PKCEUtil pkceUtil,
+                                   @Value("${spotify.auth.state.max-pending:100000}") int maxPending,
+                                   @Value("${spotify.auth.state.ttl:PT10M}") Duration ttl) {
+        this.pkceUtil = pkceUtil;
+        this.maxPending = maxPending;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public String issue(String codeVerifier) {
+        Pending entry = new Pending(pkceUtil.generateState(), codeVerifier, System.nanoTime() + ttlNanos);
+        pending.put(entry.state, entry);
+        expiryQueue.offer(entry);
+        _evictOverCapacity();
+        return entry.state;
+    }
+
+    /**
+     * Removes and returns the verifier bound to {@code state}, or {@code null} if the state is unknown,
+     * already used or expired.
+     */
+    public String consume(String state) {
+        Pending entry = pending.remove(state);
+        if (entry == null || entry.expiresAt - System.nanoTime() < 0) {
+            return null;
+        }
+        return entry.codeVerifier;
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${spotify.auth.state.eviction-interval-ms:30000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        Pending head;
+        while ((head = expiryQueue.peek()) != null && head.expiresAt - now < 0) {
+            if (expiryQueue.remove(head) && pending.remove(head.state, head)) {
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            logger.debug("{} states de autorização expirados removidos.", evicted);
+        }
+    }
+
+    private void _evictOverCapacity() {
+        while (pending.size() > maxPending) {
+            Pending oldest = expiryQueue.poll();
+            if (oldest == null) {
+                return;
+            }
+            // A entrada pode já ter sido consumida pelo callback; nesse caso só sai da fila.
+            pending.remove(oldest.state, oldest);
+        }
+    }
+
+    private record Pending(String state, String codeVerifier, long expiresAt) {
+    }
+}
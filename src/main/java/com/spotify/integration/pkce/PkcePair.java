@@ -0,0 +1,4 @@
+package com.spotify.integration.pkce;
+
+public record PkcePair(String codeVerifier, String codeChallenge) {
+}
@@ -0,0 +1,81 @@
+package com.spotify.integration.pkce;
+
+import com.spotify.integration.util.PKCEUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a bounded pool of precomputed verifier/challenge pairs, refilled by a background thread,
+ * so a login only dequeues a pair instead of drawing entropy and hashing on the request thread.
+ * Each pair is handed out exactly once; when the pool is drained the pair is generated inline.
+ */
+@Component
+public class PkcePool {
+
+    private final PKCEUtil pkceUtil;
+    private final ThreadFactory backgroundThreadFactory;
+    private final BlockingQueue<PkcePair> pool;
+
+    private final LongAdder misses = new LongAdder();
+
+    private Thread refiller;
+
+    public PkcePool(PKCEUtil pkceUtil,
+                    ThreadFactory backgroundThreadFactory,
+                    @Value("${spotify.pkce.pool-size:1024}") int poolSize) {
+        this.pkceUtil = pkceUtil;
+        this.backgroundThreadFactory = backgroundThreadFactory;
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    @PostConstruct
+    public void start() {
+        refiller = backgroundThreadFactory.newThread(this::_refillLoop);
+        refiller.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        refiller.interrupt();
+    }
+
+    public PkcePair take() {
+        PkcePair pair = pool.poll();
+        if (pair == null) {
+            misses.increment();
+            return _generate();
+        }
+        return pair;
+    }
+
+    public int getAvailable() {
+        return pool.size();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private PkcePair _generate() {
+        String codeVerifier = pkceUtil.generateCodeVerifier();
+        return new PkcePair(codeVerifier, pkceUtil.generateCodeChallenge(codeVerifier));
+    }
+
+    private void _refillLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                // put bloqueia com o pool cheio: o refiller só trabalha quando há pares consumidos.
+                pool.put(_generate());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.spotify.integration.prefetch;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Remembers when each session last read its cached data, so the {@link CacheRefresher} refreshes
+ * only sessions someone is actually using. Sessions not seen within the active window are dropped
+ * on the next pass; while {@code max-active-sessions} are tracked, new sessions are not added.
+ */
+@Component
+public class ActivityTracker {
+
+    // Granularidade mínima para gravar o último acesso e evitar escrita a cada leitura.
+    private static final long TOUCH_GRANULARITY_NANOS = 1_000_000_000L;
+
+    private final ConcurrentHashMap<String, Activity> sessions = new ConcurrentHashMap<>();
+
+    private final long activeWindowNanos;
+    private final int maxSessions;
+
+    public ActivityTracker(@Value("${spotify.prefetch.active-window:PT15M}") Duration activeWindow,
+                           @Value("${spotify.prefetch.max-active-sessions:10000}") int maxSessions) {
+        this.activeWindowNanos = activeWindow.toNanos();
+        this.maxSessions = maxSessions;
+    }
+
+    public void touch(String sessionId) {
+        long now = System.nanoTime();
+        Activity activity = sessions.get(sessionId);
+        if (activity == null) {
+            // size() de ConcurrentHashMap é uma estimativa barata: o limite pode ser excedido por pouco.
+            if (sessions.size() < maxSessions) {
+                sessions.putIfAbsent(sessionId, new Activity(now));
+            }
+        } else if (now - activity.lastSeen > TOUCH_GRANULARITY_NANOS) {
+            activity.lastSeen = now;
+        }
+    }
+
+    /**
+     * Passes every session seen within the active window to {@code action}, dropping the others.
+     */
+    public void forEachActive(Consumer<String> action) {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, Activity>> iterator = sessions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Activity> entry = iterator.next();
+            if (now - entry.getValue().lastSeen >= activeWindowNanos) {
+                iterator.remove();
+            } else {
+                action.accept(entry.getKey());
+            }
+        }
+    }
+
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    private static final class Activity {
+
+        volatile long lastSeen;
+
+        Activity(long lastSeen) {
+            this.lastSeen = lastSeen;
+        }
+    }
+}
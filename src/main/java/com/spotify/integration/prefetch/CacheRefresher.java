@@ -0,0 +1,134 @@
+package com.spotify.integration.prefetch;
+
+import com.spotify.integration.cache.CachedEndpoint;
+import com.spotify.integration.cache.SpotifyResponseCache;
+import com.spotify.integration.client.SpotifyRequestScheduler;
+import com.spotify.integration.service.SpotifyAuthService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Refreshes the cached profile, playlists and top tracks of active sessions shortly before they go
+ * stale, so users who keep coming back are served from the cache instead of waiting on Spotify.
+ * <p>
+ * Each tick collects the cached entries of active sessions that expire within {@code refresh-ahead},
+ * keeps the {@code max-per-tick} that expire soonest in a bounded priority queue, and refreshes them
+ * on the background lane with bounded concurrency. Entries with an ETag are revalidated, which costs
+ * Spotify a {@code 304} when nothing changed. A tick is skipped while the request scheduler has a
+ * backlog or is paused by a {@code 429}: foreground requests come first.
+ */
+@Component
+public class CacheRefresher {
+
+    private final static Logger logger = LoggerFactory.getLogger(CacheRefresher.class);
+
+    private static final Comparator<Due> SOONEST_FIRST =
+            (a, b) -> Long.signum(a.expiresAtNanos() - b.expiresAtNanos());
+
+    private final ActivityTracker activityTracker;
+    private final SpotifyResponseCache responseCache;
+    private final SpotifyRequestScheduler requestScheduler;
+    private final SpotifyAuthService spotifyAuthService;
+    private final long refreshAheadNanos;
+    private final int maxPerTick;
+    private final int concurrency;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final LongAdder refreshed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder skippedTicks = new LongAdder();
+
+    public CacheRefresher(ActivityTracker activityTracker,
+                          SpotifyResponseCache responseCache,
+                          SpotifyRequestScheduler requestScheduler,
+                          SpotifyAuthService spotifyAuthService,
+                          @Value("${spotify.prefetch.refresh-ahead:PT20S}") Duration refreshAhead,
+                          @Value("${spotify.prefetch.max-per-tick:200}") int maxPerTick,
+                          @Value("${spotify.prefetch.concurrency:4}") int concurrency) {
+        this.activityTracker = activityTracker;
+        this.responseCache = responseCache;
+        this.requestScheduler = requestScheduler;
+        this.spotifyAuthService = spotifyAuthService;
+        this.refreshAheadNanos = refreshAhead.toNanos();
+        this.maxPerTick = maxPerTick;
+        this.concurrency = concurrency;
+    }
+
+    @Scheduled(fixedDelayString = "${spotify.prefetch.tick-interval-ms:10000}")
+    public void tick() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        List<Due> batch;
+        try {
+            if (requestScheduler.getQueued() > 0 || requestScheduler.isPaused()) {
+                skippedTicks.increment();
+                running.set(false);
+                return;
+            }
+            batch = _dueEntries();
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+
+        Flux.fromIterable(batch)
+                .flatMap(due -> spotifyAuthService.refreshCached(due.sessionId(), due.endpoint())
+                        .doOnSuccess(ignored -> refreshed.increment())
+                        .onErrorResume(e -> {
+                            failures.increment();
+                            logger.debug("Falha ao renovar {} da sessão {}: {}", due.endpoint().getPath(), due.sessionId(), e.getMessage());
+                            return Mono.empty();
+                        }), concurrency)
+                .doFinally(signal -> running.set(false))
+                .subscribe();
+    }
+
+    public long getRefreshed() {
+        return refreshed.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getSkippedTicks() {
+        return skippedTicks.sum();
+    }
+
+    private List<Due> _dueEntries() {
+        // Heap com a expiração mais distante no topo: ao passar do limite, descarta a menos urgente.
+        PriorityQueue<Due> due = new PriorityQueue<>(SOONEST_FIRST.reversed());
+        activityTracker.forEachActive(sessionId -> {
+            for (CachedEndpoint endpoint : CachedEndpoint.values()) {
+                SpotifyResponseCache.Entry entry = responseCache.peek(sessionId, endpoint);
+                if (entry != null && entry.expiresWithin(refreshAheadNanos)) {
+                    due.offer(new Due(sessionId, endpoint, entry.getExpiresAtNanos()));
+                    if (due.size() > maxPerTick) {
+                        due.poll();
+                    }
+                }
+            }
+        });
+        List<Due> batch = new ArrayList<>(due);
+        batch.sort(SOONEST_FIRST);
+        return batch;
+    }
+
+    private record Due(String sessionId, CachedEndpoint endpoint, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.spotify.integration.service;
+
+/**
+ * A decoded response together with the size of its body, for callers that bound a cache by weight.
+ */
+public record SizedResponse<T>(T value, int bytes) {
+}
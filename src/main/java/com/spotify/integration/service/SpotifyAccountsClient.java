@@ -0,0 +1,113 @@
+package com.spotify.integration.service;
+
+import com.spotify.integration.client.LatencyBudgets;
+import com.spotify.integration.client.RequestPriority;
+import com.spotify.integration.client.SpotifyRequestScheduler;
+import com.spotify.integration.dto.TokenResponse;
+import com.spotify.integration.exception.SpotifyAuthException;
+import com.spotify.integration.exception.SpotifySessionExpiredException;
+import com.spotify.integration.exception.SpotifyUpstreamException;
+import com.spotify.integration.metrics.SampledErrorLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+@Component
+public class SpotifyAccountsClient {
+
+    private final static Logger logger = LoggerFactory.getLogger(SpotifyAccountsClient.class);
+
+    private final WebClient spotifyAccountsWebClient;
+    private final SpotifyRequestScheduler requestScheduler;
+    private final LatencyBudgets latencyBudgets;
+    private final SampledErrorLog errorLog;
+
+    @Value("${spotify.client_id}")
+    private String clientId;
+
+    @Value("${spotify.client_secret}")
+    private String clientSecret;
+
+    @Value("${spotify.redirect_uri}")
+    private String redirectUri;
+
+    public SpotifyAccountsClient(@Qualifier("spotifyAccountsWebClient") WebClient spotifyAccountsWebClient,
+                                 SpotifyRequestScheduler requestScheduler,
+                                 LatencyBudgets latencyBudgets,
+                                 SampledErrorLog errorLog) {
+        this.spotifyAccountsWebClient = spotifyAccountsWebClient;
+        this.requestScheduler = requestScheduler;
+        this.latencyBudgets = latencyBudgets;
+        this.errorLog = errorLog;
+    }
+
+    public Mono<TokenResponse> exchangeAuthorizationCode(String code, String codeVerifier) {
+        String requestBody = "grant_type=authorization_code&" +
+                "code=" + code + "&" +
+                "redirect_uri=" + redirectUri + "&" +
+                "client_id=" + clientId + "&" +
+                "client_secret=" + clientSecret + "&" +
+                "code_verifier=" + codeVerifier;
+
+        return _postToken(requestBody)
+                .onErrorMap(WebClientResponseException.class, e -> _mapError("exchange authorization code", e,
+                        new SpotifyAuthException("Failed to exchange authorization code.")));
+    }
+
+    public Mono<TokenResponse> refreshAccessToken(String refreshToken) {
+        String requestBody = "grant_type=refresh_token&" +
+                "refresh_token=" + refreshToken + "&" +
+                "client_id=" + clientId + "&" +
+                "client_secret=" + clientSecret;
+
+        return _postToken(requestBody)
+                .filter(response -> response.getAccessToken() != null)
+                .switchIfEmpty(Mono.error(() ->
+                        new SpotifyAuthException("Failed to refresh access token: access_token not found.")))
+                // Refresh token revogado ou inválido: só um novo login resolve.
+                .onErrorMap(WebClientResponseException.class, e -> _mapError("refresh token", e,
+                        SpotifySessionExpiredException.EXPIRED));
+    }
+
+    /**
+     * Client-credentials grant: an app token with no user behind it, valid for catalog endpoints.
+     */
+    public Mono<TokenResponse> requestClientCredentialsToken() {
+        String requestBody = "grant_type=client_credentials&" +
+                "client_id=" + clientId + "&" +
+                "client_secret=" + clientSecret;
+
+        return _postToken(requestBody)
+                .filter(response -> response.getAccessToken() != null)
+                .switchIfEmpty(Mono.error(() ->
+                        new SpotifyAuthException("Failed to obtain app token: access_token not found.")))
+                .onErrorMap(WebClientResponseException.class, e -> _mapError("obtain app token", e, null));
+    }
+
+    /**
+     * Logs the failure within the shared budget and maps it: a 4xx to {@code clientError} when given,
+     * anything else to the preallocated exception of the status.
+     */
+    private SpotifyAuthException _mapError(String operation, WebClientResponseException e, SpotifyAuthException clientError) {
+        int status = e.getStatusCode().value();
+        if (errorLog.tryAcquire()) {
+            logger.warn("Failed to {}: {} {}", operation, status, e.getResponseBodyAsString());
+        }
+        return clientError != null && e.getStatusCode().is4xxClientError()
+                ? clientError
+                : SpotifyUpstreamException.forStatus(status);
+    }
+
+    private Mono<TokenResponse> _postToken(String requestBody) {
+        return latencyBudgets.apply("token", requestScheduler.submit(RequestPriority.TOKEN, () -> spotifyAccountsWebClient.post()
+                .uri("/api/token")
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToMono(TokenResponse.class)));
+    }
+}
@@ -1,254 +1,527 @@
 package com.spotify.integration.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.spotify.integration.cache.CachedEndpoint;
+import com.spotify.integration.client.InFlightRequestCoalescer;
+import com.spotify.integration.client.LatencyBudgets;
+import com.spotify.integration.client.RequestHedger;
+import com.spotify.integration.client.RequestPriority;
+import com.spotify.integration.client.SpotifyRequestScheduler;
+import com.spotify.integration.cache.SpotifyResponseCache;
+import com.spotify.integration.config.SpotifyJson;
+import com.spotify.integration.config.WebClientConfig;
+import com.spotify.integration.dto.Paging;
+import com.spotify.integration.dto.Playlist;
 import com.spotify.integration.dto.TokenResponse;
+import com.spotify.integration.dto.Track;
+import com.spotify.integration.dto.UserProfile;
 import com.spotify.integration.exception.SpotifyAuthException;
 import com.spotify.integration.exception.SpotifyJsonParsingException;
 import com.spotify.integration.exception.SpotifyResourceNotFoundException;
-import com.spotify.integration.util.PKCEUtil;
+import com.spotify.integration.exception.SpotifySessionExpiredException;
+import com.spotify.integration.exception.SpotifyUpstreamException;
+import com.spotify.integration.exception.SpotifyUpstreamUnavailableException;
+import com.spotify.integration.metrics.SampledErrorLog;
+import com.spotify.integration.metrics.SpotifyMetrics;
+import com.spotify.integration.pkce.AuthorizationStateStore;
+import com.spotify.integration.pkce.PkcePair;
+import com.spotify.integration.pkce.PkcePool;
+import com.spotify.integration.prefetch.ActivityTracker;
+import com.spotify.integration.token.AppTokenManager;
+import com.spotify.integration.token.SpotifyToken;
+import com.spotify.integration.token.TokenRefresher;
+import com.spotify.integration.token.TokenStore;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyExtractors;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 @Service
 public class SpotifyAuthService {
 
     private final static Logger logger = LoggerFactory.getLogger(SpotifyAuthService.class);
-    private final ObjectMapper objectMapper = new ObjectMapper();
 
-    private final PKCEUtil pkceUtil;
-    private final WebClient spotifyWebClient;
-    private Instant tokenExpirationTime;
+    // Corpos de erro do Spotify são curtos; o limite só protege o log de uma página de erro inteira.
+    private static final int MAX_LOGGED_BODY = 200;
+
+    private final PkcePool pkcePool;
+    private final AuthorizationStateStore stateStore;
+    private final WebClient spotifyApiWebClient;
+    private final TokenStore tokenStore;
+    private final TokenRefresher tokenRefresher;
+    private final AppTokenManager appTokenManager;
+    private final SpotifyAccountsClient accountsClient;
+    private final SpotifyResponseCache responseCache;
+    private final SpotifyPager pager;
+    private final SpotifyRequestScheduler requestScheduler;
+    private final InFlightRequestCoalescer coalescer;
+    private final LatencyBudgets latencyBudgets;
+    private final RequestHedger hedger;
+    private final SpotifyMetrics metrics;
+    private final SampledErrorLog errorLog;
+    private final ActivityTracker activityTracker;
 
     @Value("${spotify.client_id}")
     private String clientId;
 
-    @Value("${spotify.client_secret}")
-    private String clientSecret;
-
     @Value("${spotify.redirect_uri}")
     private String redirectUri;
 
-    private String accessToken;
-
-    private String refreshToken;
-
-    public SpotifyAuthService(PKCEUtil pkceUtil, WebClient spotifyWebClient) {
-        this.pkceUtil = pkceUtil;
-        this.spotifyWebClient = spotifyWebClient;
+    @Value("${spotify.http.accounts.base-url:" + WebClientConfig.DEFAULT_ACCOUNTS_BASE_URL + "}")
+    private String accountsBaseUrl;
+
+    @Value("${spotify.prefetch.on-login:true}")
+    private boolean prefetchOnLogin;
+
+    @Value("${spotify.prefetch.max-concurrent-warm-ups:16}")
+    private int maxConcurrentWarmUps;
+
+    // O mesmo limite dos codecs do WebClient, para que o corpo juntado aqui não escape dele.
+    @Value("${spotify.http.api.max-in-memory-size:" + WebClientConfig.DEFAULT_MAX_IN_MEMORY_SIZE + "}")
+    private int maxResponseBytes = WebClientConfig.DEFAULT_MAX_IN_MEMORY_SIZE;
+
+    private final AtomicInteger warmUpsInFlight = new AtomicInteger();
+    private final LongAdder skippedWarmUps = new LongAdder();
+
+    public SpotifyAuthService(PkcePool pkcePool,
+                              AuthorizationStateStore stateStore,
+                              @Qualifier("spotifyApiWebClient") WebClient spotifyApiWebClient,
+                              TokenStore tokenStore,
+                              TokenRefresher tokenRefresher,
+                              AppTokenManager appTokenManager,
+                              SpotifyAccountsClient accountsClient,
+                              SpotifyResponseCache responseCache,
+                              SpotifyPager pager,
+                              SpotifyRequestScheduler requestScheduler,
+                              InFlightRequestCoalescer coalescer,
+                              LatencyBudgets latencyBudgets,
+                              RequestHedger hedger,
+                              SpotifyMetrics metrics,
+                              SampledErrorLog errorLog,
+                              ActivityTracker activityTracker) {
+        this.pkcePool = pkcePool;
+        this.stateStore = stateStore;
+        this.spotifyApiWebClient = spotifyApiWebClient;
+        this.tokenStore = tokenStore;
+        this.tokenRefresher = tokenRefresher;
+        this.appTokenManager = appTokenManager;
+        this.accountsClient = accountsClient;
+        this.responseCache = responseCache;
+        this.pager = pager;
+        this.requestScheduler = requestScheduler;
+        this.coalescer = coalescer;
+        this.latencyBudgets = latencyBudgets;
+        this.hedger = hedger;
+        this.metrics = metrics;
+        this.errorLog = errorLog;
+        this.activityTracker = activityTracker;
     }
 
-    public boolean isTokenExpired() {
-        return tokenExpirationTime == null || Instant.now().isAfter(tokenExpirationTime);
+    public boolean isTokenExpired(String sessionId) {
+        SpotifyToken token = tokenStore.get(sessionId);
+        return token == null || token.isExpired();
     }
 
-    private <T> T _parseResponse(String responseBody, Object type) {
-        try {
-            if (type instanceof Class<?>) {
-                return objectMapper.readValue(responseBody, (Class<T>) type);
-            } else if (type instanceof TypeReference<?>) {
-                return objectMapper.readValue(responseBody, (TypeReference<T>) type);
-            } else {
-                throw new IllegalArgumentException("Tipo inválido para parsing: deve ser Class ou TypeReference.");
+    private <T> T _parseResponse(DataBuffer responseBody, ObjectReader reader) {
+        // Decodifica direto dos buffers do Netty, sem materializar o corpo como String.
+        Timer.Sample sample = metrics.startParse();
+        try (InputStream input = responseBody.asInputStream(true)) {
+            return reader.readValue(input);
+        } catch (IOException e) {
+            String errorMessage = "Erro ao processar resposta JSON para " + reader.getValueType() + ": " + e.getMessage();
+            if (errorLog.tryAcquire()) {
+                logger.error(errorMessage, e);
             }
-        } catch (JsonProcessingException e) {
-            String targetType = (type instanceof Class<?>) ? ((Class<?>) type).getSimpleName() : type.toString();
-            String errorMessage = "Erro ao processar resposta JSON para " + targetType + ": " + e.getMessage();
-            logger.error(errorMessage, e);
             throw new SpotifyJsonParsingException(errorMessage, e);
+        } finally {
+            metrics.stopParse(sample, _typeName(reader.getValueType()));
         }
     }
 
-    private void _handleWebClientResponseException(WebClientResponseException e) {
-        String errorMessage = "Erro na API do Spotify: " + e.getResponseBodyAsString();
-        logger.error(errorMessage, e);
+    private static String _typeName(JavaType type) {
+        String name = type.getRawClass().getSimpleName();
+        if (type.containedTypeCount() > 0) {
+            name += "<" + type.containedType(0).getRawClass().getSimpleName() + ">";
+        }
+        return name;
+    }
 
-        if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
-            throw new SpotifyResourceNotFoundException("Recurso não encontrado.", e);
-        } else if (e.getStatusCode().is4xxClientError()){
-            throw new SpotifyAuthException("Requisição inválida: " + e.getResponseBodyAsString(), e);
-        } else {
-            throw new SpotifyAuthException("Falha na API do Spotify: " + e.getResponseBodyAsString(), e);
+    /**
+     * Maps an error status from Spotify to its preallocated exception. A 404 is an expected answer and is
+     * not logged; anything else is logged without a stack trace, within the shared error log budget.
+     */
+    private SpotifyAuthException _handleWebClientResponseException(WebClientResponseException e) {
+        int status = e.getStatusCode().value();
+        if (status == HttpStatus.NOT_FOUND.value()) {
+            return SpotifyResourceNotFoundException.INSTANCE;
         }
+        if (errorLog.tryAcquire()) {
+            logger.warn("Erro {} da API do Spotify em {}: {}", status,
+                    e.getRequest() != null ? e.getRequest().getURI().getPath() : "?", _abbreviate(e.getResponseBodyAsString()));
+        }
+        return SpotifyUpstreamException.forStatus(status);
     }
 
-    private void _updateTokens(TokenResponse response) {
-        this.accessToken = response.getAccessToken();
-        this.refreshToken = response.getRefreshToken();
-        this.tokenExpirationTime = Instant.now().plusSeconds(response.getExpiresIn());
+    private static String _abbreviate(String body) {
+        return body.length() <= MAX_LOGGED_BODY ? body : body.substring(0, MAX_LOGGED_BODY) + "...";
     }
 
-    public TokenResponse exchangeAuthorizationCodeForToken(String code, String codeVerifier) {
-        String requestBody = "grant_type=authorization_code&" +
-                "code=" + code + "&" +
-                "redirect_uri=" + redirectUri + "&" +
-                "client_id=" + clientId + "&" +
-                "client_secret=" + clientSecret + "&" +
-                "code_verifier=" + codeVerifier;
+    private SpotifyToken _toToken(TokenResponse response) {
+        return new SpotifyToken(
+                response.getAccessToken(),
+                response.getRefreshToken(),
+                Instant.now().plusSeconds(response.getExpiresIn()));
+    }
 
-        String responseBody = spotifyWebClient.post()
-                .uri("https://accounts.spotify.com/api/token")
-                .header("Content-Type", "application/x-www-form-urlencoded")
-                .bodyValue(requestBody)
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
+    /**
+     * Exchanges the authorization code using the verifier bound to {@code state} when the login started.
+     * A state is accepted once; unknown, reused or expired states fail without calling Spotify.
+     */
+    public Mono<TokenResponse> exchangeAuthorizationCodeForToken(String code, String state) {
+        return Mono.defer(() -> {
+                    String codeVerifier = stateStore.consume(state);
+                    if (codeVerifier == null) {
+                        return Mono.error(new SpotifyAuthException("State de autorização inválido ou expirado."));
+                    }
+                    return accountsClient.exchangeAuthorizationCode(code, codeVerifier);
+                })
+                // O store pode ser bloqueante (JDBC): não grava a partir da event loop do Netty.
+                .publishOn(Schedulers.boundedElastic())
+                .map(response -> {
+                    String sessionId = UUID.randomUUID().toString();
+                    SpotifyToken token = _toToken(response);
+                    tokenStore.save(sessionId, token);
+                    tokenRefresher.scheduleAhead(sessionId, token);
+                    response.setSessionId(sessionId);
+                    if (prefetchOnLogin) {
+                        _warmUp(sessionId);
+                    }
+                    return response;
+                });
+    }
 
-        TokenResponse response = _parseResponse(responseBody, TokenResponse.class);
-        _updateTokens(response);
+    /**
+     * Loads the data of the first dashboard into the response cache while the callback response is
+     * still on its way, all three calls in parallel on the background lane; a request arriving meanwhile
+     * joins them through the coalescer. The warm-up is skipped while foreground requests are queued, while
+     * Spotify has paused the client, or when {@code max-concurrent-warm-ups} are already running, so a
+     * burst of logins never competes with users for the token bucket.
+     */
+    private void _warmUp(String sessionId) {
+        activityTracker.touch(sessionId);
+        if (requestScheduler.getQueued() > 0 || requestScheduler.isPaused()) {
+            skippedWarmUps.increment();
+            return;
+        }
+        if (warmUpsInFlight.incrementAndGet() > maxConcurrentWarmUps) {
+            warmUpsInFlight.decrementAndGet();
+            skippedWarmUps.increment();
+            return;
+        }
+        Mono.whenDelayError(
+                        _fetchCached(sessionId, CachedEndpoint.PROFILE, SpotifyJson.USER_PROFILE_READER, RequestPriority.BACKGROUND, true),
+                        _fetchCached(sessionId, CachedEndpoint.PLAYLISTS, SpotifyJson.PLAYLIST_PAGE_READER, RequestPriority.BACKGROUND, true),
+                        _fetchCached(sessionId, CachedEndpoint.TOP_TRACKS, SpotifyJson.TRACK_PAGE_READER, RequestPriority.BACKGROUND, true))
+                .doFinally(signal -> warmUpsInFlight.decrementAndGet())
+                .subscribe(null, e -> logger.debug("Pré-carregamento da sessão {} incompleto: {}", sessionId, e.getMessage()));
+    }
 
-        return response;
+    public long getSkippedWarmUps() {
+        return skippedWarmUps.sum();
     }
 
-    public Map<String, Object> getUserPlaylists() {
-        String validAccessToken = getValidAccessToken();
-        try {
-            String responseBody = spotifyWebClient.get()
-                    .uri("https://api.spotify.com/v1/me/playlists")
-                    .header("Authorization", "Bearer " + validAccessToken)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+    /**
+     * Fetches the endpoint again on the background lane, even if the cached copy is still fresh,
+     * revalidating it with its ETag when there is one.
+     */
+    public Mono<Void> refreshCached(String sessionId, CachedEndpoint endpoint) {
+        return _fetchCached(sessionId, endpoint, _readerFor(endpoint), RequestPriority.BACKGROUND, true).then();
+    }
 
-            return _parseResponse(responseBody, new TypeReference<>() {});
-        } catch (WebClientResponseException e) {
-            _handleWebClientResponseException(e);
-        }
-        return null;
-    }
-
-    public Map<String, Object> getUserProfile() {
-        String validAccessToken = getValidAccessToken();
-        try {
-            String responseBody = spotifyWebClient.get()
-                    .uri("https://api.spotify.com/v1/me")
-                    .header("Authorization", "Bearer " + validAccessToken)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            return _parseResponse(responseBody, new TypeReference<>() {});
-        } catch (WebClientResponseException e) {
-            _handleWebClientResponseException(e);
+    private static ObjectReader _readerFor(CachedEndpoint endpoint) {
+        return switch (endpoint) {
+            case PROFILE -> SpotifyJson.USER_PROFILE_READER;
+            case PLAYLISTS -> SpotifyJson.PLAYLIST_PAGE_READER;
+            case TOP_TRACKS -> SpotifyJson.TRACK_PAGE_READER;
+        };
+    }
+
+    private <T> Mono<T> _fetchCached(String sessionId, CachedEndpoint endpoint, ObjectReader reader) {
+        activityTracker.touch(sessionId);
+        return _fetchCached(sessionId, endpoint, reader, RequestPriority.INTERACTIVE, false);
+    }
+
+    /**
+     * With {@code prefetch}, the call comes from the application rather than a user: it always goes to
+     * Spotify, is not hedged, does not count as a cache hit or miss or as use of the session, and does not
+     * fall back to a stale entry.
+     */
+    private <T> Mono<T> _fetchCached(String sessionId, CachedEndpoint endpoint, ObjectReader reader,
+                                     RequestPriority priority, boolean prefetch) {
+        SpotifyResponseCache.Entry cached;
+        if (prefetch) {
+            cached = responseCache.peek(sessionId, endpoint);
+        } else {
+            cached = responseCache.get(sessionId, endpoint);
+            if (cached != null && cached.isFresh()) {
+                responseCache.recordHit();
+                return Mono.just(cached.getValue());
+            }
+            responseCache.recordMiss();
         }
-        return null;
+
+        String etag = cached != null ? cached.getEtag() : null;
+        logger.debug("Endpoint da API do Spotify chamado: {}", endpoint.getPath());
+
+        Mono<T> fetched = coalescer.execute(sessionId, HttpMethod.GET, endpoint.getPath(), priority, () -> _validAccessToken(sessionId, !prefetch)
+                .flatMap(validAccessToken -> _hedged(prefetch, endpoint, () -> requestScheduler.submit(priority, () -> spotifyApiWebClient.get()
+                        .uri(endpoint.getPath())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + validAccessToken)
+                        .headers(headers -> {
+                            if (etag != null) {
+                                headers.setIfNoneMatch(etag);
+                            }
+                        })
+                        .exchangeToMono(response -> {
+                            if (response.statusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+                                // 304: nenhum corpo transferido e nada a reprocessar.
+                                responseCache.recordRevalidation(true);
+                                responseCache.renew(sessionId, endpoint, cached);
+                                return response.releaseBody().thenReturn(cached.<T>getValue());
+                            }
+                            if (response.statusCode().isError()) {
+                                return response.<T>createError();
+                            }
+                            if (etag != null) {
+                                responseCache.recordRevalidation(false);
+                            }
+                            String newEtag = response.headers().asHttpHeaders().getETag();
+                            return DataBufferUtils.join(response.body(BodyExtractors.toDataBuffers()), maxResponseBytes)
+                                    .map(responseBody -> {
+                                        int size = responseBody.readableByteCount();
+                                        T parsed = _parseResponse(responseBody, reader);
+                                        responseCache.put(sessionId, endpoint, parsed, newEtag, size);
+                                        return parsed;
+                                    });
+                        }))))
+                .onErrorMap(WebClientResponseException.class, this::_handleWebClientResponseException));
+
+        return latencyBudgets.apply(endpoint.getKey(), fetched)
+                .onErrorResume(SpotifyUpstreamUnavailableException.class, e -> {
+                    if (cached == null || prefetch) {
+                        return Mono.error(e);
+                    }
+                    // Spotify indisponível ou lento demais: uma resposta vencida é melhor que nenhuma.
+                    if (errorLog.tryAcquire()) {
+                        logger.warn("Servindo {} do cache vencido: {}", endpoint.getPath(), e.getMessage());
+                    }
+                    return Mono.just(cached.<T>getValue());
+                });
     }
 
-    public List<Map<String, Object>> getUserTopTracks() {
-        String validAccessToken = getValidAccessToken();
-        String endpoint = "https://api.spotify.com/v1/me/top/tracks";
-        logger.debug("Endpoint da API do Spotify chamado: {}", endpoint);
+    private <T> Mono<T> _hedged(boolean prefetch, CachedEndpoint endpoint, Supplier<Mono<T>> call) {
+        // Ninguém espera por um pré-carregamento: uma segunda tentativa só gastaria cota.
+        return prefetch ? call.get() : hedger.hedge(endpoint.getKey(), call);
+    }
 
-        try {
-            String responseBody = spotifyWebClient.get()
-                    .uri(endpoint)
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + validAccessToken) // Usando HttpHeaders.AUTHORIZATION
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+    private <T> Mono<T> _fetch(String sessionId, String uri, ObjectReader reader, RequestPriority priority) {
+        return _fetch(sessionId, uri, reader, priority, true);
+    }
 
-            logger.trace("Resposta (truncada) do Spotify: {}", responseBody.substring(0, Math.min(responseBody.length(), 200)));
+    private <T> Mono<T> _fetch(String sessionId, String uri, ObjectReader reader, RequestPriority priority, boolean touch) {
+        return latencyBudgets.apply("default", coalescer.execute(sessionId, HttpMethod.GET, uri, priority, () -> _validAccessToken(sessionId, touch)
+                .flatMap(validAccessToken -> requestScheduler.submit(priority, () -> spotifyApiWebClient.get()
+                        .uri(uri)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + validAccessToken)
+                        .retrieve()
+                        .bodyToMono(DataBuffer.class)))
+                .map(responseBody -> this.<T>_parseResponse(responseBody, reader))
+                .onErrorMap(WebClientResponseException.class, this::_handleWebClientResponseException)));
+    }
 
-            TypeReference<Map<String, Object>> typeRef = new TypeReference<>() {};
-            Map<String, Object> responseMap = _parseResponse(responseBody, typeRef);
+    /**
+     * Fetches and decodes an arbitrary API path with the session's token, through the same
+     * coalescing and scheduling as every other call.
+     */
+    public <T> Mono<T> fetch(String sessionId, String uri, ObjectReader reader, RequestPriority priority) {
+        return _fetch(sessionId, uri, reader, priority);
+    }
 
-            List<Map<String, Object>> tracks = (List<Map<String, Object>>) responseMap.get("items");
+    /**
+     * Like {@link #fetch}, on the background lane, for jobs that act without the user: the call does
+     * not count as use of the session, so it never keeps an abandoned session from going idle.
+     */
+    public <T> Mono<T> fetchInBackground(String sessionId, String uri, ObjectReader reader) {
+        return _fetch(sessionId, uri, reader, RequestPriority.BACKGROUND, false);
+    }
 
-            if (tracks == null) {
-                logger.warn("A resposta da API não continha a chave 'items'.");
-                return Collections.emptyList();
-            }
+    /**
+     * Fetches catalog data from a multi-ID endpoint such as {@code /v1/tracks} with the app-wide
+     * client-credentials token instead of a user's, so the result can be shared across users. The IDs
+     * go in as an encoded query parameter, never as part of a URI template. A token Spotify rejects
+     * before its expiry is dropped and the call retried once with a new one.
+     */
+    public <T> Mono<SizedResponse<T>> fetchAsApp(String path, Collection<String> ids, ObjectReader reader,
+                                                 RequestPriority priority) {
+        String joinedIds = String.join(",", ids);
+        String uri = path + "?ids=" + joinedIds;
+        Mono<SizedResponse<T>> attempt = Mono.defer(() -> appTokenManager.getAccessToken()
+                .flatMap(appAccessToken -> requestScheduler.submit(priority, () -> spotifyApiWebClient.get()
+                                .uri(builder -> builder.path(path).queryParam("ids", "{ids}").build(joinedIds))
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + appAccessToken)
+                                .retrieve()
+                                .bodyToMono(DataBuffer.class))
+                        .onErrorResume(WebClientResponseException.Unauthorized.class, e -> {
+                            appTokenManager.invalidate(appAccessToken);
+                            return Mono.error(e);
+                        }))
+                .map(responseBody -> {
+                    int size = responseBody.readableByteCount();
+                    return new SizedResponse<>(this.<T>_parseResponse(responseBody, reader), size);
+                }));
+        return latencyBudgets.apply("catalog", coalescer.execute(AppTokenManager.COALESCING_KEY, HttpMethod.GET, uri, priority,
+                () -> attempt
+                        .onErrorResume(WebClientResponseException.Unauthorized.class, e -> attempt)
+                        .onErrorMap(WebClientResponseException.class, this::_handleWebClientResponseException)));
+    }
 
-            return tracks;
+    /**
+     * Streams every item of a paging endpoint, such as {@code /v1/me/playlists}, following all pages.
+     */
+    public <T> Flux<T> streamAllPages(String sessionId, String path, ObjectReader pageReader) {
+        return streamAllPages(sessionId, path, pageReader, RequestPriority.INTERACTIVE);
+    }
 
-        } catch (WebClientResponseException e) {
-            logger.error("Erro na API do Spotify: Status: {}, Corpo: {}", e.getStatusCode(), e.getResponseBodyAsString(), e);
-            _handleWebClientResponseException(e);
-            return Collections.emptyList();
-        } catch (Exception e) {
-            logger.error("Erro interno ao processar top tracks: {}", e.getMessage(), e);
-            return Collections.emptyList();
+    public <T> Flux<T> streamAllPages(String sessionId, String path, ObjectReader pageReader, RequestPriority priority) {
+        return _streamAllPages(sessionId, path, pageReader, priority, true);
+    }
+
+    /**
+     * Like {@link #streamAllPages}, on the background lane and without counting as use of the session,
+     * for batch jobs that read many sessions at once.
+     */
+    public <T> Flux<T> streamAllPagesInBackground(String sessionId, String path, ObjectReader pageReader) {
+        return _streamAllPages(sessionId, path, pageReader, RequestPriority.BACKGROUND, false);
+    }
+
+    private <T> Flux<T> _streamAllPages(String sessionId, String path, ObjectReader pageReader,
+                                        RequestPriority priority, boolean touch) {
+        return pager.<T>fetchAll((offset, limit) -> _fetch(sessionId,
+                path + (path.contains("?") ? "&" : "?") + "offset=" + offset + "&limit=" + limit,
+                pageReader, priority, touch));
+    }
+
+    public Flux<Playlist> streamAllUserPlaylists(String sessionId) {
+        return streamAllPages(sessionId, CachedEndpoint.PLAYLISTS.getPath(), SpotifyJson.PLAYLIST_PAGE_READER);
+    }
+
+    public Flux<Track> streamAllUserTopTracks(String sessionId) {
+        return streamAllPages(sessionId, CachedEndpoint.TOP_TRACKS.getPath(), SpotifyJson.TRACK_PAGE_READER);
+    }
+
+    public Mono<Paging<Playlist>> getUserPlaylists(String sessionId) {
+        return _fetchCached(sessionId, CachedEndpoint.PLAYLISTS, SpotifyJson.PLAYLIST_PAGE_READER);
+    }
+
+    /**
+     * First page of the user's playlists, always checked with Spotify: the cached page is only used as
+     * the ETag of the request, so an unchanged listing costs a {@code 304} but is never older than the call.
+     * The session is touched as for any user request, which the prefetch path alone would not do.
+     */
+    public Mono<Paging<Playlist>> revalidateUserPlaylists(String sessionId) {
+        activityTracker.touch(sessionId);
+        return _validAccessToken(sessionId, true)
+                .then(Mono.defer(() -> _fetchCached(sessionId, CachedEndpoint.PLAYLISTS, SpotifyJson.PLAYLIST_PAGE_READER,
+                        RequestPriority.INTERACTIVE, true)));
+    }
+
+    public Mono<UserProfile> getUserProfile(String sessionId) {
+        return _fetchCached(sessionId, CachedEndpoint.PROFILE, SpotifyJson.USER_PROFILE_READER);
+    }
+
+    public Flux<Track> getUserTopTracks(String sessionId) {
+        return this.<Paging<Track>>_fetchCached(sessionId, CachedEndpoint.TOP_TRACKS, SpotifyJson.TRACK_PAGE_READER)
+                .flatMapMany(page -> {
+                    if (page.getItems() == null) {
+                        logger.warn("A resposta da API não continha a chave 'items'.");
+                        return Flux.empty();
+                    }
+                    return Flux.fromIterable(page.getItems());
+                });
+    }
+
+    public Mono<String> getValidAccessToken(String sessionId) {
+        return _validAccessToken(sessionId, true);
+    }
+
+    /**
+     * With {@code touch} false the read goes through {@link TokenStore#peek}, for calls the user did not make.
+     */
+    private Mono<String> _validAccessToken(String sessionId, boolean touch) {
+        if (tokenStore.isBlocking()) {
+            // Uma falta no near cache consulta o banco: fora da thread chamadora, que costuma ser a event loop.
+            return Mono.fromCallable(() -> _read(sessionId, touch))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .switchIfEmpty(Mono.error(SpotifySessionExpiredException.EXPIRED))
+                    .flatMap(token -> _accessToken(sessionId, token));
         }
+        return _accessToken(sessionId, _read(sessionId, touch));
+    }
+
+    private SpotifyToken _read(String sessionId, boolean touch) {
+        return touch ? tokenStore.get(sessionId) : tokenStore.peek(sessionId);
     }
 
-    public String getValidAccessToken() {
-        if (isTokenExpired()) {
-            refreshAccessToken(refreshToken);
+    private Mono<String> _accessToken(String sessionId, SpotifyToken token) {
+        if (token == null) {
+            return Mono.error(SpotifySessionExpiredException.EXPIRED);
+        }
+        if (token.isExpired()) {
+            return tokenRefresher.refresh(sessionId).map(SpotifyToken::accessToken);
         }
-        return accessToken;
+        metrics.recordTimeToExpiry(Duration.between(Instant.now(), token.expiresAt()));
+        return Mono.just(token.accessToken());
     }
 
     public String generateSpotifyAuthUrl() {
-        String codeVerifier = pkceUtil.generateCodeVerifier();
-        String codeChallenge = pkceUtil.generateCodeChallenge(codeVerifier);
+        PkcePair pair = pkcePool.take();
+        String state = stateStore.issue(pair.codeVerifier());
 
-        return "https://accounts.spotify.com/authorize" +
+        return accountsBaseUrl + "/authorize" +
                 "?client_id=" + clientId +
                 "&response_type=code" +
                 "&redirect_uri=" + redirectUri +
-                "&code_challenge=" + codeChallenge +
+                "&code_challenge=" + pair.codeChallenge() +
                 "&code_challenge_method=S256" +
-                "&scope=user-read-private user-read-email playlist-read-private playlist-modify-public user-top-read" +
-                "&state=" + codeVerifier;
-    }
-
-    public String refreshAccessToken(String refreshToken) throws SpotifyAuthException {
-        try {
-            String responseBody = spotifyWebClient.post()
-                    .uri("https://accounts.spotify.com/api/token")
-                    .header("Content-Type", "application/x-www-form-urlencoded")
-                    .bodyValue(
-                            "grant_type=refresh_token&" +
-                                    "refresh_token=" + refreshToken + "&" +
-                                    "client_id=" + clientId + "&" +
-                                    "client_secret=" + clientSecret
-                    )
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            ObjectMapper objectMapper = new ObjectMapper();
-            Map<String, String> response = objectMapper.readValue(responseBody, new TypeReference<>() {});
-
-            if (response.containsKey("access_token")) {
-                accessToken = response.get("access_token");
-                int expiresIn = Integer.parseInt(response.get("expires_in"));
-                tokenExpirationTime = Instant.now().plusSeconds(expiresIn);
-
-                return accessToken;
-            } else {
-                throw new SpotifyAuthException("Failed to refresh access token: access_token not found.");
-            }
-        } catch (WebClientResponseException e) {
-            throw new SpotifyAuthException("Failed to refresh token: " + e.getResponseBodyAsString(), e);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to parse response while refreshing token.", e);
-        }
+                "&scope=user-read-private user-read-email playlist-read-private playlist-modify-public user-top-read user-read-recently-played" +
+                "&state=" + state;
     }
 
-    @Scheduled(fixedDelay = 300000)
-    public void autoRefreshAccessToken() {
-        if (isTokenExpired() && refreshToken != null) {
-            try {
-                refreshAccessToken(refreshToken);
-            } catch (SpotifyAuthException e) {
-                logger.error("Failed to refresh access token: {}", e.getMessage());
-            }
-        } else {
-            logger.debug("Token is still valid, no refresh needed.");
-        }
+    public Mono<String> refreshSessionToken(String sessionId) {
+        return tokenRefresher.refresh(sessionId).map(SpotifyToken::accessToken);
     }
 }
\ No newline at end of file
@@ -0,0 +1,233 @@
+package com.spotify.integration.service;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.spotify.integration.cache.CatalogCache;
+import com.spotify.integration.client.RequestPriority;
+import com.spotify.integration.config.SpotifyJson;
+import com.spotify.integration.dto.Album;
+import com.spotify.integration.dto.AlbumList;
+import com.spotify.integration.dto.Artist;
+import com.spotify.integration.dto.ArtistList;
+import com.spotify.integration.dto.Track;
+import com.spotify.integration.dto.TrackList;
+import com.spotify.integration.exception.SpotifyInvalidIdException;
+import com.spotify.integration.metrics.SampledErrorLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Turns single-ID track, artist and album lookups from any caller into Spotify's multi-ID requests.
+ * Lookups are held for a short window, or until a batch fills, then sent as one
+ * {@code /v1/tracks?ids=}, {@code /v1/artists?ids=} or {@code /v1/albums?ids=} call whose results are
+ * fanned back out. IDs requested concurrently are deduplicated within a batch.
+ * <p>
+ * Only well-formed Spotify IDs enter a batch: anything else fails with {@link SpotifyInvalidIdException}
+ * at once, so one bad ID cannot make Spotify reject the lookups batched with it.
+ * <p>
+ * Batches are sent with the app token, so results do not belong to any user and are kept in the
+ * shared {@link CatalogCache}: a popular track is fetched once for everyone.
+ */
+@Service
+public class SpotifyBatchLookupService {
+
+    private final static Logger logger = LoggerFactory.getLogger(SpotifyBatchLookupService.class);
+
+    // Limite de IDs por chamada dos endpoints de múltiplos IDs do Spotify.
+    private static final int MAX_BATCH_SIZE = 50;
+    private static final int MAX_ALBUM_BATCH_SIZE = 20;
+    private static final int ID_LENGTH = 22;
+
+    private final SpotifyAuthService spotifyAuthService;
+    private final CatalogCache catalogCache;
+    private final SampledErrorLog errorLog;
+    private final long windowNanos;
+
+    private final Batcher<Track> tracks;
+    private final Batcher<Artist> artists;
+    private final Batcher<Album> albums;
+
+    public SpotifyBatchLookupService(SpotifyAuthService spotifyAuthService,
+                                     CatalogCache catalogCache,
+                                     SampledErrorLog errorLog,
+                                     @Value("${spotify.batch.window:PT0.02S}") Duration window,
+                                     @Value("${spotify.batch.max-size:50}") int maxBatchSize) {
+        this.spotifyAuthService = spotifyAuthService;
+        this.catalogCache = catalogCache;
+        this.errorLog = errorLog;
+        this.windowNanos = window.toNanos();
+        this.tracks = new Batcher<>("track", "/v1/tracks", Math.min(maxBatchSize, MAX_BATCH_SIZE),
+                SpotifyJson.TRACK_LIST_READER, response -> ((TrackList) response).getTracks(), Track::getId);
+        this.artists = new Batcher<>("artist", "/v1/artists", Math.min(maxBatchSize, MAX_BATCH_SIZE),
+                SpotifyJson.ARTIST_LIST_READER, response -> ((ArtistList) response).getArtists(), Artist::getId);
+        this.albums = new Batcher<>("album", "/v1/albums", Math.min(maxBatchSize, MAX_ALBUM_BATCH_SIZE),
+                SpotifyJson.ALBUM_LIST_READER, response -> ((AlbumList) response).getAlbums(), Album::getId);
+    }
+
+    /**
+     * Completes empty when Spotify does not know the ID.
+     */
+    public Mono<Track> getTrack(String trackId) {
+        return tracks.lookup(trackId);
+    }
+
+    /**
+     * Completes empty when Spotify does not know the ID.
+     */
+    public Mono<Artist> getArtist(String artistId) {
+        return artists.lookup(artistId);
+    }
+
+    /**
+     * Completes empty when Spotify does not know the ID.
+     */
+    public Mono<Album> getAlbum(String albumId) {
+        return albums.lookup(albumId);
+    }
+
+    /**
+     * Whether the value is 22 base62 characters, the form of every Spotify track, artist and album ID.
+     */
+    static boolean isSpotifyId(String id) {
+        if (id == null || id.length() != ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < ID_LENGTH; i++) {
+            char c = id.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final class Batcher<T> {
+
+        private final String type;
+        private final String path;
+        private final int maxBatchSize;
+        private final ObjectReader reader;
+        private final Function<Object, List<T>> extractor;
+        private final Function<T, String> idOf;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private Map<String, List<MonoSink<T>>> pending = new LinkedHashMap<>();
+        private long generation;
+
+        Batcher(String type, String path, int maxBatchSize, ObjectReader reader,
+                Function<Object, List<T>> extractor, Function<T, String> idOf) {
+            this.type = type;
+            this.path = path;
+            this.maxBatchSize = maxBatchSize;
+            this.reader = reader;
+            this.extractor = extractor;
+            this.idOf = idOf;
+        }
+
+        Mono<T> lookup(String id) {
+            if (!isSpotifyId(id)) {
+                return Mono.error(SpotifyInvalidIdException.INSTANCE);
+            }
+            return Mono.defer(() -> {
+                T cached = catalogCache.get(type, id);
+                return cached != null ? Mono.just(cached) : _enqueue(id);
+            });
+        }
+
+        private Mono<T> _enqueue(String id) {
+            return Mono.create(sink -> {
+                Batch<T> ready = null;
+                lock.lock();
+                try {
+                    if (pending.isEmpty()) {
+                        long scheduledGeneration = generation;
+                        Schedulers.parallel().schedule(() -> _flushOnTimer(scheduledGeneration), windowNanos, TimeUnit.NANOSECONDS);
+                    }
+                    pending.computeIfAbsent(id, key -> new ArrayList<>(1)).add(sink);
+                    if (pending.size() >= maxBatchSize) {
+                        ready = _take();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (ready != null) {
+                    _send(ready);
+                }
+            });
+        }
+
+        private void _flushOnTimer(long scheduledGeneration) {
+            Batch<T> ready = null;
+            lock.lock();
+            try {
+                // O lote deste timer já pode ter sido enviado por ter enchido.
+                if (generation == scheduledGeneration && !pending.isEmpty()) {
+                    ready = _take();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (ready != null) {
+                _send(ready);
+            }
+        }
+
+        private Batch<T> _take() {
+            Batch<T> batch = new Batch<>(pending);
+            pending = new LinkedHashMap<>();
+            generation++;
+            return batch;
+        }
+
+        private void _send(Batch<T> batch) {
+            spotifyAuthService.<Object>fetchAsApp(path, batch.waiters.keySet(), reader, RequestPriority.INTERACTIVE)
+                    .subscribe(response -> {
+                        Map<String, T> byId = new HashMap<>();
+                        List<T> results = extractor.apply(response.value());
+                        if (results != null) {
+                            for (T result : results) {
+                                // IDs desconhecidos voltam como null na posição correspondente.
+                                if (result != null) {
+                                    byId.put(idOf.apply(result), result);
+                                }
+                            }
+                        }
+                        // Peso estimado de cada entidade: sua parte do corpo da resposta.
+                        int weightBytes = response.bytes() / Math.max(1, byId.size());
+                        byId.forEach((id, result) -> catalogCache.put(type, id, result, weightBytes));
+                        batch.waiters.forEach((id, sinks) -> {
+                            T result = byId.get(id);
+                            for (MonoSink<T> sink : sinks) {
+                                if (result != null) {
+                                    sink.success(result);
+                                } else {
+                                    sink.success();
+                                }
+                            }
+                        });
+                    }, error -> {
+                        if (errorLog.tryAcquire()) {
+                            logger.warn("Falha na consulta em lote {} ({} IDs): {}", path, batch.waiters.size(), error.getMessage());
+                        }
+                        batch.waiters.values().forEach(sinks -> sinks.forEach(sink -> sink.error(error)));
+                    });
+        }
+    }
+
+    private record Batch<T>(Map<String, List<MonoSink<T>>> waiters) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.spotify.integration.service;
+
+import com.spotify.integration.dto.Paging;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.BiFunction;
+
+/**
+ * Streams every item of a Spotify paging endpoint. The first page is fetched alone to learn
+ * {@code total}; the remaining offsets are then fetched concurrently, up to the configured
+ * parallelism, and emitted in order. Only {@code parallelism} pages are buffered at any time.
+ */
+@Component
+public class SpotifyPager {
+
+    private final int pageSize;
+    private final int parallelism;
+
+    public SpotifyPager(@Value("${spotify.paging.page-size:50}") int pageSize,
+                        @Value("${spotify.paging.parallelism:4}") int parallelism) {
+        this.pageSize = pageSize;
+        this.parallelism = parallelism;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @param pageFetcher fetches the page at the given {@code (offset, limit)}
+     */
+    public <T> Flux<T> fetchAll(BiFunction<Integer, Integer, Mono<Paging<T>>> pageFetcher) {
+        return pageFetcher.apply(0, pageSize)
+                .flatMapMany(first -> {
+                    Flux<T> firstItems = _items(first);
+                    if (first.getNext() == null || first.getTotal() <= pageSize) {
+                        return firstItems;
+                    }
+
+                    int pages = (first.getTotal() + pageSize - 1) / pageSize;
+                    Flux<T> remaining = Flux.range(1, pages - 1)
+                            .flatMapSequential(page -> pageFetcher.apply(page * pageSize, pageSize), parallelism, 1)
+                            .concatMap(this::_items);
+                    return firstItems.concatWith(remaining);
+                });
+    }
+
+    private <T> Flux<T> _items(Paging<T> page) {
+        return page.getItems() != null ? Flux.fromIterable(page.getItems()) : Flux.empty();
+    }
+}
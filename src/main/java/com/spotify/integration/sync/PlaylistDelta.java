@@ -0,0 +1,23 @@
+package com.spotify.integration.sync;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Change of one playlist since the previous sync. For a new playlist every track is in {@code added};
+ * for a deleted or unfollowed one every previously indexed track is in {@code removed}.
+ */
+public record PlaylistDelta(@JsonProperty("playlist_id") String playlistId,
+                            @JsonProperty("name") String name,
+                            @JsonProperty("snapshot_id") String snapshotId,
+                            @JsonProperty("change") Change change,
+                            @JsonProperty("added") List<String> added,
+                            @JsonProperty("removed") List<String> removed) {
+
+    public enum Change {
+        ADDED,
+        CHANGED,
+        REMOVED
+    }
+}
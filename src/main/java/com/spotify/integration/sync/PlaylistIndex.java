@@ -0,0 +1,75 @@
+package com.spotify.integration.sync;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of a user's library as of the last sync: for each playlist, the
+ * {@code snapshot_id} it was read at and its distinct track ids in playlist order.
+ */
+final class PlaylistIndex {
+
+    static final PlaylistIndex EMPTY = new PlaylistIndex(Map.of(), 0);
+
+    private final Map<String, Entry> playlists;
+    private final long syncedAt;
+
+    PlaylistIndex(Map<String, Entry> playlists, long syncedAt) {
+        this.playlists = playlists;
+        this.syncedAt = syncedAt;
+    }
+
+    Entry get(String playlistId) {
+        return playlists.get(playlistId);
+    }
+
+    Map<String, Entry> playlists() {
+        return playlists;
+    }
+
+    long syncedAt() {
+        return syncedAt;
+    }
+
+    /**
+     * Changes from {@code before} to {@code after}; either may be null for a playlist that appeared or
+     * disappeared. Returns null when the track list is the same.
+     */
+    static PlaylistDelta delta(String playlistId, Entry before, Entry after) {
+        if (after == null) {
+            return new PlaylistDelta(playlistId, before.name(), before.snapshotId(), PlaylistDelta.Change.REMOVED,
+                    List.of(), List.of(before.trackIds()));
+        }
+        if (before == null) {
+            return new PlaylistDelta(playlistId, after.name(), after.snapshotId(), PlaylistDelta.Change.ADDED,
+                    List.of(after.trackIds()), List.of());
+        }
+        if (Arrays.equals(before.trackIds(), after.trackIds())) {
+            return null;
+        }
+
+        Set<String> previous = new HashSet<>(Arrays.asList(before.trackIds()));
+        Set<String> current = new HashSet<>(Arrays.asList(after.trackIds()));
+        List<String> added = new ArrayList<>();
+        for (String trackId : after.trackIds()) {
+            if (!previous.contains(trackId)) {
+                added.add(trackId);
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String trackId : before.trackIds()) {
+            if (!current.contains(trackId)) {
+                removed.add(trackId);
+            }
+        }
+        // Se as faixas só foram reordenadas, added e removed saem vazios, mas a mudança é reportada.
+        return new PlaylistDelta(playlistId, after.name(), after.snapshotId(), PlaylistDelta.Change.CHANGED, added, removed);
+    }
+
+    record Entry(String name, String snapshotId, String[] trackIds) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.spotify.integration.sync;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Outcome of a sync: how many playlists the user has, how many were skipped because their
+ * {@code snapshot_id} did not change, how many had their tracks refetched, and the resulting changes.
+ */
+public record PlaylistSyncResult(@JsonProperty("playlists") int playlists,
+                                 @JsonProperty("unchanged") int unchanged,
+                                 @JsonProperty("refetched") int refetched,
+                                 @JsonProperty("changes") List<PlaylistDelta> changes) {
+}
@@ -0,0 +1,177 @@
+package com.spotify.integration.sync;
+
+import com.spotify.integration.cache.CachedEndpoint;
+import com.spotify.integration.client.RequestPriority;
+import com.spotify.integration.config.SpotifyJson;
+import com.spotify.integration.dto.Paging;
+import com.spotify.integration.dto.Playlist;
+import com.spotify.integration.dto.PlaylistItem;
+import com.spotify.integration.dto.Track;
+import com.spotify.integration.exception.SpotifyResourceNotFoundException;
+import com.spotify.integration.service.SpotifyAuthService;
+import com.spotify.integration.service.SpotifyPager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps, per session, an index of playlist id to {@code snapshot_id} and track ids, and brings it up
+ * to date by listing the user's playlists and refetching tracks only for playlists whose snapshot
+ * changed. For a typical library this turns a full refresh into the playlist listing plus a few
+ * track fetches.
+ */
+@Service
+public class PlaylistSyncService {
+
+    private final static Logger logger = LoggerFactory.getLogger(PlaylistSyncService.class);
+
+    // Só o necessário para o diff: o payload completo de cada faixa é muito maior.
+    private static final String ITEM_FIELDS = "total,next,items(track(id,uri))";
+
+    private final SpotifyAuthService spotifyAuthService;
+    private final SpotifyPager pager;
+    private final int concurrency;
+    private final long idleTimeoutNanos;
+
+    private final ConcurrentHashMap<String, PlaylistIndex> indexes = new ConcurrentHashMap<>();
+
+    public PlaylistSyncService(SpotifyAuthService spotifyAuthService,
+                               SpotifyPager pager,
+                               @Value("${spotify.playlist-sync.concurrency:4}") int concurrency,
+                               @Value("${spotify.playlist-sync.idle-timeout:PT12H}") Duration idleTimeout) {
+        this.spotifyAuthService = spotifyAuthService;
+        this.pager = pager;
+        this.concurrency = concurrency;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    public Mono<PlaylistSyncResult> sync(String sessionId) {
+        return _listPlaylists(sessionId)
+                .collectList()
+                .flatMap(playlists -> {
+                    PlaylistIndex previous = indexes.getOrDefault(sessionId, PlaylistIndex.EMPTY);
+                    Map<String, PlaylistIndex.Entry> next = new HashMap<>();
+                    List<Playlist> stale = new ArrayList<>();
+                    for (Playlist playlist : playlists) {
+                        if (playlist.getId() == null) {
+                            continue;
+                        }
+                        PlaylistIndex.Entry known = previous.get(playlist.getId());
+                        if (known != null && playlist.getSnapshotId() != null
+                                && playlist.getSnapshotId().equals(known.snapshotId())) {
+                            // Snapshot igual: faixas iguais. Só o nome pode ter mudado.
+                            next.put(playlist.getId(), new PlaylistIndex.Entry(playlist.getName(), known.snapshotId(), known.trackIds()));
+                        } else {
+                            stale.add(playlist);
+                        }
+                    }
+                    int unchanged = next.size();
+
+                    return Flux.fromIterable(stale)
+                            .flatMap(playlist -> _fetchTrackIds(sessionId, playlist.getId())
+                                    .map(trackIds -> Map.entry(playlist.getId(),
+                                            new PlaylistIndex.Entry(playlist.getName(), playlist.getSnapshotId(), trackIds)))
+                                    // Apagada entre a listagem e a busca das faixas: fica fora do índice.
+                                    .onErrorResume(SpotifyResourceNotFoundException.class, e -> Mono.empty()), concurrency)
+                            // Após o flatMap os sinais são serializados: o HashMap não é acessado em paralelo.
+                            .doOnNext(fetched -> next.put(fetched.getKey(), fetched.getValue()))
+                            .then(Mono.fromSupplier(() -> {
+                                List<PlaylistDelta> changes = new ArrayList<>();
+                                for (Playlist playlist : stale) {
+                                    PlaylistIndex.Entry current = next.get(playlist.getId());
+                                    if (current == null) {
+                                        continue;
+                                    }
+                                    PlaylistDelta delta = PlaylistIndex.delta(playlist.getId(), previous.get(playlist.getId()), current);
+                                    if (delta != null) {
+                                        changes.add(delta);
+                                    }
+                                }
+                                previous.playlists().forEach((playlistId, entry) -> {
+                                    if (!next.containsKey(playlistId)) {
+                                        changes.add(PlaylistIndex.delta(playlistId, entry, null));
+                                    }
+                                });
+                                indexes.put(sessionId, new PlaylistIndex(Map.copyOf(next), System.nanoTime()));
+                                logger.debug("Sync de playlists da sessão {}: {} inalteradas, {} recarregadas, {} mudanças.",
+                                        sessionId, unchanged, stale.size(), changes.size());
+                                return new PlaylistSyncResult(playlists.size(), unchanged, stale.size(), changes);
+                            }));
+                });
+    }
+
+    /**
+     * Track ids of a playlist as of the last sync, or null if it was never synced for this session.
+     */
+    public List<String> getIndexedTrackIds(String sessionId, String playlistId) {
+        PlaylistIndex index = indexes.get(sessionId);
+        PlaylistIndex.Entry entry = index != null ? index.get(playlistId) : null;
+        return entry != null ? List.of(entry.trackIds()) : null;
+    }
+
+    public int getIndexedSessions() {
+        return indexes.size();
+    }
+
+    @Scheduled(fixedDelayString = "${spotify.playlist-sync.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        indexes.values().removeIf(index -> now - index.syncedAt() > idleTimeoutNanos);
+    }
+
+    /**
+     * Every playlist of the user. The first page is always revalidated with Spotify using the cached
+     * page's ETag, so a fresh cache entry cannot hide new snapshot ids and an unchanged listing costs a
+     * {@code 304} instead of a download. The remaining pages go on the background lane, like the track
+     * refetches they lead to.
+     */
+    private Flux<Playlist> _listPlaylists(String sessionId) {
+        return spotifyAuthService.revalidateUserPlaylists(sessionId)
+                .flatMapMany(first -> {
+                    List<Playlist> firstItems = first.getItems() != null ? first.getItems() : List.of();
+                    int fetched = firstItems.size();
+                    if (first.getNext() == null || fetched == 0 || fetched >= first.getTotal()) {
+                        return Flux.fromIterable(firstItems);
+                    }
+
+                    int pageSize = pager.getPageSize();
+                    int pages = (first.getTotal() - fetched + pageSize - 1) / pageSize;
+                    Flux<Playlist> remaining = Flux.range(0, pages)
+                            .flatMapSequential(page -> spotifyAuthService.<Paging<Playlist>>fetch(sessionId,
+                                    CachedEndpoint.PLAYLISTS.getPath() + "?offset=" + (fetched + page * pageSize) + "&limit=" + pageSize,
+                                    SpotifyJson.PLAYLIST_PAGE_READER, RequestPriority.BACKGROUND), concurrency, 1)
+                            .concatMap(page -> page.getItems() != null ? Flux.fromIterable(page.getItems()) : Flux.empty());
+                    return Flux.fromIterable(firstItems).concatWith(remaining);
+                });
+    }
+
+    private Mono<String[]> _fetchTrackIds(String sessionId, String playlistId) {
+        return spotifyAuthService.<PlaylistItem>streamAllPages(sessionId,
+                        "/v1/playlists/" + playlistId + "/tracks?fields=" + ITEM_FIELDS,
+                        SpotifyJson.PLAYLIST_ITEM_PAGE_READER, RequestPriority.BACKGROUND)
+                .collect(LinkedHashSet<String>::new, (trackIds, item) -> {
+                    Track track = item.getTrack();
+                    if (track != null) {
+                        // Arquivos locais não têm id; a URI os identifica.
+                        String trackId = track.getId() != null ? track.getId() : track.getUri();
+                        if (trackId != null) {
+                            trackIds.add(trackId);
+                        }
+                    }
+                })
+                .map((Set<String> trackIds) -> trackIds.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,142 @@
+package com.spotify.integration.token;
+
+import com.spotify.integration.service.SpotifyAccountsClient;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the single app-wide token obtained with the client-credentials grant, used for catalog data
+ * that does not depend on a user. The token is fetched on first use and then refreshed
+ * {@code spotify.app-token.skew} before it expires, so callers normally never wait for it. Concurrent
+ * fetches are collapsed into one call to the accounts service.
+ */
+@Component
+public class AppTokenManager {
+
+    private final static Logger logger = LoggerFactory.getLogger(AppTokenManager.class);
+
+    /**
+     * Stands in for a session id where app-token calls share per-session machinery, such as request
+     * coalescing. Session ids are UUIDs, so it never collides with one.
+     */
+    public static final String COALESCING_KEY = "app";
+
+    private final SpotifyAccountsClient accountsClient;
+    private final long skewMillis;
+    private final long retryDelayMillis;
+
+    private final AtomicReference<CompletableFuture<SpotifyToken>> inFlight = new AtomicReference<>();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private volatile SpotifyToken token;
+    private volatile Disposable scheduledRefresh;
+    private volatile boolean stopped;
+
+    public AppTokenManager(SpotifyAccountsClient accountsClient,
+                           @Value("${spotify.app-token.skew:PT5M}") Duration skew,
+                           @Value("${spotify.app-token.retry-delay:PT10S}") Duration retryDelay) {
+        this.accountsClient = accountsClient;
+        this.skewMillis = skew.toMillis();
+        this.retryDelayMillis = retryDelay.toMillis();
+    }
+
+    @PreDestroy
+    void stop() {
+        stopped = true;
+        Disposable scheduled = scheduledRefresh;
+        if (scheduled != null) {
+            scheduled.dispose();
+        }
+    }
+
+    public Mono<String> getAccessToken() {
+        SpotifyToken current = token;
+        if (current != null && !current.isExpired()) {
+            return Mono.just(current.accessToken());
+        }
+        return refresh().map(SpotifyToken::accessToken);
+    }
+
+    /**
+     * Drops the token if it is still the current one, after Spotify rejected it before its expiry.
+     */
+    public void invalidate(String accessToken) {
+        SpotifyToken current = token;
+        if (current != null && current.accessToken().equals(accessToken)) {
+            token = null;
+        }
+    }
+
+    /**
+     * Fetches a new app token, joining a fetch already in flight.
+     */
+    public Mono<SpotifyToken> refresh() {
+        return Mono.defer(() -> {
+            CompletableFuture<SpotifyToken> mine = new CompletableFuture<>();
+            CompletableFuture<SpotifyToken> existing = inFlight.compareAndExchange(null, mine);
+            if (existing != null) {
+                return _await(existing);
+            }
+
+            accountsClient.requestClientCredentialsToken()
+                    .map(response -> new SpotifyToken(response.getAccessToken(), null,
+                            Instant.now().plusSeconds(response.getExpiresIn())))
+                    .doFinally(signal -> inFlight.compareAndSet(mine, null))
+                    .subscribe(fresh -> {
+                        token = fresh;
+                        refreshes.increment();
+                        _scheduleIn(fresh.expiresAt().toEpochMilli() - System.currentTimeMillis() - skewMillis);
+                        mine.complete(fresh);
+                    }, error -> {
+                        failures.increment();
+                        logger.warn("Falha ao obter o token da aplicação: {}", error.getMessage());
+                        // Só insiste em segundo plano depois de um primeiro token: credenciais erradas não viram um loop.
+                        if (refreshes.sum() > 0) {
+                            _scheduleIn(retryDelayMillis);
+                        }
+                        mine.completeExceptionally(error);
+                    });
+            return _await(mine);
+        });
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    private void _scheduleIn(long delayMillis) {
+        if (stopped) {
+            return;
+        }
+        Disposable previous = scheduledRefresh;
+        if (previous != null) {
+            previous.dispose();
+        }
+        scheduledRefresh = Schedulers.parallel().schedule(
+                () -> refresh().subscribe(fresh -> { }, error -> { }),
+                Math.max(delayMillis, 1000), TimeUnit.MILLISECONDS);
+    }
+
+    private Mono<SpotifyToken> _await(CompletableFuture<SpotifyToken> future) {
+        // Como no TokenRefresher: cancelar a assinatura não cancela a busca compartilhada.
+        return Mono.fromFuture(future.thenApply(fresh -> fresh));
+    }
+}
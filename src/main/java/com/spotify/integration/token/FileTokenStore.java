@@ -0,0 +1,422 @@
+package com.spotify.integration.token;
+
+import com.spotify.integration.metrics.SampledErrorLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable {@link TokenStore}: reads and writes are served by an {@link InMemoryTokenStore}, and every
+ * change is appended to a log file by a background writer, so request latency never waits on disk.
+ * <p>
+ * Changes to the same session between two flushes are collapsed into one record. Token material is
+ * encrypted with AES-GCM, bound to the session id. When the log holds far more records than live
+ * sessions it is rewritten as a snapshot. On startup the log is replayed into memory; a torn record
+ * at the tail, left by a crash mid-write, is discarded. A flush that fails is rolled back to the end of
+ * the last good one and its changes stay pending for the next attempt.
+ */
+@Component
+@ConditionalOnProperty(name = "spotify.token-store.type", havingValue = "file")
+public class FileTokenStore implements TokenStore {
+
+    private final static Logger logger = LoggerFactory.getLogger(FileTokenStore.class);
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int MAX_RECORD_LENGTH = 1 << 20;
+    private static final Object TOMBSTONE = new Object();
+
+    private final InMemoryTokenStore delegate;
+    private final Path path;
+    private final TokenCipher cipher;
+    private final ThreadFactory backgroundThreadFactory;
+    private final SampledErrorLog errorLog;
+    private final long flushIntervalNanos;
+    private final boolean fsync;
+    private final int compactionMinRecords;
+
+    // Última versão pendente de cada sessão alterada desde o último flush (token ou TOMBSTONE).
+    private final ConcurrentHashMap<String, Object> pendingWrites = new ConcurrentHashMap<>();
+
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream(512);
+    private final CRC32C crc = new CRC32C();
+
+    private FileChannel channel;
+    private DataOutputStream out;
+    // Fim do último flush bem-sucedido: tudo além disso pode ser um registro pela metade.
+    private long validLength;
+    private boolean torn;
+    private long recordsInLog;
+    private Thread writer;
+    private volatile boolean running = true;
+
+    public FileTokenStore(ThreadFactory backgroundThreadFactory,
+                          SampledErrorLog errorLog,
+                          @Value("${spotify.token-store.max-sessions:100000}") int maxSessions,
+                          @Value("${spotify.token-store.idle-timeout:PT12H}") Duration idleTimeout,
+                          @Value("${spotify.token-store.file.path:data/tokens.log}") Path path,
+                          @Value("${spotify.token-store.file.encryption-key}") String encryptionKey,
+                          @Value("${spotify.token-store.file.flush-interval:PT0.2S}") Duration flushInterval,
+                          @Value("${spotify.token-store.file.fsync:false}") boolean fsync,
+                          @Value("${spotify.token-store.file.compaction-min-records:100000}") int compactionMinRecords) {
+        // Sessões despejadas da memória também saem do log; sem isso voltariam no próximo restart.
+        this.delegate = new InMemoryTokenStore(maxSessions, idleTimeout, sessionId -> pendingWrites.put(sessionId, TOMBSTONE));
+        this.path = path;
+        this.cipher = new TokenCipher(encryptionKey, "spotify.token-store.file.encryption-key");
+        this.backgroundThreadFactory = backgroundThreadFactory;
+        this.errorLog = errorLog;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.fsync = fsync;
+        this.compactionMinRecords = compactionMinRecords;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        long start = System.nanoTime();
+        _openForAppend(_replay());
+        logger.info("{} sessões carregadas de {} em {} ms.", delegate.size(), path,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        writer = backgroundThreadFactory.newThread(this::_writeLoop);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        // Sem interrupt: interromper uma thread em I/O de FileChannel fecha o canal.
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join();
+        // Grava o que ficou pendente entre o último ciclo do writer e o desligamento.
+        _flush();
+        out.close();
+    }
+
+    @Override
+    public SpotifyToken get(String sessionId) {
+        return delegate.get(sessionId);
+    }
+
+    @Override
+    public SpotifyToken peek(String sessionId) {
+        return delegate.peek(sessionId);
+    }
+
+    @Override
+    public void save(String sessionId, SpotifyToken token) {
+        delegate.save(sessionId, token);
+        pendingWrites.put(sessionId, token);
+    }
+
+    @Override
+    public SpotifyToken update(String sessionId, UnaryOperator<SpotifyToken> updater) {
+        // Registrado dentro da atualização atômica, para que a ordem no log siga a ordem no store.
+        return delegate.update(sessionId, current -> {
+            SpotifyToken next = updater.apply(current);
+            if (next != current) {
+                pendingWrites.put(sessionId, next);
+            }
+            return next;
+        });
+    }
+
+    @Override
+    public void remove(String sessionId) {
+        delegate.remove(sessionId);
+        pendingWrites.put(sessionId, TOMBSTONE);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, SpotifyToken> action) {
+        delegate.forEach(action);
+    }
+
+    public int getPendingWrites() {
+        return pendingWrites.size();
+    }
+
+    /**
+     * Sessions evicted from memory get a remove record, like explicitly removed ones.
+     */
+    @Scheduled(fixedDelayString = "${spotify.token-store.eviction-interval-ms:60000}")
+    public void evictIdleSessions() {
+        delegate.evictIdleSessions();
+    }
+
+    private void _writeLoop() {
+        while (running) {
+            LockSupport.parkNanos(flushIntervalNanos);
+            try {
+                _flush();
+                if (recordsInLog > Math.max(compactionMinRecords, 2L * delegate.size())) {
+                    _compact();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Qualquer falha é tentada de novo no próximo ciclo: a thread do writer não pode morrer.
+                if (errorLog.tryAcquire()) {
+                    logger.error("Falha ao gravar o log de tokens em {}: {}", path, e.toString());
+                }
+            }
+        }
+    }
+
+    private synchronized void _flush() throws IOException {
+        if (torn) {
+            _rollBack();
+        }
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, Object>> written = new ArrayList<>(pendingWrites.size());
+        long bytes = 0;
+        try {
+            for (Map.Entry<String, Object> entry : pendingWrites.entrySet()) {
+                Object value = entry.getValue();
+                bytes += _writeRecord(out, entry.getKey(), value == TOMBSTONE ? null : (SpotifyToken) value);
+                written.add(Map.entry(entry.getKey(), value));
+            }
+            out.flush();
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException | RuntimeException e) {
+            torn = true;
+            try {
+                _rollBack();
+            } catch (IOException rollBackFailure) {
+                e.addSuppressed(rollBackFailure);
+            }
+            throw e;
+        }
+        validLength += bytes;
+        recordsInLog += written.size();
+        for (Map.Entry<String, Object> entry : written) {
+            // Se a sessão mudou enquanto era gravada, a nova versão fica para o próximo flush.
+            pendingWrites.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Cuts the log back to the end of the last good flush and drops whatever is still buffered, so a
+     * failed flush never leaves a torn record in the middle of the log, where replay would stop.
+     */
+    private void _rollBack() throws IOException {
+        channel.truncate(validLength);
+        channel.position(validLength);
+        // Sem fechar o buffer antigo: isso fecharia o canal, que continua em uso.
+        out = _bufferedStream(channel);
+        torn = false;
+    }
+
+    private synchronized void _compact() throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        long before = recordsInLog;
+        recordsInLog = 0;
+        FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        DataOutputStream snapshot = _bufferedStream(target);
+        try {
+            // Alterações concorrentes ao snapshot continuam em pendingWrites e são gravadas depois no novo log.
+            delegate.forEach((sessionId, token) -> {
+                try {
+                    _writeRecord(snapshot, sessionId, token);
+                    recordsInLog++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            snapshot.flush();
+            target.force(false);
+            // O canal do snapshot segue aberto: depois do rename ele já é o novo log, sem reabrir nada.
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UncheckedIOException e) {
+            // O log antigo continua intacto e aberto para anexar.
+            recordsInLog = before;
+            target.close();
+            Files.deleteIfExists(compacted);
+            throw e;
+        }
+        DataOutputStream previous = out;
+        channel = target;
+        out = snapshot;
+        validLength = target.position();
+        torn = false;
+        try {
+            previous.close();
+        } catch (IOException e) {
+            logger.warn("Falha ao fechar o log de tokens substituído: {}", e.getMessage());
+        }
+        logger.info("Log de tokens compactado: {} registros substituídos por {}.", before, recordsInLog);
+    }
+
+    private void _openForAppend(long length) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        validLength = length;
+        // Descarta um registro incompleto no fim do arquivo antes de voltar a anexar.
+        _rollBack();
+    }
+
+    private static DataOutputStream _bufferedStream(FileChannel target) {
+        return new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(target), 64 * 1024));
+    }
+
+    /**
+     * Returns the number of bytes written to {@code target}.
+     */
+    private int _writeRecord(DataOutputStream target, String sessionId, SpotifyToken token) throws IOException {
+        recordBuffer.reset();
+        DataOutputStream body = new DataOutputStream(recordBuffer);
+        body.writeByte(token != null ? PUT : REMOVE);
+        body.writeUTF(sessionId);
+        if (token != null) {
+            body.writeLong(token.expiresAt() != null ? token.expiresAt().toEpochMilli() : -1);
+            byte[] iv = cipher.newIv();
+            byte[] ciphertext = _encrypt(iv, sessionId, _secrets(token));
+            body.write(iv);
+            body.writeInt(ciphertext.length);
+            body.write(ciphertext);
+        }
+
+        crc.reset();
+        crc.update(recordBuffer.toByteArray(), 0, recordBuffer.size());
+        target.writeInt(recordBuffer.size());
+        target.writeInt((int) crc.getValue());
+        recordBuffer.writeTo(target);
+        return 8 + recordBuffer.size();
+    }
+
+    private long _replay() throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        long validLength = 0;
+        CRC32C checksum = new CRC32C();
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file, 256 * 1024))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length <= 0 || length > MAX_RECORD_LENGTH) {
+                    logger.warn("Registro inválido em {} na posição {}; o restante do log é descartado.", path, validLength);
+                    break;
+                }
+                byte[] record = new byte[length];
+                int expectedCrc;
+                try {
+                    expectedCrc = in.readInt();
+                    in.readFully(record);
+                } catch (EOFException e) {
+                    logger.warn("Registro incompleto no fim de {} descartado.", path);
+                    break;
+                }
+                checksum.reset();
+                checksum.update(record);
+                if ((int) checksum.getValue() != expectedCrc) {
+                    logger.warn("Checksum inválido em {} na posição {}; o restante do log é descartado.", path, validLength);
+                    break;
+                }
+                _apply(record);
+                validLength += 8 + length;
+                recordsInLog++;
+            }
+        }
+        return validLength;
+    }
+
+    private void _apply(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        byte type = in.readByte();
+        String sessionId = in.readUTF();
+        if (type == REMOVE) {
+            delegate.remove(sessionId);
+            return;
+        }
+        long expiresAt = in.readLong();
+        byte[] iv = new byte[TokenCipher.IV_LENGTH];
+        in.readFully(iv);
+        byte[] ciphertext = new byte[in.readInt()];
+        in.readFully(ciphertext);
+
+        DataInputStream secrets = new DataInputStream(new ByteArrayInputStream(
+                _decrypt(iv, sessionId, ciphertext)));
+        String accessToken = secrets.readUTF();
+        String refreshToken = secrets.readBoolean() ? secrets.readUTF() : null;
+        delegate.save(sessionId, new SpotifyToken(accessToken, refreshToken,
+                expiresAt >= 0 ? Instant.ofEpochMilli(expiresAt) : null));
+    }
+
+    private static byte[] _secrets(SpotifyToken token) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream secrets = new DataOutputStream(bytes);
+        secrets.writeUTF(token.accessToken());
+        secrets.writeBoolean(token.refreshToken() != null);
+        if (token.refreshToken() != null) {
+            secrets.writeUTF(token.refreshToken());
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] _encrypt(byte[] iv, String sessionId, byte[] secrets) throws IOException {
+        try {
+            return cipher.encrypt(iv, sessionId, secrets);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Falha ao cifrar o token da sessão " + sessionId, e);
+        }
+    }
+
+    private byte[] _decrypt(byte[] iv, String sessionId, byte[] ciphertext) throws IOException {
+        try {
+            return cipher.decrypt(iv, sessionId, ciphertext);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Falha ao decifrar o token da sessão " + sessionId, e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.spotify.integration.token;
+
+import com.spotify.integration.util.ClockEviction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+@Component
+@ConditionalOnProperty(name = "spotify.token-store.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryTokenStore implements TokenStore {
+
+    private final static Logger logger = LoggerFactory.getLogger(InMemoryTokenStore.class);
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Sessões na ordem de inserção, usadas como relógio (CLOCK) para despejo por capacidade.
+    private final ClockEviction<String, Entry> clock = new ClockEviction<>(entries);
+
+    private final int maxSessions;
+    private final long idleTimeoutNanos;
+    private final Consumer<String> onEvicted;
+
+    public InMemoryTokenStore(@Value("${spotify.token-store.max-sessions:100000}") int maxSessions,
+                              @Value("${spotify.token-store.idle-timeout:PT12H}") Duration idleTimeout) {
+        this(maxSessions, idleTimeout, sessionId -> {
+        });
+    }
+
+    /**
+     * @param onEvicted called with each session dropped for idleness or capacity, not for {@link #remove}
+     */
+    InMemoryTokenStore(int maxSessions, Duration idleTimeout, Consumer<String> onEvicted) {
+        this.maxSessions = maxSessions;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.onEvicted = onEvicted;
+    }
+
+    @Override
+    public SpotifyToken get(String sessionId) {
+        Entry entry = entries.get(sessionId);
+        if (entry == null) {
+            return null;
+        }
+        entry.touch();
+        return entry.token;
+    }
+
+    @Override
+    public SpotifyToken peek(String sessionId) {
+        Entry entry = entries.get(sessionId);
+        return entry != null ? entry.token : null;
+    }
+
+    @Override
+    public void save(String sessionId, SpotifyToken token) {
+        Entry previous = entries.put(sessionId, new Entry(token));
+        if (previous == null) {
+            clock.add(sessionId);
+            clock.evict(() -> entries.size() > maxSessions, (evicted, entry) -> {
+                logger.debug("Sessão {} removida por limite de capacidade.", evicted);
+                onEvicted.accept(evicted);
+            });
+        }
+    }
+
+    @Override
+    public SpotifyToken update(String sessionId, UnaryOperator<SpotifyToken> updater) {
+        Entry updated = entries.computeIfPresent(sessionId, (id, current) -> {
+            SpotifyToken next = updater.apply(current.token);
+            // Renovar o token não é uso da sessão: o último acesso e a segunda chance são mantidos.
+            return next == current.token ? current : new Entry(next, current);
+        });
+        return updated != null ? updated.token : null;
+    }
+
+    @Override
+    public void remove(String sessionId) {
+        // A entrada correspondente na fila é descartada preguiçosamente durante o despejo.
+        entries.remove(sessionId);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, SpotifyToken> action) {
+        entries.forEach((sessionId, entry) -> action.accept(sessionId, entry.token));
+    }
+
+    @Scheduled(fixedDelayString = "${spotify.token-store.eviction-interval-ms:60000}")
+    public void evictIdleSessions() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            // remove(key, value): uma sessão renovada durante a varredura não é descartada por engano.
+            if (now - e.getValue().lastAccess > idleTimeoutNanos && entries.remove(e.getKey(), e.getValue())) {
+                evicted++;
+                onEvicted.accept(e.getKey());
+            }
+        }
+        clock.purge();
+
+        if (evicted > 0) {
+            logger.debug("{} sessões ociosas removidas do token store.", evicted);
+        }
+    }
+
+    private static final class Entry extends ClockEviction.Entry {
+
+        // Granularidade mínima para gravar o último acesso e evitar escrita a cada leitura.
+        private static final long TOUCH_GRANULARITY_NANOS = 1_000_000_000L;
+
+        final SpotifyToken token;
+        volatile long lastAccess;
+
+        Entry(SpotifyToken token) {
+            this.token = token;
+            this.lastAccess = System.nanoTime();
+        }
+
+        Entry(SpotifyToken token, Entry previous) {
+            this.token = token;
+            this.lastAccess = previous.lastAccess;
+            if (previous.isReferenced()) {
+                markReferenced();
+            }
+        }
+
+        void touch() {
+            long now = System.nanoTime();
+            if (now - lastAccess > TOUCH_GRANULARITY_NANOS) {
+                lastAccess = now;
+            }
+            markReferenced();
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.spotify.integration.token;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.security.GeneralSecurityException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link TokenStore} backed by a table shared by every replica, so any node can serve any session
+ * and only one node at a time refreshes a given token.
+ * <p>
+ * Reads go through a local near cache. An entry is dropped when another node changes the row, which
+ * is detected by polling {@code updated_at}, or at the latest when its TTL runs out. Updates use
+ * optimistic versioning. Refresh leases are a conditional update of {@code lease_owner}/{@code lease_until},
+ * so a lease held by a node that died simply expires.
+ * <p>
+ * Token material is encrypted with AES-GCM, bound to the session id, like in {@link FileTokenStore}.
+ * User reads are recorded locally and written to {@code last_access} in batches; a periodic sweep deletes
+ * sessions idle for longer than the idle timeout and, above the capacity, the least recently used ones.
+ * {@link #size()} is the row count as of the last sweep, so metrics scrapes never query the table.
+ */
+@Component
+@ConditionalOnProperty(name = "spotify.token-store.type", havingValue = "jdbc")
+public class JdbcTokenStore implements TokenStore {
+
+    private final static Logger logger = LoggerFactory.getLogger(JdbcTokenStore.class);
+
+    private static final String SELECT =
+            "SELECT access_token, refresh_token, expires_at, version FROM spotify_token WHERE session_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final long nearCacheTtlNanos;
+    private final long clockSkewMillis;
+    private final boolean initializeSchema;
+    private final TokenCipher cipher;
+    private final int maxSessions;
+    private final long idleTimeoutMillis;
+
+    private final ConcurrentHashMap<String, Near> nearCache = new ConcurrentHashMap<>();
+    // Último uso de cada sessão lida por usuários desde a última gravação de last_access.
+    private final ConcurrentHashMap<String, Long> pendingAccesses = new ConcurrentHashMap<>();
+
+    private volatile int size;
+
+    // Início da janela da próxima consulta de alterações; só o job de invalidação escreve aqui.
+    private volatile long changesSince = System.currentTimeMillis();
+
+    public JdbcTokenStore(JdbcTemplate jdbcTemplate,
+                          @Value("${spotify.token-store.jdbc.near-cache-ttl:PT30S}") Duration nearCacheTtl,
+                          @Value("${spotify.token-store.jdbc.clock-skew:PT2S}") Duration clockSkew,
+                          @Value("${spotify.token-store.jdbc.initialize-schema:false}") boolean initializeSchema,
+                          @Value("${spotify.token-store.jdbc.encryption-key}") String encryptionKey,
+                          @Value("${spotify.token-store.max-sessions:100000}") int maxSessions,
+                          @Value("${spotify.token-store.idle-timeout:PT12H}") Duration idleTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nearCacheTtlNanos = nearCacheTtl.toNanos();
+        this.clockSkewMillis = clockSkew.toMillis();
+        this.initializeSchema = initializeSchema;
+        this.cipher = new TokenCipher(encryptionKey, "spotify.token-store.jdbc.encryption-key");
+        this.maxSessions = maxSessions;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (initializeSchema) {
+            new ResourceDatabasePopulator(new ClassPathResource("db/token-store-schema.sql"))
+                    .execute(jdbcTemplate.getDataSource());
+        }
+        size = _count();
+    }
+
+    @Override
+    public SpotifyToken get(String sessionId) {
+        SpotifyToken token = peek(sessionId);
+        if (token != null) {
+            pendingAccesses.put(sessionId, System.currentTimeMillis());
+        }
+        return token;
+    }
+
+    @Override
+    public SpotifyToken peek(String sessionId) {
+        Near near = nearCache.get(sessionId);
+        if (near != null && System.nanoTime() - near.cachedAt < nearCacheTtlNanos) {
+            return near.token;
+        }
+        return getFresh(sessionId);
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return true;
+    }
+
+    @Override
+    public SpotifyToken getFresh(String sessionId) {
+        Versioned row = _select(sessionId);
+        if (row == null) {
+            nearCache.remove(sessionId);
+            return null;
+        }
+        _cache(sessionId, row);
+        return row.token;
+    }
+
+    @Override
+    public void save(String sessionId, SpotifyToken token) {
+        long now = System.currentTimeMillis();
+        String accessToken = _seal(sessionId, token.accessToken());
+        String refreshToken = _seal(sessionId, token.refreshToken());
+        // Um login conta como uso da sessão.
+        int updated = jdbcTemplate.update(
+                "UPDATE spotify_token SET access_token = ?, refresh_token = ?, expires_at = ?, version = version + 1, " +
+                        "updated_at = ?, last_access = ? WHERE session_id = ?",
+                accessToken, refreshToken, _millis(token), now, now, sessionId);
+        if (updated == 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO spotify_token (session_id, access_token, refresh_token, expires_at, version, updated_at, last_access) " +
+                            "VALUES (?, ?, ?, ?, 0, ?, ?)",
+                    sessionId, accessToken, refreshToken, _millis(token), now, now);
+        }
+        // A versão exata não é conhecida sem reler a linha; a próxima invalidação corrige se preciso.
+        nearCache.remove(sessionId);
+    }
+
+    @Override
+    public SpotifyToken update(String sessionId, UnaryOperator<SpotifyToken> updater) {
+        while (true) {
+            Versioned current = _select(sessionId);
+            if (current == null) {
+                nearCache.remove(sessionId);
+                return null;
+            }
+            SpotifyToken next = updater.apply(current.token);
+            if (next == current.token) {
+                return next;
+            }
+            int updated = jdbcTemplate.update(
+                    "UPDATE spotify_token SET access_token = ?, refresh_token = ?, expires_at = ?, version = ?, " +
+                            "updated_at = ? WHERE session_id = ? AND version = ?",
+                    _seal(sessionId, next.accessToken()), _seal(sessionId, next.refreshToken()), _millis(next), current.version + 1,
+                    System.currentTimeMillis(), sessionId, current.version);
+            if (updated == 1) {
+                _cache(sessionId, new Versioned(next, current.version + 1));
+                return next;
+            }
+            // Outro nó alterou a linha entre a leitura e a escrita: reaplica sobre a versão nova.
+        }
+    }
+
+    @Override
+    public void remove(String sessionId) {
+        jdbcTemplate.update("DELETE FROM spotify_token WHERE session_id = ?", sessionId);
+        nearCache.remove(sessionId);
+        pendingAccesses.remove(sessionId);
+    }
+
+    /**
+     * Row count as of the last {@link #evictIdleSessions() sweep}.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, SpotifyToken> action) {
+        jdbcTemplate.query("SELECT session_id, access_token, refresh_token, expires_at FROM spotify_token",
+                rs -> {
+                    String sessionId = rs.getString("session_id");
+                    action.accept(sessionId, _token(sessionId, rs));
+                });
+    }
+
+    @Override
+    public boolean tryAcquireRefreshLease(String sessionId, Duration ttl) {
+        long now = System.currentTimeMillis();
+        return jdbcTemplate.update(
+                "UPDATE spotify_token SET lease_owner = ?, lease_until = ? WHERE session_id = ? " +
+                        "AND (lease_owner IS NULL OR lease_owner = ? OR lease_until < ?)",
+                nodeId, now + ttl.toMillis(), sessionId, nodeId, now) == 1;
+    }
+
+    @Override
+    public void releaseRefreshLease(String sessionId) {
+        jdbcTemplate.update(
+                "UPDATE spotify_token SET lease_owner = NULL, lease_until = NULL WHERE session_id = ? AND lease_owner = ?",
+                sessionId, nodeId);
+    }
+
+    public int getNearCacheSize() {
+        return nearCache.size();
+    }
+
+    /**
+     * Writes the recorded accesses, then deletes sessions idle for longer than the idle timeout and,
+     * while more than {@code max-sessions} remain, the least recently used ones. Every node runs the
+     * sweep; deleting a row another node already deleted is a no-op. A session read between the
+     * selection and the delete keeps its row, because the delete re-checks {@code last_access}.
+     */
+    @Scheduled(fixedDelayString = "${spotify.token-store.eviction-interval-ms:60000}")
+    public void evictIdleSessions() {
+        flushAccesses();
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        int idle = _delete(jdbcTemplate.query("SELECT session_id, last_access FROM spotify_token WHERE last_access < ?",
+                (rs, rowNum) -> new Access(rs.getString(1), rs.getLong(2)), cutoff));
+
+        int excess = _count() - maxSessions;
+        int overCapacity = 0;
+        if (excess > 0) {
+            overCapacity = _delete(jdbcTemplate.query("SELECT session_id, last_access FROM spotify_token ORDER BY last_access",
+                    rs -> {
+                        List<Access> oldest = new ArrayList<>(excess);
+                        while (oldest.size() < excess && rs.next()) {
+                            oldest.add(new Access(rs.getString(1), rs.getLong(2)));
+                        }
+                        return oldest;
+                    }));
+        }
+        size = _count();
+        if (idle + overCapacity > 0) {
+            logger.info("{} sessões ociosas e {} acima da capacidade removidas do token store compartilhado.", idle, overCapacity);
+        }
+    }
+
+    /**
+     * Writes the last access of every session read since the previous call, in one batch. Runs with the
+     * invalidation poll, so {@code last_access} lags user reads by about one poll interval.
+     */
+    @Scheduled(fixedDelayString = "${spotify.token-store.jdbc.invalidation-interval-ms:1000}")
+    public void flushAccesses() {
+        if (pendingAccesses.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(pendingAccesses.size());
+        for (Map.Entry<String, Long> entry : pendingAccesses.entrySet()) {
+            // Se a sessão foi lida de novo durante a gravação, o acesso mais novo fica para a próxima.
+            if (pendingAccesses.remove(entry.getKey(), entry.getValue())) {
+                batch.add(new Object[]{entry.getValue(), entry.getKey(), entry.getValue()});
+            }
+        }
+        jdbcTemplate.batchUpdate("UPDATE spotify_token SET last_access = ? WHERE session_id = ? AND last_access < ?", batch);
+    }
+
+    /**
+     * Drops near-cache entries whose row another node changed since the previous poll, and entries
+     * past their TTL. The window overlaps the previous one by the allowed clock skew between nodes.
+     */
+    @Scheduled(fixedDelayString = "${spotify.token-store.jdbc.invalidation-interval-ms:1000}")
+    public void invalidateChanged() {
+        long pollStartedAt = System.currentTimeMillis();
+        List<Object[]> changed = jdbcTemplate.query(
+                "SELECT session_id, version FROM spotify_token WHERE updated_at >= ?",
+                (rs, rowNum) -> new Object[]{rs.getString(1), rs.getLong(2)},
+                changesSince - clockSkewMillis);
+        for (Object[] row : changed) {
+            String sessionId = (String) row[0];
+            long version = (Long) row[1];
+            nearCache.computeIfPresent(sessionId, (id, near) -> near.version < version ? null : near);
+        }
+        changesSince = pollStartedAt;
+
+        long now = System.nanoTime();
+        nearCache.values().removeIf(near -> now - near.cachedAt >= nearCacheTtlNanos);
+        if (!changed.isEmpty()) {
+            logger.debug("{} sessões alteradas no token store compartilhado desde a última verificação.", changed.size());
+        }
+    }
+
+    private Versioned _select(String sessionId) {
+        List<Versioned> rows = jdbcTemplate.query(SELECT,
+                (rs, rowNum) -> new Versioned(_token(sessionId, rs), rs.getLong("version")), sessionId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private int _delete(List<Access> sessions) {
+        if (sessions.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> batch = new ArrayList<>(sessions.size());
+        for (Access access : sessions) {
+            batch.add(new Object[]{access.sessionId(), access.lastAccess()});
+            nearCache.remove(access.sessionId());
+        }
+        int deleted = 0;
+        for (int rows : jdbcTemplate.batchUpdate("DELETE FROM spotify_token WHERE session_id = ? AND last_access <= ?", batch)) {
+            deleted += Math.max(rows, 0);
+        }
+        return deleted;
+    }
+
+    private int _count() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM spotify_token", Integer.class);
+        return count != null ? count : 0;
+    }
+
+    private void _cache(String sessionId, Versioned row) {
+        Near fresh = new Near(row.token, row.version, System.nanoTime());
+        // Nunca troca uma versão mais nova, lida por outra thread, por uma mais antiga.
+        nearCache.merge(sessionId, fresh, (current, candidate) -> candidate.version >= current.version ? candidate : current);
+    }
+
+    private SpotifyToken _token(String sessionId, ResultSet rs) throws SQLException {
+        String accessToken = _open(sessionId, rs.getString("access_token"));
+        String refreshToken = _open(sessionId, rs.getString("refresh_token"));
+        long expiresAt = rs.getLong("expires_at");
+        return new SpotifyToken(accessToken, refreshToken, rs.wasNull() ? null : Instant.ofEpochMilli(expiresAt));
+    }
+
+    private String _seal(String sessionId, String secret) {
+        if (secret == null) {
+            return null;
+        }
+        try {
+            return cipher.seal(sessionId, secret);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Falha ao cifrar o token da sessão " + sessionId, e);
+        }
+    }
+
+    private String _open(String sessionId, String sealed) {
+        if (sealed == null) {
+            return null;
+        }
+        try {
+            return cipher.open(sessionId, sealed);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Falha ao decifrar o token da sessão " + sessionId, e);
+        }
+    }
+
+    private static Object _millis(SpotifyToken token) {
+        return token.expiresAt() != null ? token.expiresAt().toEpochMilli() : null;
+    }
+
+    private record Versioned(SpotifyToken token, long version) {
+    }
+
+    private record Near(SpotifyToken token, long version, long cachedAt) {
+    }
+
+    private record Access(String sessionId, long lastAccess) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.spotify.integration.token;
+
+import java.time.Instant;
+
+public record SpotifyToken(String accessToken, String refreshToken, Instant expiresAt) {
+
+    public boolean isExpired() {
+        return expiresAt == null || Instant.now().isAfter(expiresAt);
+    }
+
+    public SpotifyToken refreshedWith(String newAccessToken, String newRefreshToken, Instant newExpiresAt) {
+        // O Spotify nem sempre devolve um novo refresh_token; nesse caso mantemos o atual.
+        String refresh = newRefreshToken != null ? newRefreshToken : refreshToken;
+        return new SpotifyToken(newAccessToken, refresh, newExpiresAt);
+    }
+
+    @Override
+    public String toString() {
+        return "SpotifyToken{expiresAt=" + expiresAt + '}';
+    }
+}
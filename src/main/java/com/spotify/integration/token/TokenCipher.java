@@ -0,0 +1,79 @@
+package com.spotify.integration.token;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * AES-GCM encryption of token material at rest, shared by the durable stores. The session id is
+ * authenticated data, so a ciphertext copied into another session's record fails to decrypt.
+ */
+final class TokenCipher {
+
+    static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey key;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * @param encryptionKey a 128 or 256 bit key in Base64
+     * @param property      the property the key came from, named in the error if it is malformed
+     */
+    TokenCipher(String encryptionKey, String property) {
+        byte[] bytes = Base64.getDecoder().decode(encryptionKey);
+        if (bytes.length != 16 && bytes.length != 32) {
+            throw new IllegalArgumentException(property + " deve ter 128 ou 256 bits em Base64.");
+        }
+        this.key = new SecretKeySpec(bytes, "AES");
+    }
+
+    byte[] newIv() {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        return iv;
+    }
+
+    byte[] encrypt(byte[] iv, String sessionId, byte[] plaintext) throws GeneralSecurityException {
+        return _init(Cipher.ENCRYPT_MODE, iv, sessionId).doFinal(plaintext);
+    }
+
+    byte[] decrypt(byte[] iv, String sessionId, byte[] ciphertext) throws GeneralSecurityException {
+        return _init(Cipher.DECRYPT_MODE, iv, sessionId).doFinal(ciphertext);
+    }
+
+    /**
+     * Encrypts a string into Base64 of the IV followed by the ciphertext, for text columns.
+     */
+    String seal(String sessionId, String plaintext) throws GeneralSecurityException {
+        byte[] iv = newIv();
+        byte[] ciphertext = encrypt(iv, sessionId, plaintext.getBytes(StandardCharsets.UTF_8));
+        byte[] sealed = new byte[IV_LENGTH + ciphertext.length];
+        System.arraycopy(iv, 0, sealed, 0, IV_LENGTH);
+        System.arraycopy(ciphertext, 0, sealed, IV_LENGTH, ciphertext.length);
+        return Base64.getEncoder().encodeToString(sealed);
+    }
+
+    String open(String sessionId, String sealed) throws GeneralSecurityException {
+        byte[] bytes = Base64.getDecoder().decode(sealed);
+        if (bytes.length <= IV_LENGTH) {
+            throw new GeneralSecurityException("Valor cifrado truncado.");
+        }
+        Cipher cipher = _init(Cipher.DECRYPT_MODE, Arrays.copyOf(bytes, IV_LENGTH), sessionId);
+        return new String(cipher.doFinal(bytes, IV_LENGTH, bytes.length - IV_LENGTH), StandardCharsets.UTF_8);
+    }
+
+    private Cipher _init(int mode, byte[] iv, String sessionId) throws GeneralSecurityException {
+        // Uma instância por operação: Cipher não é thread-safe, e o custo some diante do disco ou do banco.
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(mode, key, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(sessionId.getBytes(StandardCharsets.UTF_8));
+        return cipher;
+    }
+}
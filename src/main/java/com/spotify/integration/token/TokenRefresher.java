@@ -0,0 +1,252 @@
+package com.spotify.integration.token;
+
+import com.spotify.integration.exception.SpotifySessionExpiredException;
+import com.spotify.integration.metrics.SampledErrorLog;
+import com.spotify.integration.metrics.SpotifyMetrics;
+import com.spotify.integration.service.SpotifyAccountsClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coordinates token refreshes: at most one refresh is in flight per session, and every
+ * stored token is refreshed ahead of its expiry through an expiry-ordered {@link DelayQueue}.
+ * With a store shared by several nodes, a refresh lease makes one node call Spotify while
+ * the others wait for the refreshed token to show up in the store.
+ * <p>
+ * A proactive refresh that fails is retried once after a backoff, as long as the retry still
+ * lands before the token expires; after that the next use of the session refreshes it.
+ */
+@Component
+public class TokenRefresher {
+
+    private final static Logger logger = LoggerFactory.getLogger(TokenRefresher.class);
+
+    private final TokenStore tokenStore;
+    private final SpotifyAccountsClient accountsClient;
+    private final ThreadFactory backgroundThreadFactory;
+    private final SpotifyMetrics metrics;
+    private final SampledErrorLog errorLog;
+
+    private final ConcurrentHashMap<String, CompletableFuture<SpotifyToken>> inFlight = new ConcurrentHashMap<>();
+    private final DelayQueue<ScheduledRefresh> refreshQueue = new DelayQueue<>();
+
+    private final long skewMillis;
+    private final long jitterMillis;
+    private final Duration leaseTtl;
+    private final Duration peerPollInterval;
+    private final long retryBackoffMillis;
+
+    private Thread dispatcher;
+
+    public TokenRefresher(TokenStore tokenStore,
+                          SpotifyAccountsClient accountsClient,
+                          ThreadFactory backgroundThreadFactory,
+                          SpotifyMetrics metrics,
+                          SampledErrorLog errorLog,
+                          @Value("${spotify.token-refresh.skew:PT60S}") Duration skew,
+                          @Value("${spotify.token-refresh.jitter:PT30S}") Duration jitter,
+                          @Value("${spotify.token-refresh.lease-ttl:PT10S}") Duration leaseTtl,
+                          @Value("${spotify.token-refresh.peer-poll-interval:PT0.25S}") Duration peerPollInterval,
+                          @Value("${spotify.token-refresh.retry-backoff:PT5S}") Duration retryBackoff) {
+        this.tokenStore = tokenStore;
+        this.accountsClient = accountsClient;
+        this.backgroundThreadFactory = backgroundThreadFactory;
+        this.metrics = metrics;
+        this.errorLog = errorLog;
+        this.skewMillis = skew.toMillis();
+        this.jitterMillis = jitter.toMillis();
+        this.leaseTtl = leaseTtl;
+        this.peerPollInterval = peerPollInterval;
+        this.retryBackoffMillis = retryBackoff.toMillis();
+    }
+
+    @PostConstruct
+    void start() {
+        // Sessões recarregadas de um store persistente: tokens já vencidos são renovados no próximo uso.
+        tokenStore.forEach((sessionId, token) -> {
+            if (!token.isExpired()) {
+                scheduleAhead(sessionId, token);
+            }
+        });
+        dispatcher = backgroundThreadFactory.newThread(this::_dispatchLoop);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.interrupt();
+    }
+
+    /**
+     * Refreshes the session's token, joining a refresh already in flight for the same session.
+     * The refresh runs to completion even if every caller cancels, so its result is never wasted.
+     */
+    public Mono<SpotifyToken> refresh(String sessionId) {
+        return Mono.defer(() -> {
+            CompletableFuture<SpotifyToken> mine = new CompletableFuture<>();
+            CompletableFuture<SpotifyToken> existing = inFlight.putIfAbsent(sessionId, mine);
+            if (existing != null) {
+                return _await(existing);
+            }
+
+            // O store pode ser bloqueante (JDBC) e falhar: leituras e lease saem da thread chamadora, e
+            // qualquer exceção chega ao futuro compartilhado, que então deixa o mapa.
+            Mono.defer(() -> _doRefresh(sessionId))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .doFinally(signal -> inFlight.remove(sessionId, mine))
+                    .subscribe(mine::complete, mine::completeExceptionally);
+            return _await(mine);
+        });
+    }
+
+    /**
+     * Schedules a proactive refresh of the token at {@code expiresAt - skew - random(jitter)}.
+     */
+    public void scheduleAhead(String sessionId, SpotifyToken token) {
+        if (token.expiresAt() == null || token.refreshToken() == null) {
+            return;
+        }
+        long jitter = jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis) : 0;
+        long dueAt = token.expiresAt().toEpochMilli() - skewMillis - jitter;
+        refreshQueue.offer(new ScheduledRefresh(sessionId, token.expiresAt(), dueAt, false));
+    }
+
+    private Mono<SpotifyToken> _doRefresh(String sessionId) {
+        SpotifyToken current = tokenStore.peek(sessionId);
+        if (current == null || current.refreshToken() == null) {
+            return Mono.error(SpotifySessionExpiredException.EXPIRED);
+        }
+        if (!tokenStore.tryAcquireRefreshLease(sessionId, leaseTtl)) {
+            return _awaitPeerRefresh(sessionId, current);
+        }
+
+        // Com o lease, relê do backend: outro nó pode ter acabado de renovar e girado o refresh token.
+        SpotifyToken latest = tokenStore.getFresh(sessionId);
+        if (latest == null || !latest.equals(current)) {
+            tokenStore.releaseRefreshLease(sessionId);
+            return latest != null
+                    ? Mono.just(latest)
+                    : Mono.error(SpotifySessionExpiredException.EXPIRED);
+        }
+
+        return accountsClient.refreshAccessToken(current.refreshToken())
+                // O store pode ser bloqueante (JDBC): não grava a partir da event loop do Netty.
+                .publishOn(Schedulers.boundedElastic())
+                .flatMap(response -> {
+                    Instant expiresAt = Instant.now().plusSeconds(response.getExpiresIn());
+                    // A chamada HTTP acontece fora do store; aqui só aplicamos o resultado atomicamente.
+                    SpotifyToken updated = tokenStore.update(sessionId, token ->
+                            token.refreshedWith(response.getAccessToken(), response.getRefreshToken(), expiresAt));
+                    if (updated == null) {
+                        return Mono.error(SpotifySessionExpiredException.REMOVED_DURING_REFRESH);
+                    }
+                    scheduleAhead(sessionId, updated);
+                    return Mono.just(updated);
+                })
+                .doFinally(signal -> tokenStore.releaseRefreshLease(sessionId))
+                .doOnSuccess(token -> metrics.recordRefresh(true))
+                .doOnError(e -> metrics.recordRefresh(false));
+    }
+
+    /**
+     * Waits for the node holding the lease to store a refreshed token. If it does not finish within
+     * the lease TTL, the lease has expired and this node tries the refresh itself.
+     */
+    private Mono<SpotifyToken> _awaitPeerRefresh(String sessionId, SpotifyToken stale) {
+        return Flux.interval(peerPollInterval, Schedulers.boundedElastic())
+                .map(tick -> {
+                    SpotifyToken latest = tokenStore.getFresh(sessionId);
+                    if (latest == null) {
+                        throw SpotifySessionExpiredException.REMOVED_DURING_REFRESH;
+                    }
+                    return latest;
+                })
+                .filter(latest -> !latest.equals(stale))
+                .next()
+                .timeout(leaseTtl)
+                .onErrorResume(TimeoutException.class, e -> _doRefresh(sessionId));
+    }
+
+    private Mono<SpotifyToken> _await(CompletableFuture<SpotifyToken> future) {
+        // Cada chamador recebe um futuro derivado: cancelar a assinatura não cancela a renovação compartilhada.
+        return Mono.fromFuture(future.thenApply(token -> token));
+    }
+
+    private void _dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                _runScheduled(refreshQueue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void _runScheduled(ScheduledRefresh task) {
+        // peek: uma renovação antecipada não pode manter viva uma sessão abandonada.
+        SpotifyToken current = tokenStore.peek(task.sessionId);
+        // Sessão removida ou token já renovado por outro caminho: a tarefa ficou obsoleta.
+        if (current == null || !task.expiresAt.equals(current.expiresAt())) {
+            return;
+        }
+        refresh(task.sessionId).subscribe(
+                token -> logger.debug("Token da sessão {} renovado antecipadamente.", task.sessionId),
+                e -> _onScheduledFailure(task, e));
+    }
+
+    private void _onScheduledFailure(ScheduledRefresh task, Throwable e) {
+        long retryAt = System.currentTimeMillis() + retryBackoffMillis;
+        // Sessão expirada não se resolve com nova tentativa; as demais falhas (rede, 5xx) costumam ser passageiras.
+        if (!task.retry && !(e instanceof SpotifySessionExpiredException) && retryAt < task.expiresAt.toEpochMilli()) {
+            logger.debug("Renovação antecipada da sessão {} falhou; nova tentativa em {} ms.", task.sessionId, retryBackoffMillis);
+            refreshQueue.offer(new ScheduledRefresh(task.sessionId, task.expiresAt, retryAt, true));
+            return;
+        }
+        if (errorLog.tryAcquire()) {
+            logger.error("Failed to refresh access token for session {}: {}", task.sessionId, e.getMessage());
+        }
+    }
+
+    private static final class ScheduledRefresh implements Delayed {
+
+        final String sessionId;
+        final Instant expiresAt;
+        final long dueAtMillis;
+        final boolean retry;
+
+        ScheduledRefresh(String sessionId, Instant expiresAt, long dueAtMillis, boolean retry) {
+            this.sessionId = sessionId;
+            this.expiresAt = expiresAt;
+            this.dueAtMillis = dueAtMillis;
+            this.retry = retry;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((ScheduledRefresh) other).dueAtMillis);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.spotify.integration.token;
+
+import java.time.Duration;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keyed store of Spotify tokens, one immutable {@link SpotifyToken} per session id.
+ * Reads must be lock-free; updates are applied atomically per key.
+ * <p>
+ * Stores shared by several nodes also override the refresh-lease methods, so that only one
+ * node at a time refreshes a given session. The defaults suit single-node stores.
+ */
+public interface TokenStore {
+
+    /**
+     * Returns the token for the session, or {@code null} if the session is unknown or was evicted.
+     */
+    SpotifyToken get(String sessionId);
+
+    /**
+     * Like {@link #get}, but does not count as use of the session: for background work such as
+     * proactive refreshes, which must not keep an abandoned session from going idle.
+     */
+    default SpotifyToken peek(String sessionId) {
+        return get(sessionId);
+    }
+
+    void save(String sessionId, SpotifyToken token);
+
+    /**
+     * Atomically replaces the token for an existing session. Returns the new token,
+     * or {@code null} if the session does not exist.
+     */
+    SpotifyToken update(String sessionId, UnaryOperator<SpotifyToken> updater);
+
+    void remove(String sessionId);
+
+    int size();
+
+    void forEach(BiConsumer<String, SpotifyToken> action);
+
+    /**
+     * Whether reads may go to a remote backend, so callers on an event loop must move them to a
+     * thread that is allowed to block.
+     */
+    default boolean isBlocking() {
+        return false;
+    }
+
+    /**
+     * Returns the token as currently stored by the authoritative backend, bypassing any local cache.
+     */
+    default SpotifyToken getFresh(String sessionId) {
+        return get(sessionId);
+    }
+
+    /**
+     * Tries to become the only node allowed to refresh the session's token for {@code ttl}.
+     * A lease left behind by a node that died expires on its own.
+     */
+    default boolean tryAcquireRefreshLease(String sessionId, Duration ttl) {
+        return true;
+    }
+
+    default void releaseRefreshLease(String sessionId) {
+    }
+}
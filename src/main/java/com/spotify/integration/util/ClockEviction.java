@@ -0,0 +1,101 @@
+package com.spotify.integration.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+
+/**
+ * CLOCK (second-chance) eviction over a concurrent map, shared by the bounded caches and the in-memory
+ * token store. Keys join the clock when first inserted. The hand skips entries read since it last
+ * passed them, clearing their mark, and removes the others until the owner's limit holds again. The
+ * limit is whatever {@code overLimit} checks, an entry count or a total weight.
+ * <p>
+ * Keys of entries the owner removed itself stay in the clock until the hand reaches them or
+ * {@link #purge()} runs.
+ */
+public final class ClockEviction<K, E extends ClockEviction.Entry> {
+
+    private final ConcurrentMap<K, E> entries;
+    private final Queue<K> clock = new ConcurrentLinkedQueue<>();
+    // Tamanho mantido a cada offer e poll: size() de ConcurrentLinkedQueue percorre a fila inteira.
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public ClockEviction(ConcurrentMap<K, E> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Adds a key just inserted into the map; keys whose entry was only replaced are already in the clock.
+     */
+    public void add(K key) {
+        queued.incrementAndGet();
+        clock.offer(key);
+    }
+
+    /**
+     * Moves the hand while {@code overLimit} holds, at most twice around the clock, and passes every
+     * entry it removes to {@code onEvicted}.
+     */
+    public void evict(BooleanSupplier overLimit, BiConsumer<K, E> onEvicted) {
+        if (!overLimit.getAsBoolean()) {
+            return;
+        }
+        int attempts = 2 * queued.get();
+        while (overLimit.getAsBoolean() && attempts-- > 0) {
+            K candidate = clock.poll();
+            if (candidate == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            E entry = entries.get(candidate);
+            if (entry == null) {
+                continue;
+            }
+            if (entry.isReferenced()) {
+                // Segunda chance: lida desde a última passada do ponteiro.
+                ((Entry) entry).referenced = false;
+                add(candidate);
+            } else if (entries.remove(candidate, entry)) {
+                onEvicted.accept(candidate, entry);
+            } else {
+                // Substituída durante a passada: a chave continua no mapa e precisa continuar no relógio.
+                add(candidate);
+            }
+        }
+    }
+
+    /**
+     * Drops the keys of entries removed outside the clock. Walks the whole clock, so it belongs in a
+     * periodic sweep, not on the request path.
+     */
+    public void purge() {
+        clock.removeIf(key -> !entries.containsKey(key));
+        // A varredura já é O(n): recontar aqui corrige qualquer desvio do contador.
+        queued.set(clock.size());
+    }
+
+    /**
+     * Base of the map values, holding the mark the hand checks.
+     */
+    public abstract static class Entry {
+
+        private volatile boolean referenced;
+
+        /**
+         * Records a read; the entry survives the next pass of the hand.
+         */
+        public final void markReferenced() {
+            // Evita escrever num campo volatile a cada leitura de uma entrada já marcada.
+            if (!referenced) {
+                referenced = true;
+            }
+        }
+
+        public final boolean isReferenced() {
+            return referenced;
+        }
+    }
+}
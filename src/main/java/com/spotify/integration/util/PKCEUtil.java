@@ -2,6 +2,7 @@ package com.spotify.integration.util;
 
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -10,23 +11,45 @@ import java.util.Base64;
 @Component
 public class PKCEUtil {
 
-    public String generateCodeVerifier() {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
 
-        byte[] codeVerifier = new byte[32];
-        new SecureRandom().nextBytes(codeVerifier);
+    // Um por JVM: com threads virtuais, um por thread seria um por requisição. SecureRandom é thread-safe.
+    private static final SecureRandom RANDOM = new SecureRandom();
+    // MessageDigest não é thread-safe: cada cálculo usa um clone do protótipo, mais barato que getInstance.
+    private static final MessageDigest SHA_256 = _newDigest();
 
-        return Base64.
-                getUrlEncoder().
-                withoutPadding().
-                encodeToString(codeVerifier);
+    public String generateCodeVerifier() {
+        return _randomToken(32);
     }
 
     public String generateCodeChallenge(String codeVerifier) {
+        byte[] digest = _sha256().digest(codeVerifier.getBytes(StandardCharsets.US_ASCII));
+
+        return ENCODER.encodeToString(digest);
+    }
+
+    public String generateState() {
+        return _randomToken(16);
+    }
+
+    private static String _randomToken(int length) {
+        byte[] bytes = new byte[length];
+        RANDOM.nextBytes(bytes);
+
+        return ENCODER.encodeToString(bytes);
+    }
+
+    private static MessageDigest _sha256() {
         try {
-            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
-            byte[] digest = messageDigest.digest(codeVerifier.getBytes());
+            return (MessageDigest) SHA_256.clone();
+        } catch (CloneNotSupportedException exception) {
+            return _newDigest();
+        }
+    }
 
-            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    private static MessageDigest _newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
         } catch (NoSuchAlgorithmException exception) {
             throw new RuntimeException("SHA-256 algorithm not available", exception);
         }
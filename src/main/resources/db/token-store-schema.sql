@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS spotify_token (
+    session_id    VARCHAR(64)   NOT NULL PRIMARY KEY,
+    access_token  VARCHAR(4096) NOT NULL,
+    refresh_token VARCHAR(4096),
+    expires_at    BIGINT,
+    version       BIGINT        NOT NULL,
+    updated_at    BIGINT        NOT NULL,
+    last_access   BIGINT        NOT NULL,
+    lease_owner   VARCHAR(64),
+    lease_until   BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS spotify_token_updated_at ON spotify_token (updated_at);
+
+CREATE INDEX IF NOT EXISTS spotify_token_last_access ON spotify_token (last_access);
@@ -0,0 +1,104 @@
+package com.spotify.integration.analytics;
+
+import com.spotify.integration.dto.Album;
+import com.spotify.integration.dto.Artist;
+import com.spotify.integration.dto.Track;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ListeningAggregateTest {
+
+    private static final Map<String, List<String>> GENRES = Map.of(
+            "a0", List.of("rock", "indie"),
+            "a1", List.of("pop"),
+            "a2", List.of("jazz"),
+            "a3", List.of("rock"));
+
+    @Test
+    void appliedDiffMatchesFullRecount() {
+        Random random = new Random(42);
+        List<Track> catalog = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            catalog.add(_track("t" + i, "a" + random.nextInt(6), random.nextInt(101), 1950 + random.nextInt(80)));
+        }
+        List<Track> before = catalog.subList(0, 50);
+        List<Track> after = catalog.subList(30, 90);
+
+        ListeningAggregate incremental = new ListeningAggregate();
+        before.forEach(track -> incremental.add(track, GENRES::get, +1));
+        catalog.subList(0, 30).forEach(track -> incremental.add(track, GENRES::get, -1));
+        catalog.subList(50, 90).forEach(track -> incremental.add(track, GENRES::get, +1));
+
+        ListeningAggregate recount = new ListeningAggregate();
+        after.forEach(track -> recount.add(track, GENRES::get, +1));
+
+        _assertSameSummary(recount.toSummary(), incremental.toSummary());
+    }
+
+    @Test
+    void mergeMatchesSingleAggregateOverAllTracks() {
+        List<Track> tracks = List.of(
+                _track("t1", "a0", 55, 1999),
+                _track("t2", "a1", 100, 2021),
+                _track("t3", "a0", 7, 1975),
+                _track("t4", "a2", 64, 2010));
+
+        ListeningAggregate left = new ListeningAggregate();
+        left.add(tracks.get(0), GENRES::get, +1);
+        left.add(tracks.get(1), GENRES::get, +1);
+        ListeningAggregate right = new ListeningAggregate();
+        right.add(tracks.get(2), GENRES::get, +1);
+        right.add(tracks.get(3), GENRES::get, +1);
+        left.merge(right);
+
+        ListeningAggregate all = new ListeningAggregate();
+        tracks.forEach(track -> all.add(track, GENRES::get, +1));
+
+        RangeSummary summary = left.toSummary();
+        _assertSameSummary(all.toSummary(), summary);
+        assertEquals(4, summary.tracks());
+        assertEquals(new NameCount("Artist a0", 2), summary.topArtists().get(0));
+        assertEquals(1, summary.popularityHistogram()[10]);
+        assertEquals(Map.of("1970s", 1, "1990s", 1, "2010s", 1, "2020s", 1), summary.decades());
+    }
+
+    @Test
+    void releaseDateWithoutYearCountsAsUnknownDecade() {
+        Track track = _track("t1", "a0", 50, 2000);
+        track.getAlbum().setReleaseDate("0000");
+        ListeningAggregate aggregate = new ListeningAggregate();
+        aggregate.add(track, GENRES::get, +1);
+
+        assertEquals(Map.of("unknown", 1), aggregate.toSummary().decades());
+    }
+
+    private static void _assertSameSummary(RangeSummary expected, RangeSummary actual) {
+        assertEquals(expected.tracks(), actual.tracks());
+        assertEquals(expected.averagePopularity(), actual.averagePopularity(), 1e-9);
+        assertEquals(expected.topArtists(), actual.topArtists());
+        assertEquals(expected.topGenres(), actual.topGenres());
+        assertArrayEquals(expected.popularityHistogram(), actual.popularityHistogram());
+        assertEquals(expected.decades(), actual.decades());
+    }
+
+    private static Track _track(String id, String artistId, int popularity, int year) {
+        Artist artist = new Artist();
+        artist.setId(artistId);
+        artist.setName("Artist " + artistId);
+        Album album = new Album();
+        album.setReleaseDate(year + "-01-01");
+        Track track = new Track();
+        track.setId(id);
+        track.setPopularity(popularity);
+        track.setArtists(List.of(artist));
+        track.setAlbum(album);
+        return track;
+    }
+}
@@ -0,0 +1,148 @@
+package com.spotify.integration.analytics;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.spotify.integration.dto.Album;
+import com.spotify.integration.dto.Artist;
+import com.spotify.integration.dto.Track;
+import com.spotify.integration.service.SpotifyAuthService;
+import com.spotify.integration.service.SpotifyBatchLookupService;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ListeningAnalyticsServiceTest {
+
+    private static final Map<String, List<String>> GENRES = Map.of(
+            "a0", List.of("rock", "indie"),
+            "a1", List.of("pop"),
+            "a2", List.of("jazz"));
+
+    private final Map<String, List<Track>> topTracks = new ConcurrentHashMap<>();
+    private final AtomicInteger interactiveFetches = new AtomicInteger();
+    private final AtomicInteger backgroundFetches = new AtomicInteger();
+
+    @Test
+    void expiredProfileIsUpdatedFromItsPreviousState() {
+        // TTL zero: toda leitura recalcula, mas o estado anterior continua retido como base.
+        ListeningAnalyticsService service = _service(Duration.ZERO);
+        List<Track> catalog = _catalog(40);
+        topTracks.put("s1", catalog.subList(0, 20));
+        service.getListeningProfile("s1").block(Duration.ofSeconds(5));
+
+        topTracks.put("s1", catalog.subList(10, 35));
+        service.evictExpired();
+        ListeningProfile updated = service.getListeningProfile("s1").block(Duration.ofSeconds(5));
+
+        assertEquals(1, service.getFullComputations());
+        assertEquals(1, service.getIncrementalUpdates());
+        RangeSummary expected = _recount(catalog.subList(10, 35));
+        for (TimeRange range : TimeRange.values()) {
+            _assertSameSummary(expected, updated.ranges().get(range.getValue()));
+        }
+    }
+
+    @Test
+    void aggregateAcrossSessionsMatchesOneRecountOverAllTracks() {
+        ListeningAnalyticsService service = _service(Duration.ofMinutes(30));
+        List<Track> catalog = _catalog(60);
+        topTracks.put("s1", catalog.subList(0, 25));
+        topTracks.put("s2", catalog.subList(25, 60));
+
+        ListeningProfile combined = service.aggregateAcross(List.of("s1", "s2", "unknown")).block(Duration.ofSeconds(5));
+
+        RangeSummary expected = _recount(catalog);
+        for (TimeRange range : TimeRange.values()) {
+            _assertSameSummary(expected, combined.ranges().get(range.getValue()));
+        }
+    }
+
+    @Test
+    void aggregateReadsSessionsInTheBackground() {
+        ListeningAnalyticsService service = _service(Duration.ofMinutes(30));
+        topTracks.put("s1", _catalog(10));
+
+        service.aggregateAcross(List.of("s1")).block(Duration.ofSeconds(5));
+        assertEquals(0, interactiveFetches.get());
+        assertEquals(TimeRange.values().length, backgroundFetches.get());
+
+        service.getListeningProfile("s2").onErrorResume(e -> Mono.empty()).block(Duration.ofSeconds(5));
+        assertEquals(TimeRange.values().length, interactiveFetches.get());
+    }
+
+    private ListeningAnalyticsService _service(Duration ttl) {
+        SpotifyAuthService spotifyAuthService = new SpotifyAuthService(null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> Flux<T> streamAllPages(String sessionId, String path, ObjectReader pageReader) {
+                interactiveFetches.incrementAndGet();
+                return (Flux<T>) _topTracks(sessionId);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> Flux<T> streamAllPagesInBackground(String sessionId, String path, ObjectReader pageReader) {
+                backgroundFetches.incrementAndGet();
+                return (Flux<T>) _topTracks(sessionId);
+            }
+        };
+        SpotifyBatchLookupService batchLookupService = new SpotifyBatchLookupService(null, null, null, Duration.ofMillis(20), 50) {
+            @Override
+            public Mono<Artist> getArtist(String artistId) {
+                Artist artist = new Artist();
+                artist.setId(artistId);
+                artist.setGenres(GENRES.getOrDefault(artistId, List.of()));
+                return Mono.just(artist);
+            }
+        };
+        return new ListeningAnalyticsService(spotifyAuthService, batchLookupService, ttl, Duration.ofHours(6), 1000, 4, 100);
+    }
+
+    private Flux<Track> _topTracks(String sessionId) {
+        List<Track> tracks = topTracks.get(sessionId);
+        return tracks != null ? Flux.fromIterable(tracks) : Flux.error(new IllegalStateException("sessão desconhecida"));
+    }
+
+    private static RangeSummary _recount(List<Track> tracks) {
+        ListeningAggregate aggregate = new ListeningAggregate();
+        tracks.forEach(track -> aggregate.add(track, GENRES::get, +1));
+        return aggregate.toSummary();
+    }
+
+    private static void _assertSameSummary(RangeSummary expected, RangeSummary actual) {
+        assertEquals(expected.tracks(), actual.tracks());
+        assertEquals(expected.averagePopularity(), actual.averagePopularity(), 1e-9);
+        assertEquals(expected.topArtists(), actual.topArtists());
+        assertEquals(expected.topGenres(), actual.topGenres());
+        assertArrayEquals(expected.popularityHistogram(), actual.popularityHistogram());
+        assertEquals(expected.decades(), actual.decades());
+    }
+
+    private static List<Track> _catalog(int size) {
+        List<Track> catalog = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Artist artist = new Artist();
+            artist.setId("a" + i % 4);
+            artist.setName("Artist a" + i % 4);
+            Album album = new Album();
+            album.setReleaseDate((1960 + i * 3) + "-01-01");
+            Track track = new Track();
+            track.setId("t" + i);
+            track.setPopularity(i * 7 % 101);
+            track.setArtists(List.of(artist));
+            track.setAlbum(album);
+            catalog.add(track);
+        }
+        return catalog;
+    }
+}
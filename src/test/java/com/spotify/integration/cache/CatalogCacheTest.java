@@ -0,0 +1,51 @@
+package com.spotify.integration.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogCacheTest {
+
+    @Test
+    void entriesAreSharedByTypeAndId() {
+        CatalogCache cache = new CatalogCache(Duration.ofHours(1), 1024);
+
+        cache.put("track", "t1", "track one", 100);
+
+        assertEquals("track one", cache.get("track", "t1"));
+        assertNull(cache.get("artist", "t1"));
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void weightStaysWithinBoundAndReferencedEntriesSurvive() {
+        CatalogCache cache = new CatalogCache(Duration.ofHours(1), 1000);
+
+        cache.put("track", "hot", "hot", 100);
+        for (int i = 0; i < 50; i++) {
+            cache.get("track", "hot");
+            cache.put("track", "t" + i, "track " + i, 100);
+        }
+
+        assertTrue(cache.stats().weightBytes() <= 1000, "weight " + cache.stats().weightBytes());
+        assertEquals("hot", cache.get("track", "hot"));
+        assertTrue(cache.stats().evictions() > 0);
+    }
+
+    @Test
+    void expiredEntriesAreDroppedOnRead() throws InterruptedException {
+        CatalogCache cache = new CatalogCache(Duration.ofMillis(20), 1024);
+
+        cache.put("album", "a1", "album", 100);
+        Thread.sleep(50);
+
+        assertNull(cache.get("album", "a1"));
+        assertEquals(0, cache.stats().entries());
+        assertEquals(0, cache.stats().weightBytes());
+    }
+}
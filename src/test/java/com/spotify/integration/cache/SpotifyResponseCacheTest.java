@@ -0,0 +1,159 @@
+package com.spotify.integration.cache;
+
+import com.spotify.integration.client.InFlightRequestCoalescer;
+import com.spotify.integration.client.LatencyBudgets;
+import com.spotify.integration.client.RequestHedger;
+import com.spotify.integration.client.SpotifyRequestScheduler;
+import com.spotify.integration.dto.UserProfile;
+import com.spotify.integration.metrics.SampledErrorLog;
+import com.spotify.integration.metrics.SpotifyMetrics;
+import com.spotify.integration.prefetch.ActivityTracker;
+import com.spotify.integration.service.SpotifyAuthService;
+import com.spotify.integration.token.InMemoryTokenStore;
+import com.spotify.integration.token.SpotifyToken;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the profile endpoint of {@link SpotifyAuthService} against a local stub to check how
+ * {@link SpotifyResponseCache} entries are revalidated, renewed and served stale.
+ */
+class SpotifyResponseCacheTest {
+
+    private static final Duration PROFILE_TTL = Duration.ofMillis(200);
+
+    private HttpServer stub;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private volatile String etag = "\"v1\"";
+    private volatile int latencyMs;
+
+    private SpotifyResponseCache cache;
+    private SpotifyAuthService service;
+
+    @BeforeEach
+    void start() throws Exception {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.createContext("/v1/me", exchange -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String current = etag;
+            exchange.getResponseHeaders().add("ETag", current);
+            if (current.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = ("{\"id\":\"user\",\"display_name\":" + current + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.start();
+
+        InMemoryTokenStore tokenStore = new InMemoryTokenStore(100, Duration.ofHours(1));
+        tokenStore.save("session", new SpotifyToken("access", "refresh", Instant.now().plus(Duration.ofHours(1))));
+        cache = new SpotifyResponseCache(PROFILE_TTL, PROFILE_TTL, PROFILE_TTL, 1024 * 1024);
+        service = new SpotifyAuthService(null, null,
+                WebClient.create("http://127.0.0.1:" + stub.getAddress().getPort()),
+                tokenStore, null, null, null, cache, null,
+                new SpotifyRequestScheduler(1000, 1000, 16, 100, 0, Duration.ofSeconds(1)),
+                new InFlightRequestCoalescer(),
+                new LatencyBudgets(new MockEnvironment().withProperty("spotify.timeouts.profile", "PT0.3S")),
+                new RequestHedger(false, 0.95, Duration.ofMillis(50)),
+                new SpotifyMetrics(new SimpleMeterRegistry()),
+                new SampledErrorLog(5),
+                new ActivityTracker(Duration.ofMinutes(15), 100));
+    }
+
+    @AfterEach
+    void stop() {
+        stub.stop(0);
+    }
+
+    @Test
+    void freshEntryIsServedWithoutCallingSpotify() {
+        UserProfile first = _profile();
+        UserProfile second = _profile();
+
+        assertSame(first, second);
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    void notModifiedRenewsTheStaleEntry() throws InterruptedException {
+        UserProfile first = _profile();
+        Thread.sleep(PROFILE_TTL.toMillis() + 100);
+
+        UserProfile revalidated = _profile();
+
+        assertSame(first, revalidated);
+        assertEquals(1, notModified.get());
+        assertEquals(1, cache.stats().revalidations());
+        assertTrue(cache.peek("session", CachedEndpoint.PROFILE).isFresh(), "o 304 deveria renovar a entrada");
+
+        // Renovada, a entrada volta a responder sem chamar o Spotify.
+        assertSame(first, _profile());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void changedEtagReplacesTheEntry() throws InterruptedException {
+        UserProfile first = _profile();
+        Thread.sleep(PROFILE_TTL.toMillis() + 100);
+        etag = "\"v2\"";
+
+        UserProfile changed = _profile();
+
+        assertEquals("v1", first.getDisplayName());
+        assertEquals("v2", changed.getDisplayName());
+        assertEquals(0, notModified.get());
+        assertEquals(1, cache.stats().revalidationMisses());
+        assertEquals("\"v2\"", cache.peek("session", CachedEndpoint.PROFILE).getEtag());
+    }
+
+    @Test
+    void staleEntryIsServedWhenSpotifyIsTooSlow() throws InterruptedException {
+        UserProfile first = _profile();
+        Thread.sleep(PROFILE_TTL.toMillis() + 100);
+        latencyMs = 2_000;
+
+        long start = System.nanoTime();
+        UserProfile stale = _profile();
+
+        assertSame(first, stale);
+        assertTrue(System.nanoTime() - start < 1_500_000_000L, "o cache vencido deveria responder no prazo do endpoint");
+        assertFalse(cache.peek("session", CachedEndpoint.PROFILE).isFresh(), "a entrada vencida não deveria ser renovada");
+    }
+
+    private UserProfile _profile() {
+        return service.getUserProfile("session").block(Duration.ofSeconds(5));
+    }
+}
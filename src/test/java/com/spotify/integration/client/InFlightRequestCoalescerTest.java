@@ -0,0 +1,103 @@
+package com.spotify.integration.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InFlightRequestCoalescerTest {
+
+    private final InFlightRequestCoalescer coalescer = new InFlightRequestCoalescer();
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private final AtomicInteger cancellations = new AtomicInteger();
+
+    @Test
+    void concurrentIdenticalGetsShareOneUpstreamCall() {
+        Sinks.One<String> upstream = Sinks.one();
+
+        Mono<String> first = _execute("session", "/v1/me", RequestPriority.INTERACTIVE, upstream.asMono()).cache();
+        Mono<String> second = _execute("session", "/v1/me", RequestPriority.INTERACTIVE, upstream.asMono()).cache();
+        first.subscribe();
+        second.subscribe();
+        upstream.tryEmitValue("profile");
+
+        assertEquals("profile", first.block(Duration.ofSeconds(1)));
+        assertEquals("profile", second.block(Duration.ofSeconds(1)));
+        assertEquals(1, subscriptions.get());
+        assertEquals(1, coalescer.getExecuted());
+        assertEquals(1, coalescer.getCollapsed());
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    void differentSessionsAreNotCollapsed() {
+        _execute("first", "/v1/me", RequestPriority.INTERACTIVE, Mono.never()).subscribe();
+        _execute("second", "/v1/me", RequestPriority.INTERACTIVE, Mono.never()).subscribe();
+
+        assertEquals(2, subscriptions.get());
+        assertEquals(0, coalescer.getCollapsed());
+    }
+
+    @Test
+    void interactiveRequestDoesNotJoinABackgroundPrefetch() {
+        _execute("session", "/v1/me", RequestPriority.BACKGROUND, Mono.never()).subscribe();
+        _execute("session", "/v1/me", RequestPriority.INTERACTIVE, Mono.never()).subscribe();
+
+        assertEquals(2, subscriptions.get());
+        assertEquals(2, coalescer.getExecuted());
+        assertEquals(0, coalescer.getCollapsed());
+    }
+
+    @Test
+    void upstreamCallSurvivesUntilTheLastCallerCancels() {
+        Disposable first = _execute("session", "/v1/me", RequestPriority.INTERACTIVE, Mono.never()).subscribe();
+        Disposable second = _execute("session", "/v1/me", RequestPriority.INTERACTIVE, Mono.never()).subscribe();
+
+        first.dispose();
+        assertEquals(0, cancellations.get());
+        assertEquals(1, coalescer.getInFlight());
+
+        second.dispose();
+        assertEquals(1, cancellations.get());
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    void requestAfterCompletionStartsANewUpstreamCall() {
+        assertEquals("profile", _execute("session", "/v1/me", RequestPriority.INTERACTIVE, Mono.just("profile")).block());
+        assertEquals("profile", _execute("session", "/v1/me", RequestPriority.INTERACTIVE, Mono.just("profile")).block());
+
+        assertEquals(2, subscriptions.get());
+        assertEquals(0, coalescer.getCollapsed());
+    }
+
+    @Test
+    void errorIsDeliveredToEveryCaller() {
+        Sinks.One<String> upstream = Sinks.one();
+        Mono<String> first = _execute("session", "/v1/me", RequestPriority.INTERACTIVE, upstream.asMono()).cache();
+        Mono<String> second = _execute("session", "/v1/me", RequestPriority.INTERACTIVE, upstream.asMono()).cache();
+        first.subscribe(null, e -> {
+        });
+        second.subscribe(null, e -> {
+        });
+        upstream.tryEmitError(new IllegalStateException("503"));
+
+        assertTrue(first.onErrorResume(e -> Mono.just(e.getMessage())).block().contains("503"));
+        assertTrue(second.onErrorResume(e -> Mono.just(e.getMessage())).block().contains("503"));
+        assertEquals(1, subscriptions.get());
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    private Mono<String> _execute(String sessionId, String uri, RequestPriority priority, Mono<String> upstream) {
+        return coalescer.execute(sessionId, HttpMethod.GET, uri, priority, () -> upstream
+                .doOnSubscribe(subscription -> subscriptions.incrementAndGet())
+                .doOnCancel(cancellations::incrementAndGet));
+    }
+}
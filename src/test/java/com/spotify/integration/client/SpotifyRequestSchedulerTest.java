@@ -0,0 +1,130 @@
+package com.spotify.integration.client;
+
+import com.spotify.integration.exception.SpotifyRateLimitedException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpotifyRequestSchedulerTest {
+
+    private HttpServer stub;
+    private final AtomicInteger calls = new AtomicInteger();
+    private volatile int rateLimitedCalls;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.createContext("/v1/me", exchange -> {
+            if (calls.incrementAndGet() <= rateLimitedCalls) {
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                exchange.sendResponseHeaders(429, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.stop(0);
+    }
+
+    @Test
+    void pausesForRetryAfterAndRetries() {
+        rateLimitedCalls = 1;
+        SpotifyRequestScheduler scheduler = new SpotifyRequestScheduler(100, 100, 4, 100, 3, Duration.ofSeconds(1));
+
+        long start = System.nanoTime();
+        String body = scheduler.submit(RequestPriority.INTERACTIVE, this::_callStub).block(Duration.ofSeconds(10));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertEquals("ok", body);
+        assertEquals(2, calls.get());
+        assertTrue(elapsedMillis >= 900, "should wait for Retry-After, waited " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void failsWithRateLimitedExceptionWhenRetriesAreExhausted() {
+        rateLimitedCalls = Integer.MAX_VALUE;
+        SpotifyRequestScheduler scheduler = new SpotifyRequestScheduler(100, 100, 4, 100, 1, Duration.ofSeconds(1));
+
+        assertThrows(SpotifyRateLimitedException.class,
+                () -> scheduler.submit(RequestPriority.INTERACTIVE, this::_callStub).block(Duration.ofSeconds(10)));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void rejectsImmediatelyWhenQueueIsFull() {
+        SpotifyRequestScheduler scheduler = new SpotifyRequestScheduler(100, 100, 1, 1, 0, Duration.ofSeconds(1));
+
+        scheduler.submit(RequestPriority.INTERACTIVE, Mono::<String>never).subscribe();
+        scheduler.submit(RequestPriority.INTERACTIVE, Mono::<String>never).subscribe();
+
+        assertThrows(SpotifyRateLimitedException.class,
+                () -> scheduler.submit(RequestPriority.INTERACTIVE, () -> Mono.just("late")).block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void drainsTokenLaneBeforeDataFetches() {
+        SpotifyRequestScheduler scheduler = new SpotifyRequestScheduler(100, 100, 1, 100, 0, Duration.ofSeconds(1));
+        Sinks.One<String> blocker = Sinks.one();
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        scheduler.submit(RequestPriority.INTERACTIVE, blocker::asMono).subscribe();
+        Mono<String> data = scheduler.submit(RequestPriority.INTERACTIVE, () -> Mono.fromCallable(() -> _record(order, "data")));
+        Mono<String> token = scheduler.submit(RequestPriority.TOKEN, () -> Mono.fromCallable(() -> _record(order, "token")));
+        data.subscribe();
+        token.subscribe();
+
+        blocker.tryEmitValue("done");
+
+        assertEquals(List.of("token", "data"), order);
+    }
+
+    @Test
+    void supplierThrowingFailsOnlyItsOwnRequest() {
+        SpotifyRequestScheduler scheduler = new SpotifyRequestScheduler(100, 100, 1, 100, 0, Duration.ofSeconds(1));
+
+        assertThrows(IllegalArgumentException.class, () -> scheduler.submit(RequestPriority.INTERACTIVE, () -> {
+            throw new IllegalArgumentException("bad uri");
+        }).block(Duration.ofSeconds(1)));
+
+        assertEquals("ok", scheduler.submit(RequestPriority.INTERACTIVE, () -> Mono.just("ok")).block(Duration.ofSeconds(1)));
+        assertEquals(0, scheduler.getInFlight());
+    }
+
+    private Mono<String> _callStub() {
+        return WebClient.create("http://127.0.0.1:" + stub.getAddress().getPort())
+                .get()
+                .uri("/v1/me")
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+
+    private static String _record(List<String> order, String name) {
+        order.add(name);
+        return name;
+    }
+}
@@ -0,0 +1,156 @@
+package com.spotify.integration.client;
+
+import com.spotify.integration.exception.SpotifyUpstreamUnavailableException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exercises timeouts, hedging and the circuit breaker against a local stub that injects latency and errors.
+ */
+class TailLatencyProtectionTest {
+
+    private HttpServer stub;
+    private final AtomicInteger calls = new AtomicInteger();
+    private volatile int slowCallNumber = -1;
+    private volatile int latencyMs;
+    private volatile int status = 200;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.createContext("/v1/me", exchange -> {
+            int call = calls.incrementAndGet();
+            try {
+                Thread.sleep(call == slowCallNumber ? 2_000 : latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.stop(0);
+    }
+
+    @Test
+    void latencyBudgetFailsSlowCalls() {
+        latencyMs = 1_000;
+        LatencyBudgets budgets = new LatencyBudgets(new MockEnvironment().withProperty("spotify.timeouts.profile", "PT0.1S"));
+
+        long start = System.nanoTime();
+        assertThrows(SpotifyUpstreamUnavailableException.class,
+                () -> budgets.apply("profile", _callStub(WebClient.create(_baseUrl()))).block(Duration.ofSeconds(5)));
+        assertTrue(System.nanoTime() - start < 900_000_000L);
+    }
+
+    @Test
+    void hedgedRequestAnswersWhenThePrimaryStalls() {
+        RequestHedger hedger = new RequestHedger(true, 0.95, Duration.ofMillis(10));
+        WebClient client = WebClient.create(_baseUrl());
+        for (int i = 0; i < 40; i++) {
+            hedger.hedge("profile", () -> _callStub(client)).block(Duration.ofSeconds(5));
+        }
+
+        slowCallNumber = calls.get() + 1;
+        long start = System.nanoTime();
+        long winsBefore = hedger.getHedgeWins();
+        String body = hedger.hedge("profile", () -> _callStub(client)).block(Duration.ofSeconds(5));
+
+        assertEquals("ok", body);
+        assertTrue(System.nanoTime() - start < 1_000_000_000L, "o hedge deveria responder antes da tentativa lenta");
+        assertEquals(winsBefore + 1, hedger.getHedgeWins());
+    }
+
+    @Test
+    void openCircuitFailsFastWithoutCallingTheHost() {
+        status = 503;
+        CircuitBreaker breaker = new CircuitBreaker(10, 5, 0.5, Duration.ofMinutes(1).toNanos(), 1);
+        WebClient client = WebClient.builder()
+                .baseUrl(_baseUrl())
+                .filter(new CircuitBreakerFilter(breaker, "api"))
+                .build();
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(RuntimeException.class, () -> _callStub(client).block(Duration.ofSeconds(5)));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        int before = calls.get();
+        assertThrows(SpotifyUpstreamUnavailableException.class, () -> _callStub(client).block(Duration.ofSeconds(5)));
+        assertEquals(before, calls.get());
+    }
+
+    @Test
+    void successfulProbeClosesTheCircuit() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(10, 2, 0.5, Duration.ofMillis(50).toNanos(), 1);
+        breaker.onFailure(breaker.tryAcquire());
+        breaker.onFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(100);
+        WebClient client = WebClient.builder()
+                .baseUrl(_baseUrl())
+                .filter(new CircuitBreakerFilter(breaker, "api"))
+                .build();
+        assertEquals("ok", _callStub(client).block(Duration.ofSeconds(5)));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void callAdmittedWhileClosedIsNotCountedAsAProbe() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(10, 2, 0.5, Duration.ofMillis(50).toNanos(), 1);
+        long slowSuccess = breaker.tryAcquire();
+        long slowFailure = breaker.tryAcquire();
+        breaker.onFailure(breaker.tryAcquire());
+        breaker.onFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(100);
+        long probe = breaker.tryAcquire();
+        assertNotEquals(CircuitBreaker.REJECTED, probe);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // Chamadas antigas terminando agora não fecham, não reabrem e não liberam a vaga da sonda.
+        breaker.onSuccess(slowSuccess);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onFailure(slowFailure);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+
+        breaker.onSuccess(probe);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private Mono<String> _callStub(WebClient client) {
+        return client.get().uri("/v1/me").retrieve().bodyToMono(String.class);
+    }
+
+    private String _baseUrl() {
+        return "http://127.0.0.1:" + stub.getAddress().getPort();
+    }
+}
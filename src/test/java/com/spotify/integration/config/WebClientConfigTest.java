@@ -0,0 +1,199 @@
+package com.spotify.integration.config;
+
+import com.spotify.integration.client.SpotifyCircuitBreakers;
+import com.spotify.integration.metrics.SpotifyMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.netty.handler.timeout.ReadTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Builds the clients from {@link WebClientConfig} against a local stub, with settings from a mock environment.
+ */
+class WebClientConfigTest {
+
+    // Maior que os 256 KiB que o Spring aceita por padrão.
+    private static final int LARGE_BODY = 400 * 1024;
+
+    private HttpServer stub;
+    // Portas de origem vistas pelo stub: uma por conexão TCP aberta pelo cliente.
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+    @BeforeEach
+    void startStub() throws Exception {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.createContext("/v1/large", exchange -> {
+            byte[] body = new byte[LARGE_BODY];
+            Arrays.fill(body, (byte) ' ');
+            body[0] = '{';
+            body[LARGE_BODY - 1] = '}';
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.createContext("/v1/port", exchange -> {
+            int port = exchange.getRemoteAddress().getPort();
+            clientPorts.add(port);
+            _respond(exchange, "{\"port\":" + port + "}");
+        });
+        stub.createContext("/v1/slow", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(Long.parseLong(exchange.getRequestURI().getQuery().substring("ms=".length())));
+                _respond(exchange, "{}");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.stop(0);
+    }
+
+    @Test
+    void bodyLargerThanTheSpringDefaultIsBuffered() {
+        WebClient client = _apiClient(new MockEnvironment());
+
+        DataBuffer body = client.get().uri("/v1/large").retrieve().bodyToMono(DataBuffer.class).block(Duration.ofSeconds(5));
+
+        assertEquals(LARGE_BODY, body.readableByteCount());
+        DataBufferUtils.release(body);
+    }
+
+    @Test
+    void bodyAboveTheConfiguredLimitIsRejected() {
+        WebClient client = _apiClient(new MockEnvironment().withProperty("spotify.http.api.max-in-memory-size", "65536"));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> client.get().uri("/v1/large").retrieve().bodyToMono(DataBuffer.class).block(Duration.ofSeconds(5)));
+        assertTrue(_causedBy(e, DataBufferLimitException.class), e.toString());
+    }
+
+    @Test
+    void idlePooledConnectionIsReusedAfterTheWriteAndResponseTimeouts() throws InterruptedException {
+        // Regressão: timeouts de leitura/escrita instalados na conexão fechavam conexões ociosas do pool.
+        WebClient client = _apiClient(new MockEnvironment()
+                .withProperty("spotify.http.api.read-timeout", "PT0.2S")
+                .withProperty("spotify.http.api.write-timeout", "PT0.2S")
+                .withProperty("spotify.http.api.response-timeout", "PT0.2S")
+                .withProperty("spotify.http.api.max-idle-time", "PT30S"));
+
+        String first = client.get().uri("/v1/port").retrieve().bodyToMono(String.class).block(Duration.ofSeconds(5));
+        Thread.sleep(600);
+        String second = client.get().uri("/v1/port").retrieve().bodyToMono(String.class).block(Duration.ofSeconds(5));
+
+        assertEquals(first, second);
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    void responseSlowerThanTheConfiguredTimeoutFails() {
+        WebClient client = _apiClient(new MockEnvironment().withProperty("spotify.http.api.response-timeout", "PT0.2S"));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> client.get().uri("/v1/slow?ms=1000").retrieve().bodyToMono(String.class).block(Duration.ofSeconds(5)));
+        assertTrue(_causedBy(e, ReadTimeoutException.class), e.toString());
+
+        // O limite vale por requisição: uma resposta dentro do prazo passa no mesmo cliente.
+        assertEquals("{}", client.get().uri("/v1/slow?ms=10").retrieve().bodyToMono(String.class).block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void connectionsPerHostAreCappedByTheHostPool() {
+        WebClient api = _apiClient(new MockEnvironment().withProperty("spotify.http.api.max-connections", "2"));
+
+        List<String> bodies = Flux.range(0, 6)
+                .flatMap(i -> api.get().uri("/v1/slow?ms=150").retrieve().bodyToMono(String.class))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(6, bodies.size());
+        assertEquals(2, maxConcurrent.get());
+        assertEquals(2, clientPorts.size());
+    }
+
+    @Test
+    void eachHostHasItsOwnPool() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spotify.http.api.max-connections", "1")
+                .withProperty("spotify.http.accounts.base-url", "http://127.0.0.1:" + stub.getAddress().getPort());
+        WebClientConfig config = _config(environment);
+        WebClient api = config.spotifyApiWebClient();
+        WebClient accounts = config.spotifyAccountsWebClient();
+
+        // Com a única conexão do host api ocupada, o host accounts ainda abre a sua.
+        List<String> bodies = Mono.zip(
+                        api.get().uri("/v1/slow?ms=300").retrieve().bodyToMono(String.class),
+                        accounts.get().uri("/v1/slow?ms=300").retrieve().bodyToMono(String.class))
+                .map(both -> List.of(both.getT1(), both.getT2()))
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(List.of("{}", "{}"), bodies);
+        assertEquals(2, maxConcurrent.get());
+        assertEquals(2, clientPorts.size());
+    }
+
+    private static void _respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static boolean _causedBy(Throwable e, Class<? extends Throwable> type) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private WebClient _apiClient(MockEnvironment environment) {
+        return _config(environment).spotifyApiWebClient();
+    }
+
+    private WebClientConfig _config(MockEnvironment environment) {
+        environment.setProperty("spotify.http.api.base-url", "http://127.0.0.1:" + stub.getAddress().getPort());
+        return new WebClientConfig(environment, new SpotifyMetrics(new SimpleMeterRegistry()), new SpotifyCircuitBreakers(environment));
+    }
+}
@@ -0,0 +1,43 @@
+package com.spotify.integration.exception;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.spotify.integration.config.SpotifyJson;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SpotifyUpstreamExceptionTest {
+
+    @Test
+    void oneStacklessInstanceIsSharedPerStatus() {
+        SpotifyUpstreamException first = SpotifyUpstreamException.forStatus(502);
+        first.addSuppressed(new IllegalStateException("ignorada"));
+
+        assertSame(first, SpotifyUpstreamException.forStatus(502));
+        assertEquals(502, first.getStatus());
+        assertEquals(0, first.getStackTrace().length);
+        assertEquals(0, first.getSuppressed().length);
+        assertEquals(500, SpotifyUpstreamException.forStatus(200).getStatus());
+    }
+
+    @Test
+    void upstreamStatusesMapToApiErrors() {
+        assertEquals(ApiError.SESSION_EXPIRED, ApiError.forUpstreamStatus(401));
+        assertEquals(ApiError.FORBIDDEN, ApiError.forUpstreamStatus(403));
+        assertEquals(ApiError.NOT_FOUND, ApiError.forUpstreamStatus(404));
+        assertEquals(ApiError.BAD_REQUEST, ApiError.forUpstreamStatus(400));
+        assertEquals(ApiError.UPSTREAM_ERROR, ApiError.forUpstreamStatus(503));
+    }
+
+    @Test
+    void precomputedBodiesCarryMessageAndCode() throws IOException {
+        for (ApiError error : ApiError.values()) {
+            JsonNode body = SpotifyJson.MAPPER.readTree(error.getBody());
+            assertEquals(error.getCode(), body.get("code").asText());
+            assertEquals(2, body.size());
+        }
+    }
+}
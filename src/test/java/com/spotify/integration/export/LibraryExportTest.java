@@ -0,0 +1,81 @@
+package com.spotify.integration.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.spotify.integration.config.SpotifyJson;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LibraryExportTest {
+
+    @Test
+    void writesOneGzippedJsonLinePerRecord() throws IOException {
+        Flux<ExportRecord> records = Flux.just(
+                new ExportRecord("profile", null, Map.of("id", "user")),
+                new ExportRecord("playlist", null, Map.of("id", "p1")),
+                new ExportRecord("playlist_track", "p1", Map.of("id", "t1")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = new LibraryExport(records, 4, 1024).writeTo(out);
+
+        List<String> lines = _gunzipLines(out.toByteArray());
+        assertEquals(3, written);
+        assertEquals(3, lines.size());
+        JsonNode track = SpotifyJson.MAPPER.readTree(lines.get(2));
+        assertEquals("playlist_track", track.get("type").asText());
+        assertEquals("p1", track.get("playlist_id").asText());
+        assertEquals("t1", track.get("data").get("id").asText());
+        assertFalse(SpotifyJson.MAPPER.readTree(lines.get(0)).has("playlist_id"));
+    }
+
+    @Test
+    void upstreamIsPulledOnlyAsFastAsTheOutputIsWrittenAndCancelledOnFailure() {
+        AtomicLong requested = new AtomicLong();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Flux<ExportRecord> endless = Flux.<ExportRecord, Long>generate(() -> 0L, (i, sink) -> {
+                    sink.next(new ExportRecord("top_track", null, Map.of("id", "t" + i)));
+                    return i + 1;
+                })
+                .doOnRequest(requested::addAndGet)
+                .doOnCancel(() -> cancelled.set(true));
+        OutputStream failing = new OutputStream() {
+            private long bytes;
+
+            @Override
+            public void write(int b) throws IOException {
+                if (++bytes > 64 * 1024) {
+                    throw new IOException("client went away");
+                }
+            }
+        };
+
+        assertThrows(IOException.class, () -> new LibraryExport(endless, 16, 1024).writeTo(failing));
+        assertTrue(cancelled.get());
+        // Sem backpressure o gerador infinito nunca pararia; aqui ele só produz o que foi pedido.
+        assertTrue(requested.get() < 1_000_000, "requested " + requested.get());
+    }
+
+    private static List<String> _gunzipLines(byte[] gzipped) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(gzipped)), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+}
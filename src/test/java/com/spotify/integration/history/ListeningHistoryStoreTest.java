@@ -0,0 +1,85 @@
+package com.spotify.integration.history;
+
+import com.spotify.integration.dto.Artist;
+import com.spotify.integration.dto.Track;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ListeningHistoryStoreTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    void countsPlaysPerTrackAndArtistInsideTheWindowOnly() {
+        ListeningHistoryStore store = new ListeningHistoryStore(Duration.ofDays(36500));
+        Track a = _track("a", "Song A", "x");
+        Track b = _track("b", "Song B", "x", "y");
+        Track c = _track("c", "Song C", "y");
+
+        store.append("s1", new long[]{_at(0), _at(1), _at(2), _at(3), _at(4), _at(10)},
+                new Track[]{a, b, a, c, a, b});
+
+        List<PlayCount> topTracks = store.topTracks("s1", T0, T0.plusSeconds(5), 10);
+        assertEquals(3, topTracks.size());
+        assertEquals(new PlayCount("a", "Song A", 3), topTracks.get(0));
+
+        List<PlayCount> topArtists = store.topArtists("s1", T0, T0.plusSeconds(5), 1);
+        assertEquals(List.of(new PlayCount("x", "Artist x", 4)), topArtists);
+
+        assertEquals(List.of(new PlayCount("b", "Song B", 1)), store.topTracks("s1", T0.plusSeconds(5), T0.plusSeconds(60), 10));
+        assertTrue(store.topTracks("other", T0, T0.plusSeconds(60), 10).isEmpty());
+    }
+
+    @Test
+    void outOfOrderAppendKeepsTheTimeColumnSorted() {
+        ListeningHistoryStore store = new ListeningHistoryStore(Duration.ofDays(36500));
+        Track a = _track("a", "Song A", "x");
+        Track b = _track("b", "Song B", "x");
+
+        store.append("s1", new long[]{_at(10), _at(20)}, new Track[]{a, a});
+        store.append("s1", new long[]{_at(15)}, new Track[]{b});
+
+        assertEquals(List.of(new PlayCount("b", "Song B", 1)), store.topTracks("s1", T0.plusSeconds(12), T0.plusSeconds(18), 10));
+        assertEquals(3, store.getPlays());
+    }
+
+    @Test
+    void playsOlderThanTheRetentionAreDropped() {
+        ListeningHistoryStore store = new ListeningHistoryStore(Duration.ofHours(1));
+        long now = System.currentTimeMillis();
+        Track a = _track("a", "Song A", "x");
+
+        store.append("old", new long[]{now - Duration.ofHours(3).toMillis()}, new Track[]{a});
+        store.append("mixed", new long[]{now - Duration.ofHours(2).toMillis(), now - 1000}, new Track[]{a, a});
+        store.evictExpired();
+
+        assertEquals(1, store.getSessions());
+        assertEquals(1, store.getPlays());
+    }
+
+    private static long _at(int seconds) {
+        return T0.plusSeconds(seconds).toEpochMilli();
+    }
+
+    private static Track _track(String id, String name, String... artistIds) {
+        Track track = new Track();
+        track.setId(id);
+        track.setName(name);
+        List<Artist> artists = new ArrayList<>();
+        for (String artistId : artistIds) {
+            Artist artist = new Artist();
+            artist.setId(artistId);
+            artist.setName("Artist " + artistId);
+            artists.add(artist);
+        }
+        track.setArtists(artists);
+        return track;
+    }
+}
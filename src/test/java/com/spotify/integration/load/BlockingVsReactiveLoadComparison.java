@@ -0,0 +1,92 @@
+package com.spotify.integration.load;
+
+import com.spotify.integration.service.SpotifyAuthService;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the old blocking request path with the reactive one through the application's own service
+ * path. The whole application runs against a {@link FakeSpotifyServer}; after logging users in over HTTP,
+ * both modes call {@link SpotifyAuthService#getUserProfile}, the method behind {@code /user/profile}, with
+ * the profile TTL at zero so every call is revalidated with the fake. Blocking mode calls {@code .block()}
+ * on a servlet-sized thread pool, as the controllers used to; reactive mode subscribes to the same calls
+ * with bounded concurrency, as Spring MVC does now. The rate limiter is opened up so it does not decide
+ * the result.
+ * <p>
+ * Run with {@code -Dload.users=500 -Dload.requests=5000 -Dload.servletThreads=200 -Dload.concurrency=2000
+ * -Dfake.latencyMs=200}. Any {@code --property=value} argument is passed on to the application.
+ */
+public class BlockingVsReactiveLoadComparison {
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("load.users", 500);
+        int requests = Integer.getInteger("load.requests", 5000);
+        int servletThreads = Integer.getInteger("load.servletThreads", 200);
+        int concurrency = Integer.getInteger("load.concurrency", 2000);
+
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spotify.http.api.max-connections=" + concurrency,
+                "--spotify.cache.ttl.profile=PT0S",
+                "--spotify.prefetch.on-login=false",
+                "--spotify.rate-limit.permits-per-second=1000000",
+                "--spotify.rate-limit.burst=1000000",
+                "--spotify.rate-limit.max-concurrency=" + concurrency,
+                "--spotify.rate-limit.max-queue=" + Math.max(requests, 1000),
+                "--spotify.timeouts.profile=PT60S"));
+        arguments.addAll(List.of(args));
+
+        try (FakeSpotifyServer fake = new FakeSpotifyServer(FakeSpotifyServer.Settings.fromSystemProperties());
+             FakeSpotifyApplication application = new FakeSpotifyApplication(fake, arguments)) {
+            List<String> sessions = application.login(users);
+            SpotifyAuthService spotifyAuthService = application.getBean(SpotifyAuthService.class);
+
+            // Aquecimento: JIT, conexões e entradas de cache antes de medir.
+            runReactive(spotifyAuthService, sessions, Math.min(requests, 500), concurrency);
+
+            long blockingNanos = runBlocking(spotifyAuthService, sessions, requests, servletThreads);
+            long reactiveNanos = runReactive(spotifyAuthService, sessions, requests, concurrency);
+
+            System.out.printf("fake: %s, users %d%n", FakeSpotifyServer.Settings.fromSystemProperties(), sessions.size());
+            report("blocking (" + servletThreads + " threads)", requests, blockingNanos);
+            report("reactive (concurrency " + concurrency + ")", requests, reactiveNanos);
+        }
+    }
+
+    private static long runBlocking(SpotifyAuthService spotifyAuthService, List<String> sessions, int requests,
+                                    int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> results = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                String sessionId = sessions.get(i % sessions.size());
+                results.add(pool.submit(() -> spotifyAuthService.getUserProfile(sessionId).block()));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long runReactive(SpotifyAuthService spotifyAuthService, List<String> sessions, int requests,
+                                    int concurrency) {
+        long start = System.nanoTime();
+        Flux.range(0, requests)
+                .flatMap(i -> spotifyAuthService.getUserProfile(sessions.get(i % sessions.size())), concurrency)
+                .blockLast();
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String label, int requests, long nanos) {
+        double seconds = nanos / 1_000_000_000.0;
+        System.out.printf("%-32s %8d req in %7.2f s -> %10.1f req/s%n", label, requests, seconds, requests / seconds);
+    }
+}
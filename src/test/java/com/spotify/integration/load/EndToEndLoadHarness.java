@@ -0,0 +1,235 @@
+package com.spotify.integration.load;
+
+import com.spotify.integration.SpotifyOAuthIntegrationApplication;
+import com.spotify.integration.controller.SessionHeader;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the whole application against a {@link FakeSpotifyServer} and drives it over HTTP like a client
+ * would: first the login flow ({@code /auth/spotify} then {@code /auth/callback}) for every simulated user,
+ * then a mix of {@code /user/profile}, {@code /user/playlists} and {@code /user/top-tracks} requests at a
+ * fixed concurrency. Reports throughput and p50/p99/p999 latency per endpoint, and failures by status.
+ * <p>
+ * Run with {@code -Dload.users=200 -Dload.requests=20000 -Dload.concurrency=256 -Dload.warmup=2000};
+ * the fake's behaviour is set with the {@code fake.*} properties of {@link FakeSpotifyServer.Settings},
+ * e.g. {@code -Dfake.latencyMs=50 -Dfake.jitterMs=100 -Dfake.rateLimitRate=0.01 -Dfake.errorRate=0.005}.
+ * Any other {@code --property=value} argument is passed on to the application.
+ */
+public class EndToEndLoadHarness {
+
+    private static final String[] ENDPOINTS = {"/user/profile", "/user/playlists", "/user/top-tracks"};
+    private static final Pattern SESSION_ID = Pattern.compile("\"session_id\"\\s*:\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("load.users", 200);
+        int requests = Integer.getInteger("load.requests", 20000);
+        int concurrency = Integer.getInteger("load.concurrency", 256);
+        int warmup = Integer.getInteger("load.warmup", 2000);
+
+        FakeSpotifyServer fake = new FakeSpotifyServer(FakeSpotifyServer.Settings.fromSystemProperties());
+        List<String> applicationArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spotify.client_id=load-test",
+                "--spotify.client_secret=load-test",
+                "--spotify.redirect_uri=http://127.0.0.1/auth/callback",
+                "--spotify.http.api.base-url=" + fake.baseUrl(),
+                "--spotify.http.accounts.base-url=" + fake.baseUrl()));
+        applicationArgs.addAll(List.of(args));
+        ConfigurableApplicationContext context = SpringApplication.run(SpotifyOAuthIntegrationApplication.class,
+                applicationArgs.toArray(String[]::new));
+
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            String baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(workers)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            Recorder login = new Recorder("/auth/callback", users);
+            String[] sessions = new String[users];
+            long loginNanos = _run(workers, users, concurrency, i -> sessions[i] = _login(client, baseUrl, login, i));
+
+            List<String> loggedIn = new ArrayList<>();
+            for (String session : sessions) {
+                if (session != null) {
+                    loggedIn.add(session);
+                }
+            }
+            if (loggedIn.isEmpty()) {
+                throw new IllegalStateException("Nenhum login concluído; veja as falhas acima.");
+            }
+
+            // Aquecimento: JIT, conexões e caches da aplicação antes de medir.
+            Recorder[] discarded = _recorders(warmup);
+            _run(workers, warmup, concurrency, i -> _call(client, baseUrl, loggedIn, discarded, i));
+
+            Recorder[] measured = _recorders(requests);
+            long mixNanos = _run(workers, requests, concurrency, i -> _call(client, baseUrl, loggedIn, measured, i));
+
+            System.out.printf("fake: %s, users %d, concurrency %d%n", FakeSpotifyServer.Settings.fromSystemProperties(),
+                    users, concurrency);
+            login.report(loginNanos);
+            for (Recorder recorder : measured) {
+                recorder.report(mixNanos);
+            }
+            System.out.printf("%-20s %8d req in %7.2f s -> %10.1f req/s%n", "total", requests,
+                    mixNanos / 1_000_000_000.0, requests / (mixNanos / 1_000_000_000.0));
+            System.out.printf("fake server: %d requests, %d answered 429, %d answered 503%n",
+                    fake.getRequests(), fake.getRateLimited(), fake.getFailed());
+        } finally {
+            workers.shutdownNow();
+            context.close();
+            fake.close();
+        }
+    }
+
+    /**
+     * Runs {@code tasks} indices through {@code concurrency} workers, each taking the next index until
+     * none are left. Returns the elapsed wall-clock time.
+     */
+    private static long _run(ExecutorService workers, int tasks, int concurrency, Task task) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> running = new ArrayList<>(concurrency);
+        long start = System.nanoTime();
+        for (int w = 0; w < concurrency; w++) {
+            running.add(workers.submit(() -> {
+                for (int i = next.getAndIncrement(); i < tasks; i = next.getAndIncrement()) {
+                    task.run(i);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : running) {
+            worker.get();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static String _login(HttpClient client, String baseUrl, Recorder recorder, int user) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<Void> authorize = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/spotify")).build(),
+                HttpResponse.BodyHandlers.discarding());
+        String location = authorize.headers().firstValue("Location").orElse(null);
+        String state = location != null ? _queryParam(URI.create(location).getRawQuery(), "state") : null;
+        if (state == null) {
+            recorder.failed(authorize.statusCode());
+            return null;
+        }
+
+        HttpResponse<String> callback = client.send(HttpRequest.newBuilder(
+                        URI.create(baseUrl + "/auth/callback?code=load-code-" + user + "&state=" + state)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        recorder.record(System.nanoTime() - start);
+        if (callback.statusCode() != 200) {
+            recorder.failed(callback.statusCode());
+            return null;
+        }
+        Matcher matcher = SESSION_ID.matcher(callback.body());
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static void _call(HttpClient client, String baseUrl, List<String> sessions, Recorder[] recorders, int i)
+            throws Exception {
+        int endpoint = i % ENDPOINTS.length;
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + ENDPOINTS[endpoint]))
+                .header(SessionHeader.NAME, sessions.get(i % sessions.size()))
+                .build();
+        long start = System.nanoTime();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        recorders[endpoint].record(System.nanoTime() - start);
+        if (response.statusCode() >= 400) {
+            recorders[endpoint].failed(response.statusCode());
+        }
+    }
+
+    private static Recorder[] _recorders(int requests) {
+        Recorder[] recorders = new Recorder[ENDPOINTS.length];
+        for (int i = 0; i < ENDPOINTS.length; i++) {
+            recorders[i] = new Recorder(ENDPOINTS[i], requests / ENDPOINTS.length + 1);
+        }
+        return recorders;
+    }
+
+    private static String _queryParam(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return URLDecoder.decode(pair.substring(name.length() + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run(int index) throws Exception;
+    }
+
+    /**
+     * Latencies of one endpoint in a preallocated array, so recording allocates nothing while measuring.
+     */
+    private static final class Recorder {
+
+        private final String label;
+        private final long[] latencies;
+        private final AtomicInteger size = new AtomicInteger();
+        private final Map<Integer, Integer> failures = new TreeMap<>();
+
+        Recorder(String label, int capacity) {
+            this.label = label;
+            this.latencies = new long[capacity];
+        }
+
+        void record(long nanos) {
+            int index = size.getAndIncrement();
+            if (index < latencies.length) {
+                latencies[index] = nanos;
+            }
+        }
+
+        synchronized void failed(int status) {
+            failures.merge(status, 1, Integer::sum);
+        }
+
+        synchronized void report(long elapsedNanos) {
+            int count = Math.min(size.get(), latencies.length);
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf("%-20s %8d req -> %10.1f req/s  p50 %8.2f ms  p99 %8.2f ms  p999 %8.2f ms  failures %s%n",
+                    label, count, count / (elapsedNanos / 1_000_000_000.0),
+                    _percentile(sorted, 0.50), _percentile(sorted, 0.99), _percentile(sorted, 0.999), failures);
+        }
+
+        private static double _percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
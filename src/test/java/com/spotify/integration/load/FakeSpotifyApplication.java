@@ -0,0 +1,106 @@
+package com.spotify.integration.load;
+
+import com.spotify.integration.SpotifyOAuthIntegrationApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The whole application on a random port, pointed at a {@link FakeSpotifyServer}, for the load
+ * comparisons that measure the real request path. Extra {@code --property=value} arguments are
+ * passed on to the application after the defaults, so they win.
+ */
+final class FakeSpotifyApplication implements AutoCloseable {
+
+    private static final Pattern SESSION_ID = Pattern.compile("\"session_id\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern STATE = Pattern.compile("[?&]state=([^&]+)");
+
+    private final ConfigurableApplicationContext context;
+    private final String baseUrl;
+
+    FakeSpotifyApplication(FakeSpotifyServer fake, List<String> arguments) {
+        List<String> applicationArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spotify.client_id=load-test",
+                "--spotify.client_secret=load-test",
+                "--spotify.redirect_uri=http://127.0.0.1/auth/callback",
+                "--spotify.http.api.base-url=" + fake.baseUrl(),
+                "--spotify.http.accounts.base-url=" + fake.baseUrl()));
+        applicationArgs.addAll(arguments);
+        context = SpringApplication.run(SpotifyOAuthIntegrationApplication.class, applicationArgs.toArray(String[]::new));
+        baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Logs {@code users} users in through {@code /auth/spotify} and {@code /auth/callback}, all at once
+     * on virtual threads, and returns the session ids of the logins that succeeded.
+     */
+    List<String> login(int users) throws Exception {
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(workers)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .build();
+            List<Future<String>> logins = new ArrayList<>(users);
+            for (int i = 0; i < users; i++) {
+                int user = i;
+                logins.add(workers.submit(() -> _login(client, user)));
+            }
+            List<String> sessions = new ArrayList<>(users);
+            for (Future<String> login : logins) {
+                String sessionId = login.get();
+                if (sessionId != null) {
+                    sessions.add(sessionId);
+                }
+            }
+            if (sessions.isEmpty()) {
+                throw new IllegalStateException("Nenhum login concluído.");
+            }
+            return sessions;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private String _login(HttpClient client, int user) throws Exception {
+        HttpResponse<Void> authorize = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/spotify")).build(),
+                HttpResponse.BodyHandlers.discarding());
+        Matcher state = STATE.matcher(authorize.headers().firstValue("Location").orElse(""));
+        if (!state.find()) {
+            return null;
+        }
+        HttpResponse<String> callback = client.send(HttpRequest.newBuilder(URI.create(baseUrl
+                        + "/auth/callback?code=load-code-" + user + "&state="
+                        + URLDecoder.decode(state.group(1), StandardCharsets.UTF_8))).build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher sessionId = SESSION_ID.matcher(callback.body());
+        return callback.statusCode() == 200 && sessionId.find() ? sessionId.group(1) : null;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,81 @@
+package com.spotify.integration.load;
+
+import com.spotify.integration.controller.SessionHeader;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class FakeSpotifyEndToEndTest {
+
+    private static final FakeSpotifyServer FAKE = _start();
+
+    private final HttpClient client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void spotifyProperties(DynamicPropertyRegistry registry) {
+        registry.add("spotify.client_id", () -> "test");
+        registry.add("spotify.client_secret", () -> "test");
+        registry.add("spotify.redirect_uri", () -> "http://127.0.0.1/auth/callback");
+        registry.add("spotify.http.api.base-url", FAKE::baseUrl);
+        registry.add("spotify.http.accounts.base-url", FAKE::baseUrl);
+    }
+
+    @AfterAll
+    static void stopFake() {
+        FAKE.close();
+    }
+
+    @Test
+    void loginThenReadProfileThroughFakeSpotify() throws Exception {
+        HttpResponse<Void> authorize = client.send(_get("/auth/spotify").build(), HttpResponse.BodyHandlers.discarding());
+        String location = authorize.headers().firstValue("Location").orElseThrow();
+        assertTrue(location.startsWith(FAKE.baseUrl() + "/authorize?"), location);
+        Matcher state = Pattern.compile("[?&]state=([^&]+)").matcher(location);
+        assertTrue(state.find());
+
+        HttpResponse<String> callback = client.send(
+                _get("/auth/callback?code=test-code&state=" + URLDecoder.decode(state.group(1), StandardCharsets.UTF_8)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, callback.statusCode(), callback.body());
+        Matcher sessionId = Pattern.compile("\"session_id\"\\s*:\\s*\"([^\"]+)\"").matcher(callback.body());
+        assertTrue(sessionId.find(), callback.body());
+
+        HttpResponse<String> profile = client.send(_get("/user/profile").header(SessionHeader.NAME, sessionId.group(1)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, profile.statusCode(), profile.body());
+        assertTrue(profile.body().contains("\"fake-user\""), profile.body());
+    }
+
+    private HttpRequest.Builder _get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path));
+    }
+
+    private static FakeSpotifyServer _start() {
+        try {
+            return new FakeSpotifyServer(FakeSpotifyServer.Settings.defaults());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.spotify.integration.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for both Spotify hosts, for end-to-end and load tests that must run offline. Point
+ * {@code spotify.http.accounts.base-url} and {@code spotify.http.api.base-url} at {@link #baseUrl()}.
+ * <p>
+ * Serves the token endpoint (authorization code, refresh and client credentials grants), {@code /v1/me}
+ * with an ETag, and paged {@code /v1/me/playlists} and {@code /v1/me/top/tracks}. Every request first
+ * waits the configured latency plus a random jitter, then fails with a {@code 429} or a {@code 503} at
+ * the configured rates. Response bodies are built once per page, so the stand-in costs little CPU next
+ * to the application it is measuring.
+ */
+class FakeSpotifyServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String PROFILE_ETAG = "\"fake-profile-1\"";
+
+    private final Settings settings;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLong tokenSequence = new AtomicLong();
+    private final Map<String, byte[]> pages = new ConcurrentHashMap<>();
+    private final byte[] profile;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * @param latency       fixed delay before every response
+     * @param jitter        random extra delay, uniform in {@code [0, jitter)}
+     * @param errorRate     fraction of requests answered with {@code 503}
+     * @param rateLimitRate fraction of requests answered with {@code 429} and {@code Retry-After: 1}
+     * @param playlists     playlists of every user
+     * @param topTracks     top tracks of every user
+     * @param expiresIn     lifetime of issued access tokens, in seconds
+     */
+    record Settings(Duration latency, Duration jitter, double errorRate, double rateLimitRate,
+                           int playlists, int topTracks, int expiresIn) {
+
+        static Settings defaults() {
+            return new Settings(Duration.ZERO, Duration.ZERO, 0, 0, 60, 50, 3600);
+        }
+
+        /**
+         * Reads {@code fake.latencyMs}, {@code fake.jitterMs}, {@code fake.errorRate}, {@code fake.rateLimitRate},
+         * {@code fake.playlists}, {@code fake.topTracks} and {@code fake.expiresIn}.
+         */
+        static Settings fromSystemProperties() {
+            Settings defaults = defaults();
+            return new Settings(
+                    Duration.ofMillis(Integer.getInteger("fake.latencyMs", (int) defaults.latency.toMillis())),
+                    Duration.ofMillis(Integer.getInteger("fake.jitterMs", (int) defaults.jitter.toMillis())),
+                    Double.parseDouble(System.getProperty("fake.errorRate", Double.toString(defaults.errorRate))),
+                    Double.parseDouble(System.getProperty("fake.rateLimitRate", Double.toString(defaults.rateLimitRate))),
+                    Integer.getInteger("fake.playlists", defaults.playlists),
+                    Integer.getInteger("fake.topTracks", defaults.topTracks),
+                    Integer.getInteger("fake.expiresIn", defaults.expiresIn));
+        }
+    }
+
+    FakeSpotifyServer(Settings settings) throws IOException {
+        this.settings = settings;
+        this.profile = _json(Map.of(
+                "id", "fake-user",
+                "display_name", "Fake User",
+                "email", "fake@example.com",
+                "country", "BR",
+                "product", "premium",
+                "uri", "spotify:user:fake-user",
+                "followers", Map.of("total", 42)));
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        server.setExecutor(executor);
+        server.createContext("/api/token", exchange -> _handle(exchange, false, this::_token));
+        server.createContext("/v1/me/playlists", exchange -> _handle(exchange, true, this::_playlists));
+        server.createContext("/v1/me/top/tracks", exchange -> _handle(exchange, true, this::_topTracks));
+        server.createContext("/v1/me", exchange -> _handle(exchange, true, this::_profile));
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    long getRequests() {
+        return requests.sum();
+    }
+
+    long getRateLimited() {
+        return rateLimited.sum();
+    }
+
+    long getFailed() {
+        return failed.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void _handle(HttpExchange exchange, boolean authenticated, Handler handler) throws IOException {
+        try (exchange) {
+            requests.increment();
+            _delay();
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < settings.rateLimitRate) {
+                rateLimited.increment();
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                _send(exchange, 429, _error(429, "API rate limit exceeded"));
+                return;
+            }
+            if (random.nextDouble() < settings.errorRate) {
+                failed.increment();
+                _send(exchange, 503, _error(503, "Service unavailable"));
+                return;
+            }
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            if (authenticated && (authorization == null || !authorization.startsWith("Bearer fake-"))) {
+                _send(exchange, 401, _error(401, "Invalid access token"));
+                return;
+            }
+            handler.handle(exchange);
+        }
+    }
+
+    private void _token(HttpExchange exchange) throws IOException {
+        Map<String, String> form = _params(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        String grantType = form.getOrDefault("grant_type", "");
+        long sequence = tokenSequence.incrementAndGet();
+
+        Map<String, Object> token = new LinkedHashMap<>();
+        token.put("token_type", "Bearer");
+        token.put("expires_in", settings.expiresIn);
+        switch (grantType) {
+            case "authorization_code" -> {
+                if (form.getOrDefault("code", "").isEmpty() || form.getOrDefault("code_verifier", "").isEmpty()) {
+                    _send(exchange, 400, _json(Map.of("error", "invalid_grant")));
+                    return;
+                }
+                token.put("access_token", "fake-access-" + sequence);
+                token.put("refresh_token", "fake-refresh-" + sequence);
+                token.put("scope", "user-read-private user-read-email user-top-read");
+            }
+            case "refresh_token" -> {
+                if (!form.getOrDefault("refresh_token", "").startsWith("fake-refresh-")) {
+                    _send(exchange, 400, _json(Map.of("error", "invalid_grant")));
+                    return;
+                }
+                // Como o Spotify, nem sempre gira o refresh token.
+                token.put("access_token", "fake-access-" + sequence);
+            }
+            case "client_credentials" -> token.put("access_token", "fake-app-" + sequence);
+            default -> {
+                _send(exchange, 400, _json(Map.of("error", "unsupported_grant_type")));
+                return;
+            }
+        }
+        _send(exchange, 200, _json(token));
+    }
+
+    private void _profile(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestURI().getPath().equals("/v1/me")) {
+            _send(exchange, 404, _error(404, "Not found"));
+            return;
+        }
+        exchange.getResponseHeaders().add("ETag", PROFILE_ETAG);
+        if (PROFILE_ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        _send(exchange, 200, profile);
+    }
+
+    private void _playlists(HttpExchange exchange) throws IOException {
+        _page(exchange, "/v1/me/playlists", settings.playlists, this::_playlist);
+    }
+
+    private void _topTracks(HttpExchange exchange) throws IOException {
+        _page(exchange, "/v1/me/top/tracks", settings.topTracks, this::_track);
+    }
+
+    private void _page(HttpExchange exchange, String path, int total, Item item) throws IOException {
+        Map<String, String> query = _params(exchange.getRequestURI().getRawQuery());
+        int offset = Math.max(0, _int(query.get("offset"), 0));
+        int limit = Math.min(50, Math.max(1, _int(query.get("limit"), 20)));
+        byte[] body = pages.computeIfAbsent(path + "?" + offset + "&" + limit, key -> {
+            List<Object> items = new ArrayList<>();
+            for (int i = offset; i < Math.min(total, offset + limit); i++) {
+                items.add(item.at(i));
+            }
+            Map<String, Object> page = new LinkedHashMap<>();
+            page.put("href", baseUrl() + path + "?offset=" + offset + "&limit=" + limit);
+            page.put("items", items);
+            page.put("limit", limit);
+            page.put("next", offset + limit < total ? baseUrl() + path + "?offset=" + (offset + limit) + "&limit=" + limit : null);
+            page.put("offset", offset);
+            page.put("previous", offset > 0 ? baseUrl() + path + "?offset=" + Math.max(0, offset - limit) + "&limit=" + limit : null);
+            page.put("total", total);
+            return _json(page);
+        });
+        _send(exchange, 200, body);
+    }
+
+    private Object _playlist(int i) {
+        Map<String, Object> playlist = new LinkedHashMap<>();
+        playlist.put("id", "fake-playlist-" + i);
+        playlist.put("name", "Playlist " + i);
+        playlist.put("public", i % 2 == 0);
+        playlist.put("collaborative", false);
+        playlist.put("snapshot_id", "snapshot-" + i);
+        playlist.put("uri", "spotify:playlist:fake-playlist-" + i);
+        playlist.put("owner", Map.of("id", "fake-user", "display_name", "Fake User"));
+        playlist.put("tracks", Map.of("href", baseUrl() + "/v1/playlists/fake-playlist-" + i + "/tracks", "total", 20));
+        return playlist;
+    }
+
+    private Object _track(int i) {
+        Map<String, Object> track = new LinkedHashMap<>();
+        track.put("id", "fake-track-" + i);
+        track.put("name", "Track " + i);
+        track.put("uri", "spotify:track:fake-track-" + i);
+        track.put("popularity", 100 - i % 100);
+        track.put("duration_ms", 180_000 + i * 1_000);
+        track.put("explicit", false);
+        track.put("artists", List.of(Map.of("id", "fake-artist-" + i % 7, "name", "Artist " + i % 7)));
+        track.put("album", Map.of("id", "fake-album-" + i % 11, "name", "Album " + i % 11,
+                "release_date", (1970 + i % 50) + "-01-01", "release_date_precision", "day"));
+        return track;
+    }
+
+    private void _delay() {
+        long delayMillis = settings.latency.toMillis();
+        if (!settings.jitter.isZero()) {
+            delayMillis += ThreadLocalRandom.current().nextLong(settings.jitter.toMillis());
+        }
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static byte[] _error(int status, String message) {
+        return _json(Map.of("error", Map.of("status", status, "message", message)));
+    }
+
+    private static void _send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] _json(Object value) {
+        try {
+            return MAPPER.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, String> _params(String encoded) {
+        Map<String, String> params = new HashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return params;
+        }
+        for (String pair : encoded.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static int _int(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Item {
+        Object at(int index);
+    }
+}
@@ -0,0 +1,111 @@
+package com.spotify.integration.load;
+
+import com.spotify.integration.controller.SessionHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shows how the application scales with concurrency in its two execution modes. The application is
+ * started twice against a {@link FakeSpotifyServer}, first with {@code spring.threads.virtual.enabled=false}
+ * (Tomcat's platform-thread pool) and then with it on (one virtual thread per request, and virtual
+ * background threads from {@code ExecutionConfig.backgroundThreadFactory}). At each concurrency level,
+ * that many clients call {@code /user/profile} over HTTP; throughput, failures and the peak number of
+ * platform threads of the JVM are logged per mode. The clients themselves run on virtual threads, so
+ * they add almost nothing to the platform-thread count.
+ * <p>
+ * Run with {@code -Dload.users=500 -Dload.requests=5000 -Dload.levels=100,1000,5000 -Dfake.latencyMs=200}.
+ * Any {@code --property=value} argument is passed on to the application in both modes.
+ */
+public class VirtualThreadScalingBenchmark {
+
+    private final static Logger logger = LoggerFactory.getLogger(VirtualThreadScalingBenchmark.class);
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("load.users", 500);
+        int requests = Integer.getInteger("load.requests", 5000);
+        String[] levels = System.getProperty("load.levels", "100,1000,5000").split(",");
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        try (FakeSpotifyServer fake = new FakeSpotifyServer(FakeSpotifyServer.Settings.fromSystemProperties())) {
+            for (boolean virtual : new boolean[]{false, true}) {
+                List<String> arguments = new ArrayList<>(List.of(
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--spotify.cache.ttl.profile=PT0S",
+                        "--spotify.prefetch.on-login=false",
+                        "--spotify.rate-limit.permits-per-second=1000000",
+                        "--spotify.rate-limit.burst=1000000",
+                        "--spotify.rate-limit.max-queue=" + Math.max(requests, 1000),
+                        "--spotify.timeouts.profile=PT60S"));
+                arguments.addAll(List.of(args));
+
+                try (FakeSpotifyApplication application = new FakeSpotifyApplication(fake, arguments);
+                     ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                    List<String> sessions = application.login(users);
+                    HttpClient client = HttpClient.newBuilder().executor(clients).build();
+                    String mode = virtual ? "virtual" : "platform";
+
+                    // Aquecimento: JIT, conexões e pools de threads antes de medir.
+                    _run(clients, client, application.baseUrl(), sessions, Math.min(requests, 500), 100);
+
+                    for (String level : levels) {
+                        int concurrency = Integer.parseInt(level.trim());
+                        threads.resetPeakThreadCount();
+                        LongAdder failures = new LongAdder();
+                        long nanos = _run(clients, client, application.baseUrl(), sessions, requests, concurrency, failures);
+                        logger.info("modo {}: {} clientes, {} req/s, {} falhas, pico de {} threads de plataforma",
+                                mode, concurrency, String.format("%.1f", requests / (nanos / 1_000_000_000.0)),
+                                failures.sum(), threads.getPeakThreadCount());
+                    }
+                }
+            }
+        }
+    }
+
+    private static void _run(ExecutorService clients, HttpClient client, String baseUrl, List<String> sessions,
+                             int requests, int concurrency) throws Exception {
+        _run(clients, client, baseUrl, sessions, requests, concurrency, new LongAdder());
+    }
+
+    /**
+     * Sends {@code requests} profile reads from {@code concurrency} clients, each taking the next index
+     * until none are left. Returns the elapsed wall-clock time.
+     */
+    private static long _run(ExecutorService clients, HttpClient client, String baseUrl, List<String> sessions,
+                             int requests, int concurrency, LongAdder failures) throws Exception {
+        URI profile = URI.create(baseUrl + "/user/profile");
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> running = new ArrayList<>(concurrency);
+        long start = System.nanoTime();
+        for (int c = 0; c < concurrency; c++) {
+            running.add(clients.submit(() -> {
+                for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                    HttpRequest request = HttpRequest.newBuilder(profile)
+                            .header(SessionHeader.NAME, sessions.get(i % sessions.size()))
+                            .build();
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400) {
+                        failures.increment();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : running) {
+            worker.get();
+        }
+        return System.nanoTime() - start;
+    }
+}
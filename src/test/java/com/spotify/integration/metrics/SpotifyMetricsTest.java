@@ -0,0 +1,90 @@
+package com.spotify.integration.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SpotifyMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SpotifyMetrics metrics = new SpotifyMetrics(registry);
+
+    @Test
+    void endpointTemplateReplacesIdsAndDropsTheQuery() {
+        assertEquals("/v1/playlists/{id}/tracks", SpotifyMetrics.endpointTemplate("/v1/playlists/37i9dQZF1DXcBWIGoYBM5M/tracks?offset=50"));
+        assertEquals("/v1/users/{id}/playlists", SpotifyMetrics.endpointTemplate("/v1/users/alice/playlists"));
+        assertEquals("/v1/me/top/tracks", SpotifyMetrics.endpointTemplate("/v1/me/top/tracks?limit=50"));
+    }
+
+    @Test
+    void upstreamRequestsAreTaggedByHostEndpointAndStatus() {
+        metrics.recordUpstream("api", "/v1/tracks/a1", 200, TimeUnit.MILLISECONDS.toNanos(10));
+        metrics.recordUpstream("api", "/v1/tracks/b2", 200, TimeUnit.MILLISECONDS.toNanos(30));
+        metrics.recordUpstream("api", "/v1/tracks/c3", 429, TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.recordUpstream("accounts", "/api/token", 0, TimeUnit.MILLISECONDS.toNanos(1));
+
+        Timer ok = _upstream("api", "/v1/tracks/{id}", "200");
+        assertEquals(2, ok.count());
+        assertEquals(40, ok.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, _upstream("api", "/v1/tracks/{id}", "429").count());
+        assertEquals(1, _upstream("accounts", "/api/token", "0").count());
+        // IDs diferentes caem no mesmo template: um timer por combinação de tags, não por URL.
+        assertEquals(3, registry.find("spotify.client.requests").timers().size());
+    }
+
+    @Test
+    void metersAreRegisteredOncePerTagCombination() {
+        metrics.recordUpstream("api", "/v1/tracks/a1", 200, 1);
+        Timer first = _upstream("api", "/v1/tracks/{id}", "200");
+        for (int i = 0; i < 100; i++) {
+            metrics.recordUpstream("api", "/v1/tracks/t" + i, 200, 1);
+        }
+
+        assertSame(first, _upstream("api", "/v1/tracks/{id}", "200"));
+        assertEquals(101, first.count());
+        assertEquals(1, registry.find("spotify.client.requests").timers().size());
+    }
+
+    @Test
+    void responseSizesAreSummedPerEndpoint() {
+        metrics.recordResponseBytes("api", "/v1/albums/x", 1000);
+        metrics.recordResponseBytes("api", "/v1/albums/y", 500);
+
+        DistributionSummary sizes = registry.get("spotify.client.response.size")
+                .tag("host", "api")
+                .tag("endpoint", "/v1/albums/{id}")
+                .summary();
+        assertEquals(2, sizes.count());
+        assertEquals(1500, sizes.totalAmount(), 0.001);
+    }
+
+    @Test
+    void refreshesAndParsesAreCountedByOutcomeAndType() {
+        metrics.recordRefresh(true);
+        metrics.recordRefresh(true);
+        metrics.recordRefresh(false);
+        metrics.stopParse(metrics.startParse(), "Track");
+        metrics.stopParse(metrics.startParse(), "Track");
+
+        assertEquals(2, registry.get("spotify.token.refreshes").tag("outcome", "success").counter().count(), 0.001);
+        assertEquals(1, registry.get("spotify.token.refreshes").tag("outcome", "failure").counter().count(), 0.001);
+        assertEquals(2, registry.get("spotify.json.parse").tag("type", "Track").timer().count());
+    }
+
+    private Timer _upstream(String host, String endpoint, String status) {
+        Timer timer = registry.find("spotify.client.requests")
+                .tag("host", host)
+                .tag("endpoint", endpoint)
+                .tag("status", status)
+                .timer();
+        assertNotNull(timer, host + " " + endpoint + " " + status);
+        return timer;
+    }
+}
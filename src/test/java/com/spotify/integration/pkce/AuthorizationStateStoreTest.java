@@ -0,0 +1,52 @@
+package com.spotify.integration.pkce;
+
+import com.spotify.integration.util.PKCEUtil;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AuthorizationStateStoreTest {
+
+    private final PKCEUtil pkceUtil = new PKCEUtil();
+
+    @Test
+    void stateResolvesToItsVerifierOnlyOnce() {
+        AuthorizationStateStore store = new AuthorizationStateStore(pkceUtil, 10, Duration.ofMinutes(10));
+
+        String state = store.issue("verifier");
+
+        assertNotEquals("verifier", state);
+        assertEquals("verifier", store.consume(state));
+        assertNull(store.consume(state));
+    }
+
+    @Test
+    void expiredStateIsRejected() throws InterruptedException {
+        AuthorizationStateStore store = new AuthorizationStateStore(pkceUtil, 10, Duration.ofMillis(20));
+
+        String state = store.issue("verifier");
+        Thread.sleep(50);
+
+        store.evictExpired();
+        assertEquals(0, store.size());
+        assertNull(store.consume(state));
+    }
+
+    @Test
+    void oldestPendingStatesAreDroppedOverCapacity() {
+        AuthorizationStateStore store = new AuthorizationStateStore(pkceUtil, 2, Duration.ofMinutes(10));
+
+        String first = store.issue("first");
+        String second = store.issue("second");
+        String third = store.issue("third");
+
+        assertEquals(2, store.size());
+        assertNull(store.consume(first));
+        assertEquals("second", store.consume(second));
+        assertEquals("third", store.consume(third));
+    }
+}
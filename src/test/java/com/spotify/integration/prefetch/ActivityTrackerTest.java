@@ -0,0 +1,42 @@
+package com.spotify.integration.prefetch;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ActivityTrackerTest {
+
+    @Test
+    void sessionsLeaveAfterTheActiveWindow() throws InterruptedException {
+        ActivityTracker tracker = new ActivityTracker(Duration.ofMillis(50), 100);
+        tracker.touch("a");
+
+        assertEquals(List.of("a"), _active(tracker));
+
+        Thread.sleep(100);
+        assertEquals(List.of(), _active(tracker));
+        assertEquals(0, tracker.getActiveSessions());
+    }
+
+    @Test
+    void newSessionsAreNotTrackedBeyondTheLimit() {
+        ActivityTracker tracker = new ActivityTracker(Duration.ofMinutes(1), 2);
+        tracker.touch("a");
+        tracker.touch("b");
+        tracker.touch("c");
+        tracker.touch("a");
+
+        assertEquals(2, tracker.getActiveSessions());
+        assertEquals(List.of("a", "b"), _active(tracker).stream().sorted().toList());
+    }
+
+    private static List<String> _active(ActivityTracker tracker) {
+        List<String> active = new ArrayList<>();
+        tracker.forEachActive(active::add);
+        return active;
+    }
+}
@@ -0,0 +1,32 @@
+package com.spotify.integration.service;
+
+import com.spotify.integration.exception.SpotifyInvalidIdException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpotifyBatchLookupServiceTest {
+
+    @Test
+    void acceptsOnlyBase62IdsOfSpotifyLength() {
+        assertTrue(SpotifyBatchLookupService.isSpotifyId("4iV5W9uYEdYUVa79Axb7Rh"));
+
+        assertFalse(SpotifyBatchLookupService.isSpotifyId(null));
+        assertFalse(SpotifyBatchLookupService.isSpotifyId("4iV5W9uYEdYUVa79Axb7R"));
+        assertFalse(SpotifyBatchLookupService.isSpotifyId("{x}V5W9uYEdYUVa79Axb7Rh"));
+        assertFalse(SpotifyBatchLookupService.isSpotifyId("4iV5W9uYEdYUVa79Ax,7Rh"));
+        assertFalse(SpotifyBatchLookupService.isSpotifyId("4iV5W9uYEdYUVa79Ax&7Rh"));
+    }
+
+    @Test
+    void rejectsMalformedIdWithoutCallingSpotify() {
+        // Sem SpotifyAuthService: um ID inválido precisa falhar antes de qualquer chamada.
+        SpotifyBatchLookupService service = new SpotifyBatchLookupService(null, null, null, Duration.ofMillis(20), 50);
+
+        assertThrows(SpotifyInvalidIdException.class, () -> service.getTrack("{x}").block(Duration.ofSeconds(1)));
+    }
+}
@@ -0,0 +1,91 @@
+package com.spotify.integration.service;
+
+import com.spotify.integration.dto.Paging;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpotifyPagerTest {
+
+    private static final int PAGE_SIZE = 2;
+    private static final int PARALLELISM = 3;
+
+    private final List<Integer> fetchedOffsets = new CopyOnWriteArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Test
+    void pagesFinishingOutOfOrderAreEmittedInOrder() {
+        int total = 15;
+        SpotifyPager pager = new SpotifyPager(PAGE_SIZE, PARALLELISM);
+
+        // Quanto maior o offset, mais rápido a página responde: sem flatMapSequential a saída viria invertida.
+        List<Integer> items = pager.<Integer>fetchAll((offset, limit) ->
+                        _page(offset, limit, total, Duration.ofMillis(Math.max(0, 200 - offset * 10L))))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, items);
+        assertEquals(8, fetchedOffsets.size());
+        assertTrue(maxInFlight.get() > 1, "pages were fetched one at a time");
+        assertTrue(maxInFlight.get() <= PARALLELISM, "max in flight " + maxInFlight.get());
+    }
+
+    @Test
+    void singlePageIsFetchedOnce() {
+        SpotifyPager pager = new SpotifyPager(PAGE_SIZE, PARALLELISM);
+
+        List<Integer> items = pager.<Integer>fetchAll((offset, limit) -> _page(offset, limit, PAGE_SIZE, Duration.ZERO))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(0, 1), items);
+        assertEquals(List.of(0), fetchedOffsets);
+    }
+
+    @Test
+    void cancellingTheStreamStopsFetchingPages() {
+        SpotifyPager pager = new SpotifyPager(PAGE_SIZE, PARALLELISM);
+
+        List<Integer> items = pager.<Integer>fetchAll((offset, limit) -> _page(offset, limit, 1000, Duration.ofMillis(5)))
+                .take(3)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(0, 1, 2), items);
+        // A primeira página, a que entregou o terceiro item e no máximo as que já estavam em voo.
+        assertTrue(fetchedOffsets.size() <= 2 + PARALLELISM, "fetched " + fetchedOffsets);
+    }
+
+    private Mono<Paging<Integer>> _page(int offset, int limit, int total, Duration delay) {
+        return Mono.fromSupplier(() -> {
+                    fetchedOffsets.add(offset);
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Paging<Integer> page = new Paging<>();
+                    List<Integer> pageItems = new ArrayList<>();
+                    for (int i = offset; i < Math.min(offset + limit, total); i++) {
+                        pageItems.add(i);
+                    }
+                    page.setItems(pageItems);
+                    page.setOffset(offset);
+                    page.setLimit(limit);
+                    page.setTotal(total);
+                    page.setNext(offset + limit < total ? "next" : null);
+                    return page;
+                })
+                .delayElement(delay)
+                .doFinally(signal -> inFlight.decrementAndGet());
+    }
+}
@@ -0,0 +1,57 @@
+package com.spotify.integration.sync;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PlaylistIndexTest {
+
+    @Test
+    void changedPlaylistReportsOnlyAddedAndRemovedTracks() {
+        PlaylistIndex.Entry before = new PlaylistIndex.Entry("Mix", "s1", new String[]{"a", "b", "c"});
+        PlaylistIndex.Entry after = new PlaylistIndex.Entry("Mix", "s2", new String[]{"b", "c", "d", "e"});
+
+        PlaylistDelta delta = PlaylistIndex.delta("p1", before, after);
+
+        assertEquals(PlaylistDelta.Change.CHANGED, delta.change());
+        assertEquals("s2", delta.snapshotId());
+        assertEquals(List.of("d", "e"), delta.added());
+        assertEquals(List.of("a"), delta.removed());
+    }
+
+    @Test
+    void sameTracksUnderNewSnapshotIsNoChange() {
+        PlaylistIndex.Entry before = new PlaylistIndex.Entry("Mix", "s1", new String[]{"a", "b"});
+        PlaylistIndex.Entry after = new PlaylistIndex.Entry("Mix renamed", "s2", new String[]{"a", "b"});
+
+        assertNull(PlaylistIndex.delta("p1", before, after));
+    }
+
+    @Test
+    void reorderedPlaylistIsChangedWithoutTrackDeltas() {
+        PlaylistIndex.Entry before = new PlaylistIndex.Entry("Mix", "s1", new String[]{"a", "b"});
+        PlaylistIndex.Entry after = new PlaylistIndex.Entry("Mix", "s2", new String[]{"b", "a"});
+
+        PlaylistDelta delta = PlaylistIndex.delta("p1", before, after);
+
+        assertEquals(PlaylistDelta.Change.CHANGED, delta.change());
+        assertEquals(List.of(), delta.added());
+        assertEquals(List.of(), delta.removed());
+    }
+
+    @Test
+    void newAndDeletedPlaylistsCarryAllTheirTracks() {
+        PlaylistIndex.Entry entry = new PlaylistIndex.Entry("Mix", "s1", new String[]{"a", "b"});
+
+        PlaylistDelta added = PlaylistIndex.delta("p1", null, entry);
+        PlaylistDelta removed = PlaylistIndex.delta("p1", entry, null);
+
+        assertEquals(PlaylistDelta.Change.ADDED, added.change());
+        assertEquals(List.of("a", "b"), added.added());
+        assertEquals(PlaylistDelta.Change.REMOVED, removed.change());
+        assertEquals(List.of("a", "b"), removed.removed());
+    }
+}
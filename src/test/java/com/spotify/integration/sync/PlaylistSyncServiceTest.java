@@ -0,0 +1,142 @@
+package com.spotify.integration.sync;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.spotify.integration.client.RequestPriority;
+import com.spotify.integration.dto.Paging;
+import com.spotify.integration.dto.Playlist;
+import com.spotify.integration.dto.PlaylistItem;
+import com.spotify.integration.dto.Track;
+import com.spotify.integration.service.SpotifyAuthService;
+import com.spotify.integration.service.SpotifyPager;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlaylistSyncServiceTest {
+
+    private static final int PAGE_SIZE = 2;
+    private static final Pattern PAGE = Pattern.compile("offset=(\\d+)&limit=(\\d+)");
+    private static final Pattern PLAYLIST_TRACKS = Pattern.compile("/v1/playlists/([^/]+)/tracks");
+
+    // Playlists do usuário em ordem, com o snapshot e as faixas atuais de cada uma.
+    private final List<Playlist> playlists = new CopyOnWriteArrayList<>();
+    private final Map<String, List<String>> tracks = new ConcurrentHashMap<>();
+
+    private final List<String> trackFetches = new CopyOnWriteArrayList<>();
+    private final Set<RequestPriority> priorities = ConcurrentHashMap.newKeySet();
+
+    @Test
+    void changedSnapshotOnALaterPageIsRefetched() {
+        for (int i = 0; i < 5; i++) {
+            _playlist("p" + i, "s1", List.of("t" + i + "-0", "t" + i + "-1"));
+        }
+        PlaylistSyncService service = _service();
+        PlaylistSyncResult first = service.sync("session").block(Duration.ofSeconds(5));
+        assertEquals(5, first.playlists());
+        assertEquals(5, first.refetched());
+
+        // p3 está na segunda página da listagem.
+        _playlist("p3", "s2", List.of("t3-1", "t3-new"));
+        trackFetches.clear();
+        PlaylistSyncResult second = service.sync("session").block(Duration.ofSeconds(5));
+
+        assertEquals(5, second.playlists());
+        assertEquals(4, second.unchanged());
+        assertEquals(1, second.refetched());
+        assertEquals(List.of("p3"), trackFetches);
+        assertEquals(1, second.changes().size());
+        PlaylistDelta delta = second.changes().get(0);
+        assertEquals("p3", delta.playlistId());
+        assertEquals(PlaylistDelta.Change.CHANGED, delta.change());
+        assertEquals(List.of("t3-new"), delta.added());
+        assertEquals(List.of("t3-0"), delta.removed());
+        assertEquals(List.of("t3-1", "t3-new"), service.getIndexedTrackIds("session", "p3"));
+    }
+
+    @Test
+    void laterPagesAndTrackRefetchesRunInTheBackground() {
+        for (int i = 0; i < 5; i++) {
+            _playlist("p" + i, "s1", List.of("t" + i));
+        }
+
+        _service().sync("session").block(Duration.ofSeconds(5));
+
+        assertEquals(Set.of(RequestPriority.BACKGROUND), priorities);
+    }
+
+    private PlaylistSyncService _service() {
+        SpotifyAuthService spotifyAuthService = new SpotifyAuthService(null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null) {
+            @Override
+            public Mono<Paging<Playlist>> revalidateUserPlaylists(String sessionId) {
+                return Mono.just(_page(0, PAGE_SIZE));
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> Mono<T> fetch(String sessionId, String uri, ObjectReader reader, RequestPriority priority) {
+                priorities.add(priority);
+                Matcher page = PAGE.matcher(uri);
+                page.find();
+                return Mono.just((T) _page(Integer.parseInt(page.group(1)), Integer.parseInt(page.group(2))));
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> Flux<T> streamAllPages(String sessionId, String path, ObjectReader pageReader, RequestPriority priority) {
+                priorities.add(priority);
+                Matcher playlist = PLAYLIST_TRACKS.matcher(path);
+                playlist.find();
+                trackFetches.add(playlist.group(1));
+                List<PlaylistItem> items = new ArrayList<>();
+                for (String trackId : tracks.get(playlist.group(1))) {
+                    Track track = new Track();
+                    track.setId(trackId);
+                    PlaylistItem item = new PlaylistItem();
+                    item.setTrack(track);
+                    items.add(item);
+                }
+                return (Flux<T>) Flux.fromIterable(items);
+            }
+        };
+        return new PlaylistSyncService(spotifyAuthService, new SpotifyPager(PAGE_SIZE, 4), 4, Duration.ofHours(12));
+    }
+
+    private void _playlist(String id, String snapshotId, List<String> trackIds) {
+        Playlist playlist = new Playlist();
+        playlist.setId(id);
+        playlist.setName("Playlist " + id);
+        playlist.setSnapshotId(snapshotId);
+        playlists.removeIf(existing -> existing.getId().equals(id));
+        // Mantém a ordem por id, como a listagem do Spotify manteria a posição da playlist.
+        int position = 0;
+        while (position < playlists.size() && playlists.get(position).getId().compareTo(id) < 0) {
+            position++;
+        }
+        playlists.add(position, playlist);
+        tracks.put(id, trackIds);
+    }
+
+    private Paging<Playlist> _page(int offset, int limit) {
+        Paging<Playlist> page = new Paging<>();
+        int end = Math.min(offset + limit, playlists.size());
+        page.setItems(new ArrayList<>(playlists.subList(offset, end)));
+        page.setOffset(offset);
+        page.setLimit(limit);
+        page.setTotal(playlists.size());
+        page.setNext(end < playlists.size() ? "next" : null);
+        return page;
+    }
+}
@@ -0,0 +1,169 @@
+package com.spotify.integration.token;
+
+import com.spotify.integration.metrics.SampledErrorLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FileTokenStoreTest {
+
+    private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sessionsSurviveRestart() throws Exception {
+        Path log = dir.resolve("tokens.log");
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+
+        FileTokenStore store = _open(log);
+        store.save("kept", new SpotifyToken("access-1", "refresh-1", expiresAt));
+        store.save("refreshed", new SpotifyToken("access-2", "refresh-2", expiresAt));
+        store.update("refreshed", token -> token.refreshedWith("access-3", null, expiresAt));
+        store.save("removed", new SpotifyToken("access-4", null, expiresAt));
+        store.remove("removed");
+        store.stop();
+
+        FileTokenStore reopened = _open(log);
+        try {
+            assertEquals(new SpotifyToken("access-1", "refresh-1", expiresAt), reopened.get("kept"));
+            assertEquals(new SpotifyToken("access-3", "refresh-2", expiresAt), reopened.get("refreshed"));
+            assertNull(reopened.get("removed"));
+            assertEquals(2, reopened.size());
+        } finally {
+            reopened.stop();
+        }
+    }
+
+    @Test
+    void refreshTokensAreNotWrittenInClear() throws Exception {
+        Path log = dir.resolve("tokens.log");
+
+        FileTokenStore store = _open(log);
+        store.save("session", new SpotifyToken("access-secret", "refresh-secret", Instant.now()));
+        store.stop();
+
+        String contents = new String(Files.readAllBytes(log), StandardCharsets.ISO_8859_1);
+        assertFalse(contents.contains("refresh-secret"));
+        assertFalse(contents.contains("access-secret"));
+    }
+
+    @Test
+    void tornTailIsDiscarded() throws Exception {
+        Path log = dir.resolve("tokens.log");
+
+        FileTokenStore store = _open(log);
+        store.save("session", new SpotifyToken("access", "refresh", Instant.now()));
+        store.stop();
+        // Simula um registro interrompido no meio da escrita.
+        Files.write(log, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        FileTokenStore reopened = _open(log);
+        reopened.save("other", new SpotifyToken("access", "refresh", Instant.now()));
+        reopened.stop();
+
+        FileTokenStore again = _open(log);
+        try {
+            assertEquals(2, again.size());
+        } finally {
+            again.stop();
+        }
+    }
+
+    @Test
+    void evictedSessionsDoNotComeBackAfterRestart() throws Exception {
+        Path log = dir.resolve("tokens.log");
+
+        FileTokenStore store = _open(log, 2, 1000);
+        store.save("first", new SpotifyToken("access-1", "refresh-1", Instant.now()));
+        store.save("second", new SpotifyToken("access-2", "refresh-2", Instant.now()));
+        store.save("third", new SpotifyToken("access-3", "refresh-3", Instant.now()));
+        assertEquals(2, store.size());
+        store.stop();
+
+        FileTokenStore reopened = _open(log, 1000, 1000);
+        try {
+            assertEquals(2, reopened.size());
+        } finally {
+            reopened.stop();
+        }
+    }
+
+    @Test
+    void writesContinueAfterCompaction() throws Exception {
+        Path log = dir.resolve("tokens.log");
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+
+        FileTokenStore store = _open(log, 1000, 1);
+        store.save("session", new SpotifyToken("access-0", "refresh", expiresAt));
+        for (int i = 1; i <= 20; i++) {
+            String accessToken = "access-" + i;
+            store.update("session", token -> token.refreshedWith(accessToken, null, expiresAt));
+            Thread.sleep(15);
+        }
+        store.save("later", new SpotifyToken("access-later", "refresh-later", expiresAt));
+        store.stop();
+
+        FileTokenStore reopened = _open(log, 1000, 1000);
+        try {
+            assertEquals(new SpotifyToken("access-20", "refresh", expiresAt), reopened.get("session"));
+            assertEquals(new SpotifyToken("access-later", "refresh-later", expiresAt), reopened.get("later"));
+            assertFalse(Files.exists(dir.resolve("tokens.log.compact")));
+        } finally {
+            reopened.stop();
+        }
+    }
+
+    @Test
+    void failedFlushKeepsItsWritesPendingAndTheWriterRunning() throws Exception {
+        Path log = dir.resolve("tokens.log");
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+
+        FileTokenStore store = _open(log);
+        // Um token sem access token não pode ser serializado: todo flush falha enquanto ele estiver pendente.
+        store.save("broken", new SpotifyToken(null, "refresh", expiresAt));
+        store.save("kept", new SpotifyToken("access", "refresh", expiresAt));
+        Thread.sleep(100);
+        assertEquals(2, store.getPendingWrites());
+
+        store.remove("broken");
+        for (int i = 0; i < 100 && store.getPendingWrites() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, store.getPendingWrites(), "o writer deveria seguir gravando depois da falha");
+        store.stop();
+
+        FileTokenStore reopened = _open(log);
+        try {
+            assertEquals(new SpotifyToken("access", "refresh", expiresAt), reopened.get("kept"));
+            assertNull(reopened.get("broken"));
+            assertEquals(1, reopened.size());
+        } finally {
+            reopened.stop();
+        }
+    }
+
+    private static FileTokenStore _open(Path log) throws Exception {
+        return _open(log, 1000, 1000);
+    }
+
+    private static FileTokenStore _open(Path log, int maxSessions, int compactionMinRecords) throws Exception {
+        FileTokenStore store = new FileTokenStore(Thread.ofPlatform().daemon(true).factory(), new SampledErrorLog(5), maxSessions, Duration.ofHours(12),
+                log, KEY, Duration.ofMillis(10), false, compactionMinRecords);
+        store.start();
+        return store;
+    }
+}
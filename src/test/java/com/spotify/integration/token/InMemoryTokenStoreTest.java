@@ -0,0 +1,62 @@
+package com.spotify.integration.token;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class InMemoryTokenStoreTest {
+
+    @Test
+    void backgroundRefreshDoesNotKeepAnIdleSessionAlive() throws InterruptedException {
+        InMemoryTokenStore store = new InMemoryTokenStore(100, Duration.ofMillis(50));
+        store.save("s1", new SpotifyToken("a1", "r1", Instant.now().plusSeconds(3600)));
+
+        Thread.sleep(100);
+        assertNotNull(store.peek("s1"));
+        SpotifyToken refreshed = store.update("s1", token -> new SpotifyToken("a2", "r1", Instant.now().plusSeconds(3600)));
+        assertEquals("a2", refreshed.accessToken());
+
+        store.evictIdleSessions();
+        assertNull(store.peek("s1"));
+    }
+
+    @Test
+    void readsThroughGetKeepTheSessionAlive() throws InterruptedException {
+        InMemoryTokenStore store = new InMemoryTokenStore(100, Duration.ofMillis(1500));
+        store.save("s1", new SpotifyToken("a1", "r1", Instant.now().plusSeconds(3600)));
+
+        // O último acesso é gravado com granularidade de um segundo.
+        Thread.sleep(1100);
+        store.get("s1");
+        Thread.sleep(600);
+
+        store.evictIdleSessions();
+        assertNotNull(store.peek("s1"));
+    }
+
+    @Test
+    void overCapacityEvictsUnreadSessionsFirst() {
+        InMemoryTokenStore store = new InMemoryTokenStore(3, Duration.ofHours(1));
+        for (int i = 1; i <= 3; i++) {
+            store.save("s" + i, new SpotifyToken("a" + i, "r" + i, Instant.now().plusSeconds(3600)));
+        }
+        store.get("s1");
+
+        store.save("s4", new SpotifyToken("a4", "r4", Instant.now().plusSeconds(3600)));
+        assertEquals(3, store.size());
+        assertNotNull(store.peek("s1"));
+        assertNull(store.peek("s2"));
+
+        // Em regime, cada login despeja uma sessão e o store não passa da capacidade.
+        for (int i = 5; i <= 1000; i++) {
+            store.save("s" + i, new SpotifyToken("a" + i, "r" + i, Instant.now().plusSeconds(3600)));
+        }
+        assertEquals(3, store.size());
+        assertNotNull(store.peek("s1000"));
+    }
+}
@@ -0,0 +1,140 @@
+package com.spotify.integration.token;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two store instances over the same embedded H2 database stand in for two replicas.
+ */
+class JdbcTokenStoreTest {
+
+    private final Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+
+    private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcTokenStore nodeA;
+    private JdbcTokenStore nodeB;
+
+    @BeforeEach
+    void createNodes() {
+        jdbcTemplate = new JdbcTemplate(
+                new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"));
+        nodeA = _node(true, 100, Duration.ofHours(12));
+        nodeB = _node(false, 100, Duration.ofHours(12));
+    }
+
+    @Test
+    void onlyOneNodeHoldsTheRefreshLease() {
+        nodeA.save("session", new SpotifyToken("access", "refresh", expiresAt));
+
+        assertTrue(nodeA.tryAcquireRefreshLease("session", Duration.ofMinutes(1)));
+        assertFalse(nodeB.tryAcquireRefreshLease("session", Duration.ofMinutes(1)));
+
+        nodeA.releaseRefreshLease("session");
+        assertTrue(nodeB.tryAcquireRefreshLease("session", Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void leaseOfADeadNodeExpires() throws InterruptedException {
+        nodeA.save("session", new SpotifyToken("access", "refresh", expiresAt));
+
+        assertTrue(nodeA.tryAcquireRefreshLease("session", Duration.ofMillis(50)));
+        Thread.sleep(100);
+
+        assertTrue(nodeB.tryAcquireRefreshLease("session", Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void nearCacheIsInvalidatedWhenAnotherNodeUpdates() {
+        nodeA.save("session", new SpotifyToken("access-1", "refresh-1", expiresAt));
+        assertEquals("access-1", nodeB.get("session").accessToken());
+
+        nodeA.update("session", token -> token.refreshedWith("access-2", "refresh-2", expiresAt));
+        // Leitura local: ainda a versão em cache até a próxima verificação de alterações.
+        assertEquals("access-1", nodeB.get("session").accessToken());
+        assertEquals("access-2", nodeB.getFresh("session").accessToken());
+
+        nodeA.update("session", token -> token.refreshedWith("access-3", null, expiresAt));
+        nodeB.invalidateChanged();
+        assertEquals(new SpotifyToken("access-3", "refresh-2", expiresAt), nodeB.get("session"));
+    }
+
+    @Test
+    void updateOfMissingSessionReturnsNull() {
+        assertNull(nodeA.update("missing", token -> token.refreshedWith("access", null, expiresAt)));
+
+        nodeA.save("session", new SpotifyToken("access", null, null));
+        nodeB.remove("session");
+        assertNull(nodeA.getFresh("session"));
+        nodeA.evictIdleSessions();
+        assertEquals(0, nodeA.size());
+    }
+
+    @Test
+    void tokensAreEncryptedAtRest() {
+        nodeA.save("session", new SpotifyToken("access-secret", "refresh-secret", expiresAt));
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT access_token, refresh_token FROM spotify_token");
+        assertFalse(row.get("access_token").toString().contains("access-secret"));
+        assertFalse(row.get("refresh_token").toString().contains("refresh-secret"));
+        assertEquals(new SpotifyToken("access-secret", "refresh-secret", expiresAt), nodeB.getFresh("session"));
+    }
+
+    @Test
+    void sweepRemovesSessionsOnlyPeekedSinceTheIdleTimeout() throws InterruptedException {
+        JdbcTokenStore node = _node(false, 100, Duration.ofMillis(50));
+        node.save("used", new SpotifyToken("access", "refresh", expiresAt));
+        node.save("abandoned", new SpotifyToken("access", "refresh", expiresAt));
+        Thread.sleep(100);
+
+        assertNotNull(node.get("used"));
+        // Refresh proativo: lê sem contar como uso.
+        assertNotNull(node.peek("abandoned"));
+        node.evictIdleSessions();
+
+        assertNotNull(node.getFresh("used"));
+        assertNull(node.getFresh("abandoned"));
+        assertEquals(1, node.size());
+    }
+
+    @Test
+    void sweepRemovesLeastRecentlyUsedSessionsAboveCapacity() throws InterruptedException {
+        JdbcTokenStore node = _node(false, 2, Duration.ofHours(12));
+        for (String sessionId : new String[]{"s1", "s2", "s3"}) {
+            node.save(sessionId, new SpotifyToken("access", "refresh", expiresAt));
+            Thread.sleep(5);
+        }
+        Thread.sleep(5);
+        assertNotNull(node.get("s1"));
+
+        node.evictIdleSessions();
+
+        assertNotNull(node.getFresh("s1"));
+        assertNull(node.getFresh("s2"));
+        assertNotNull(node.getFresh("s3"));
+        assertEquals(2, node.size());
+    }
+
+    private JdbcTokenStore _node(boolean initializeSchema, int maxSessions, Duration idleTimeout) {
+        JdbcTokenStore node = new JdbcTokenStore(jdbcTemplate, Duration.ofMinutes(1), Duration.ofSeconds(2),
+                initializeSchema, KEY, maxSessions, idleTimeout);
+        node.initialize();
+        return node;
+    }
+}
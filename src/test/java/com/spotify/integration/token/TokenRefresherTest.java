@@ -0,0 +1,174 @@
+package com.spotify.integration.token;
+
+import com.spotify.integration.dto.TokenResponse;
+import com.spotify.integration.metrics.SampledErrorLog;
+import com.spotify.integration.metrics.SpotifyMetrics;
+import com.spotify.integration.service.SpotifyAccountsClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenRefresherTest {
+
+    private final InMemoryTokenStore store = new InMemoryTokenStore(100, Duration.ofHours(1));
+    // Instantes em que o accounts service foi chamado.
+    private final List<Instant> accountsCalls = new CopyOnWriteArrayList<>();
+
+    @Test
+    void storeFailureReachesCallersAndDoesNotWedgeTheSession() {
+        FailingStore store = new FailingStore();
+        TokenRefresher refresher = new TokenRefresher(store, null, null, null, null,
+                Duration.ofSeconds(60), Duration.ZERO, Duration.ofSeconds(10), Duration.ofMillis(250), Duration.ofSeconds(5));
+
+        assertThrows(UnsupportedOperationException.class, () -> refresher.refresh("s1").block(Duration.ofSeconds(5)));
+        // Se a primeira renovação tivesse ficado no mapa, esta esperaria para sempre por ela.
+        assertThrows(UnsupportedOperationException.class, () -> refresher.refresh("s1").block(Duration.ofSeconds(5)));
+        assertEquals(2, store.reads.get());
+    }
+
+    @Test
+    void concurrentRefreshesShareOneAccountsCall() throws InterruptedException {
+        store.save("s1", new SpotifyToken("a1", "r1", Instant.now().plusSeconds(3600)));
+        Sinks.One<TokenResponse> accounts = Sinks.one();
+        TokenRefresher refresher = _refresher(Duration.ofSeconds(60), Duration.ofSeconds(5), call -> accounts.asMono());
+
+        List<Mono<SpotifyToken>> callers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Mono<SpotifyToken> caller = refresher.refresh("s1").cache();
+            caller.subscribe();
+            callers.add(caller);
+        }
+        // A renovação sai para o boundedElastic: espera a chamada chegar ao accounts service.
+        _awaitCalls(1);
+        accounts.tryEmitValue(_response("a2"));
+
+        for (Mono<SpotifyToken> caller : callers) {
+            assertEquals("a2", caller.block(Duration.ofSeconds(5)).accessToken());
+        }
+        assertEquals(1, accountsCalls.size());
+        assertEquals("a2", store.peek("s1").accessToken());
+    }
+
+    @Test
+    void scheduledRefreshRunsBeforeExpiry() throws InterruptedException {
+        Instant expiresAt = Instant.now().plusMillis(1500);
+        store.save("s1", new SpotifyToken("a1", "r1", expiresAt));
+        TokenRefresher refresher = _refresher(Duration.ofSeconds(1), Duration.ofSeconds(5), call -> Mono.just(_response("a2")));
+
+        refresher.start();
+        try {
+            _awaitCalls(1);
+            _awaitAccessToken("a2");
+        } finally {
+            refresher.stop();
+        }
+
+        assertEquals(1, accountsCalls.size());
+        assertTrue(accountsCalls.get(0).isBefore(expiresAt));
+    }
+
+    @Test
+    void failedScheduledRefreshIsRetriedOnceBeforeExpiry() throws InterruptedException {
+        Instant expiresAt = Instant.now().plusMillis(1500);
+        store.save("s1", new SpotifyToken("a1", "r1", expiresAt));
+        TokenRefresher refresher = _refresher(Duration.ofSeconds(1), Duration.ofMillis(200), call -> call == 1
+                ? Mono.error(new IllegalStateException("503"))
+                : Mono.just(_response("a2")));
+
+        refresher.start();
+        try {
+            _awaitCalls(2);
+            _awaitAccessToken("a2");
+        } finally {
+            refresher.stop();
+        }
+
+        assertEquals(2, accountsCalls.size());
+        assertTrue(accountsCalls.get(1).isBefore(expiresAt));
+        assertTrue(Duration.between(accountsCalls.get(0), accountsCalls.get(1)).toMillis() >= 150);
+    }
+
+    private TokenRefresher _refresher(Duration skew, Duration retryBackoff, Function<Integer, Mono<TokenResponse>> responses) {
+        SpotifyAccountsClient accountsClient = new SpotifyAccountsClient(null, null, null, null) {
+            @Override
+            public Mono<TokenResponse> refreshAccessToken(String refreshToken) {
+                accountsCalls.add(Instant.now());
+                return responses.apply(accountsCalls.size());
+            }
+        };
+        return new TokenRefresher(store, accountsClient, Thread.ofVirtual().factory(),
+                new SpotifyMetrics(new SimpleMeterRegistry()), new SampledErrorLog(5),
+                skew, Duration.ZERO, Duration.ofSeconds(10), Duration.ofMillis(250), retryBackoff);
+    }
+
+    private void _awaitCalls(int calls) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (accountsCalls.size() < calls && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(calls, accountsCalls.size());
+    }
+
+    private void _awaitAccessToken(String accessToken) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!accessToken.equals(store.peek("s1").accessToken()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(accessToken, store.peek("s1").accessToken());
+    }
+
+    private static TokenResponse _response(String accessToken) {
+        TokenResponse response = new TokenResponse();
+        response.setAccessToken(accessToken);
+        response.setExpiresIn(3600);
+        return response;
+    }
+
+    private static final class FailingStore implements TokenStore {
+
+        final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public SpotifyToken get(String sessionId) {
+            reads.incrementAndGet();
+            throw new UnsupportedOperationException("banco indisponível");
+        }
+
+        @Override
+        public void save(String sessionId, SpotifyToken token) {
+        }
+
+        @Override
+        public SpotifyToken update(String sessionId, UnaryOperator<SpotifyToken> updater) {
+            return null;
+        }
+
+        @Override
+        public void remove(String sessionId) {
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        @Override
+        public void forEach(BiConsumer<String, SpotifyToken> action) {
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.spotify.integration.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClockEvictionTest {
+
+    private final ConcurrentHashMap<String, Value> entries = new ConcurrentHashMap<>();
+    private final ClockEviction<String, Value> clock = new ClockEviction<>(entries);
+    private final List<String> evicted = new ArrayList<>();
+
+    @Test
+    void referencedEntryGetsASecondChance() {
+        _put("a");
+        _put("b");
+        _put("c");
+        entries.get("a").markReferenced();
+
+        _evictDownTo(2);
+
+        assertEquals(List.of("b"), evicted);
+        assertTrue(entries.containsKey("a"));
+        // A segunda chance põe "a" atrás de "c" e vale uma passada só: sem nova leitura, sai em seguida.
+        _evictDownTo(0);
+        assertEquals(List.of("b", "c", "a"), evicted);
+    }
+
+    @Test
+    void purgeDropsKeysRemovedOutsideTheClock() {
+        for (int i = 0; i < 10; i++) {
+            _put("k" + i);
+        }
+        for (int i = 0; i < 9; i++) {
+            entries.remove("k" + i);
+        }
+        clock.purge();
+
+        _evictDownTo(0);
+
+        assertEquals(List.of("k9"), evicted);
+    }
+
+    private void _put(String key) {
+        if (entries.put(key, new Value()) == null) {
+            clock.add(key);
+        }
+    }
+
+    private void _evictDownTo(int size) {
+        clock.evict(() -> entries.size() > size, (key, value) -> evicted.add(key));
+    }
+
+    private static final class Value extends ClockEviction.Entry {
+    }
+}
@@ -0,0 +1,48 @@
+package com.spotify.integration.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PKCEUtilTest {
+
+    // Exemplo do apêndice B da RFC 7636.
+    private static final String VERIFIER = "dBjftJeZ4CVP-mB92K27uhbUJU1p1r_wW1gFWFOEjXk";
+    private static final String CHALLENGE = "E9Melhoa2OwvFrEMTJguCHaoeK1t8URWbuGJSstw-cM";
+
+    private final PKCEUtil pkceUtil = new PKCEUtil();
+
+    @Test
+    void challengeMatchesTheRfc7636Example() {
+        assertEquals(CHALLENGE, pkceUtil.generateCodeChallenge(VERIFIER));
+    }
+
+    @Test
+    void concurrentCallsOnVirtualThreadsDoNotShareDigestState() throws Exception {
+        List<Future<String>> challenges = new ArrayList<>();
+        List<Future<String>> verifiers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1000; i++) {
+                challenges.add(executor.submit(() -> pkceUtil.generateCodeChallenge(VERIFIER)));
+                verifiers.add(executor.submit(pkceUtil::generateCodeVerifier));
+            }
+        }
+
+        Set<String> distinct = new HashSet<>();
+        for (int i = 0; i < challenges.size(); i++) {
+            assertEquals(CHALLENGE, challenges.get(i).get());
+            String verifier = verifiers.get(i).get();
+            assertEquals(43, verifier.length());
+            distinct.add(verifier);
+        }
+        assertEquals(verifiers.size(), distinct.size());
+    }
+}